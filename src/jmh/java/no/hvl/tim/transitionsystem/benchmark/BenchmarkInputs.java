@@ -0,0 +1,43 @@
+package no.hvl.tim.transitionsystem.benchmark;
+
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.generator.TransitionSystemGenerator;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scalable inputs for the benchmarks.
+ */
+final class BenchmarkInputs {
+
+    private BenchmarkInputs() {
+    }
+
+    /**
+     * Builds a ring of the given size with stored idle transitions, see {@link TransitionSystemGenerator#ring}.
+     */
+    static TransitionSystem ring(final String prefix, final int size) {
+        return new TransitionSystemGenerator(0).ring(prefix, size);
+    }
+
+    /**
+     * Lets the i-th transitions of both rings interact for every i which is a multiple of the given step.
+     */
+    static Map<Transition, Transition> interactions(
+            final TransitionSystem ring1,
+            final TransitionSystem ring2,
+            final int step) {
+        final List<Transition> transitions1 = List.copyOf(ring1.getTransitions());
+        final List<Transition> transitions2 = List.copyOf(ring2.getTransitions());
+        final Map<Transition, Transition> interactions = new LinkedHashMap<>();
+        // The transitions of the rings come before the idle transitions.
+        final int size = ring1.getStates().size();
+        for (int transition = 0; transition < size; transition += step) {
+            interactions.put(transitions1.get(transition), transitions2.get(transition));
+        }
+        return interactions;
+    }
+}
@@ -0,0 +1,43 @@
+package no.hvl.tim.transitionsystem.benchmark;
+
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordination interface of two rings with a varying share of interacting transitions.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CoordinationInterfaceBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    /**
+     * Every step-th transition interacts.
+     */
+    @Param({"1", "10"})
+    public int step;
+
+    private TransitionSystem ring1;
+    private TransitionSystem ring2;
+    private Map<Transition, Transition> interactions;
+
+    @Setup
+    public void setUp() {
+        this.ring1 = BenchmarkInputs.ring("p", this.size);
+        this.ring2 = BenchmarkInputs.ring("q", this.size);
+        this.interactions = BenchmarkInputs.interactions(this.ring1, this.ring2, this.step);
+    }
+
+    @Benchmark
+    public Cospan calcCoordinationInterface() {
+        return PullbackResult.calcCoordinationInterface(this.ring1, this.ring2, this.interactions);
+    }
+}
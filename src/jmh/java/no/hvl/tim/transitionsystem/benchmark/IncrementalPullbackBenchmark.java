@@ -0,0 +1,66 @@
+package no.hvl.tim.transitionsystem.benchmark;
+
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.generator.TransitionSystemGenerator;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.IncrementalPullback;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One delta followed by reading the changes or a snapshot of the pullback of a fibered cospan with 3 * 3 * size
+ * pullback states, compared with calculating the pullback again.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class IncrementalPullbackBenchmark {
+
+    @Param({"1000", "20000"})
+    public int size;
+
+    private Cospan cospan;
+    private IncrementalPullback pullback;
+    private no.hvl.tim.transitionsystem.State extraState;
+    private no.hvl.tim.transitionsystem.State extraImage;
+    private boolean added;
+
+    @Setup
+    public void setUp() {
+        this.cospan = new TransitionSystemGenerator(1).fiberedCospan(this.size, 3, 0.5);
+        this.pullback = new IncrementalPullback(this.cospan);
+        final TransitionSystem target = this.cospan.getI1().getTarget();
+        this.extraState = new no.hvl.tim.transitionsystem.State("extra");
+        this.extraImage = target.getState(target.getStates().size() - 1);
+    }
+
+    @Benchmark
+    public IncrementalPullback.Changes deltaAndPollChanges() {
+        this.delta();
+        return this.pullback.pollChanges();
+    }
+
+    @Benchmark
+    public PullbackResult deltaAndSnapshot() {
+        this.delta();
+        return this.pullback.snapshot();
+    }
+
+    @Benchmark
+    public PullbackResult calculate() {
+        return PullbackResult.calculate(this.cospan);
+    }
+
+    /**
+     * Adds or removes a state of the first leg, so the size of the pullback stays the same.
+     */
+    private void delta() {
+        if (this.added) {
+            this.pullback.removeState(IncrementalPullback.Leg.I1, this.extraState);
+        } else {
+            this.pullback.addState(IncrementalPullback.Leg.I1, this.extraState, this.extraImage);
+        }
+        this.added = !this.added;
+    }
+}
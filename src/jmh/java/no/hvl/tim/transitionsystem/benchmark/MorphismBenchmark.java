@@ -0,0 +1,75 @@
+package no.hvl.tim.transitionsystem.benchmark;
+
+import no.hvl.tim.transitionsystem.TSMorphism;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.ValidationMode;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction of the morphism which maps a ring onto a copy of it.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MorphismBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    @Param({"FULL", "DEFERRED"})
+    public ValidationMode validationMode;
+
+    private TransitionSystem source;
+    private TransitionSystem target;
+    private TSMorphism morphism;
+    private int[] stateImages;
+    private int[] transitionImages;
+
+    @Setup
+    public void setUp() {
+        this.source = BenchmarkInputs.ring("p", this.size);
+        this.target = BenchmarkInputs.ring("p", this.size);
+        this.morphism = this.buildWithIdleTransitions();
+        this.stateImages = this.morphism.getStateImageIds();
+        this.transitionImages = this.morphism.getTransitionImageIds();
+    }
+
+    @Benchmark
+    public TSMorphism buildWithIdleTransitions() {
+        final var builder = new TSMorphismBuilder()
+                .source(this.source)
+                .target(this.target)
+                .validation(this.validationMode);
+        // The ring transitions come before the idle transitions in both systems.
+        final Iterator<Transition> targetTransitions = this.target.getTransitions().iterator();
+        final Iterator<Transition> sourceTransitions = this.source.getTransitions().iterator();
+        for (int transition = 0; transition < this.size; transition++) {
+            builder.addTransitionMapping(sourceTransitions.next(), targetTransitions.next());
+        }
+        return builder.buildWithIdleTransitions();
+    }
+
+    @Benchmark
+    public TSMorphism fromMaps() {
+        return new TSMorphism(
+                this.source,
+                this.target,
+                this.morphism.getStateMapping(),
+                this.morphism.getTransitionMapping(),
+                this.validationMode);
+    }
+
+    @Benchmark
+    public TSMorphism fromImages() {
+        return TSMorphism.fromImages(
+                this.source,
+                this.target,
+                this.stateImages.clone(),
+                this.transitionImages.clone(),
+                this.validationMode);
+    }
+}
@@ -0,0 +1,45 @@
+package no.hvl.tim.transitionsystem.benchmark;
+
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pullback of two rings which interact on every step-th transition. The pullback has about size * step states,
+ * since the non-interacting transitions between two interactions interleave.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PullbackBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"2", "10"})
+    public int step;
+
+    private Cospan cospan;
+
+    @Setup
+    public void setUp() {
+        final TransitionSystem ring1 = BenchmarkInputs.ring("p", this.size);
+        final TransitionSystem ring2 = BenchmarkInputs.ring("q", this.size);
+        this.cospan = PullbackResult.calcCoordinationInterface(
+                ring1,
+                ring2,
+                BenchmarkInputs.interactions(ring1, ring2, this.step));
+    }
+
+    @Benchmark
+    public PullbackResult calculate() {
+        return PullbackResult.calculate(this.cospan);
+    }
+
+    @Benchmark
+    public PullbackResult calculateReachable() {
+        return PullbackResult.calculateReachable(this.cospan);
+    }
+}
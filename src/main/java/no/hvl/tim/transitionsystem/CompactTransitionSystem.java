@@ -0,0 +1,172 @@
+package no.hvl.tim.transitionsystem;
+
+import no.hvl.tim.transitionsystem.builder.CompactTransitionSystemBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compact representation of a transition system.
+ * States and labels are dense int ids and transitions are stored as parallel int arrays.
+ * The names of states and the labels are kept as {@link SymbolTable} symbols.
+ * Outgoing transitions of each state are available in CSR (compressed sparse row) form.
+ * The order of states and transitions is the one of the converted {@link TransitionSystem},
+ * so converting back and forth keeps it.
+ */
+public class CompactTransitionSystem {
+
+    private final Symbol[] stateSymbols;
+    private final Symbol[] labelSymbols;
+    private final int startState;
+
+    private final int[] transitionSources;
+    private final int[] transitionTargets;
+    private final int[] transitionLabels;
+
+    // Outgoing transitions of state s are outgoingTransitions[outgoingOffsets[s] .. outgoingOffsets[s + 1] - 1]
+    private final int[] outgoingOffsets;
+    private final int[] outgoingTransitions;
+
+    /**
+     * Use {@link CompactTransitionSystemBuilder} to create a compact transition system.
+     * The given arrays are owned by the created system afterwards.
+     */
+    public CompactTransitionSystem(
+            final Symbol[] stateSymbols,
+            final Symbol[] labelSymbols,
+            final int startState,
+            final int[] transitionSources,
+            final int[] transitionTargets,
+            final int[] transitionLabels) {
+        assert startState >= 0 && startState < stateSymbols.length;
+        assert transitionSources.length == transitionTargets.length
+                && transitionSources.length == transitionLabels.length;
+        this.stateSymbols = stateSymbols;
+        this.labelSymbols = labelSymbols;
+        this.startState = startState;
+        this.transitionSources = transitionSources;
+        this.transitionTargets = transitionTargets;
+        this.transitionLabels = transitionLabels;
+
+        // Counting sort of the transitions by source state, which is stable.
+        final int stateCount = stateSymbols.length;
+        this.outgoingOffsets = new int[stateCount + 1];
+        for (final int source : transitionSources) {
+            this.outgoingOffsets[source + 1]++;
+        }
+        for (int state = 0; state < stateCount; state++) {
+            this.outgoingOffsets[state + 1] += this.outgoingOffsets[state];
+        }
+        this.outgoingTransitions = new int[transitionSources.length];
+        final int[] nextSlot = new int[stateCount];
+        System.arraycopy(this.outgoingOffsets, 0, nextSlot, 0, stateCount);
+        for (int transition = 0; transition < transitionSources.length; transition++) {
+            this.outgoingTransitions[nextSlot[transitionSources[transition]]++] = transition;
+        }
+    }
+
+    /**
+     * Converts the given transition system into its compact representation.
+     */
+    public static CompactTransitionSystem of(final TransitionSystem system) {
+        final var builder = new CompactTransitionSystemBuilder(
+                system.getStates().size(),
+                system.getTransitions().size());
+        system.getStates().forEach(state -> builder.addStateSymbol(state.getSymbol()));
+        builder.startState(builder.addStateSymbol(system.getStartState().getSymbol()));
+        for (final Transition transition : system.getTransitions()) {
+            builder.addTransition(
+                    builder.addStateSymbol(transition.getSource().getSymbol()),
+                    builder.addLabelSymbol(transition.getLabelSymbol()),
+                    builder.addStateSymbol(transition.getTarget().getSymbol()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Converts this compact representation back into a {@link TransitionSystem}.
+     */
+    public TransitionSystem toTransitionSystem() {
+        final List<State> stateObjects = new ArrayList<>(this.stateSymbols.length);
+        for (final Symbol stateSymbol : this.stateSymbols) {
+            stateObjects.add(new State(stateSymbol));
+        }
+        final Set<State> states = new LinkedHashSet<>(stateObjects);
+        final Set<Transition> transitions = new LinkedHashSet<>();
+        for (int transition = 0; transition < this.transitionSources.length; transition++) {
+            transitions.add(new Transition(
+                    stateObjects.get(this.transitionSources[transition]),
+                    stateObjects.get(this.transitionTargets[transition]),
+                    this.labelSymbols[this.transitionLabels[transition]]));
+        }
+        return new TransitionSystem(stateObjects.get(this.startState), states, transitions);
+    }
+
+    public int getStateCount() {
+        return this.stateSymbols.length;
+    }
+
+    public int getTransitionCount() {
+        return this.transitionSources.length;
+    }
+
+    public int getLabelCount() {
+        return this.labelSymbols.length;
+    }
+
+    public int getStartState() {
+        return this.startState;
+    }
+
+    public String getStateName(final int state) {
+        return this.stateSymbols[state].render();
+    }
+
+    public Symbol getStateSymbol(final int state) {
+        return this.stateSymbols[state];
+    }
+
+    public String getLabel(final int label) {
+        return this.labelSymbols[label].render();
+    }
+
+    public Symbol getLabelSymbol(final int label) {
+        return this.labelSymbols[label];
+    }
+
+    public int getTransitionSource(final int transition) {
+        return this.transitionSources[transition];
+    }
+
+    public int getTransitionTarget(final int transition) {
+        return this.transitionTargets[transition];
+    }
+
+    public int getTransitionLabel(final int transition) {
+        return this.transitionLabels[transition];
+    }
+
+    public int getOutDegree(final int state) {
+        return this.outgoingOffsets[state + 1] - this.outgoingOffsets[state];
+    }
+
+    /**
+     * Returns the i-th outgoing transition of the given state.
+     * Outgoing transitions are ordered like the transitions of the system.
+     */
+    public int getOutgoingTransition(final int state, final int i) {
+        assert i >= 0 && i < this.getOutDegree(state);
+        return this.outgoingTransitions[this.outgoingOffsets[state] + i];
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "CompactTransitionSystem[%d states, %d transitions, %d labels]",
+                this.getStateCount(),
+                this.getTransitionCount(),
+                this.getLabelCount());
+    }
+}
@@ -0,0 +1,91 @@
+package no.hvl.tim.transitionsystem;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Unmodifiable map view of a mapping which is stored as an int array.
+ * The array holds the target id of the image for each source id.
+ */
+class DenseMapping<K> extends AbstractMap<K, K> {
+
+    private final Class<K> elementType;
+    private final int[] images;
+    private final ToIntFunction<K> sourceIds;
+    private final IntFunction<K> sourceElements;
+    private final IntFunction<K> targetElements;
+
+    DenseMapping(
+            final Class<K> elementType,
+            final int[] images,
+            final ToIntFunction<K> sourceIds,
+            final IntFunction<K> sourceElements,
+            final IntFunction<K> targetElements) {
+        this.elementType = elementType;
+        this.images = images;
+        this.sourceIds = sourceIds;
+        this.sourceElements = sourceElements;
+        this.targetElements = targetElements;
+    }
+
+    private int idOf(final Object key) {
+        if (!this.elementType.isInstance(key)) {
+            return -1;
+        }
+        return this.sourceIds.applyAsInt(this.elementType.cast(key));
+    }
+
+    @Override
+    public K get(final Object key) {
+        final int id = this.idOf(key);
+        return id == -1 ? null : this.targetElements.apply(this.images[id]);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.idOf(key) != -1;
+    }
+
+    @Override
+    public int size() {
+        return this.images.length;
+    }
+
+    @Override
+    public Set<Entry<K, K>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, K>> iterator() {
+                return new Iterator<>() {
+                    private int id;
+
+                    @Override
+                    public boolean hasNext() {
+                        return this.id < DenseMapping.this.images.length;
+                    }
+
+                    @Override
+                    public Entry<K, K> next() {
+                        if (!this.hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final int current = this.id++;
+                        return new SimpleImmutableEntry<>(
+                                DenseMapping.this.sourceElements.apply(current),
+                                DenseMapping.this.targetElements.apply(DenseMapping.this.images[current]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DenseMapping.this.images.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package no.hvl.tim.transitionsystem;
+
+/**
+ * Sizes of the fibers of one component of a morphism (see {@link Fibers}).
+ */
+public final class FiberStatistics {
+
+    private final int fiberCount;
+    private final int elementCount;
+    private final int nonEmptyFiberCount;
+    private final int maxFiberSize;
+
+    FiberStatistics(final int fiberCount, final int elementCount, final int nonEmptyFiberCount, final int maxFiberSize) {
+        this.fiberCount = fiberCount;
+        this.elementCount = elementCount;
+        this.nonEmptyFiberCount = nonEmptyFiberCount;
+        this.maxFiberSize = maxFiberSize;
+    }
+
+    /**
+     * Returns the number of fibers, i.e., the number of elements in the target.
+     */
+    public int getFiberCount() {
+        return this.fiberCount;
+    }
+
+    /**
+     * Returns the number of elements in the source.
+     */
+    public int getElementCount() {
+        return this.elementCount;
+    }
+
+    public int getNonEmptyFiberCount() {
+        return this.nonEmptyFiberCount;
+    }
+
+    public int getMaxFiberSize() {
+        return this.maxFiberSize;
+    }
+
+    /**
+     * Returns the average size of the non-empty fibers or 0 if all fibers are empty.
+     */
+    public double getAverageFiberSize() {
+        if (this.nonEmptyFiberCount == 0) {
+            return 0;
+        }
+        return (double) this.elementCount / this.nonEmptyFiberCount;
+    }
+
+    /**
+     * Returns true if no fiber is empty, i.e., the component of the morphism is surjective.
+     */
+    public boolean isSurjective() {
+        return this.nonEmptyFiberCount == this.fiberCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%d elements in %d of %d fibers (max %d, average %.2f)",
+                this.elementCount,
+                this.nonEmptyFiberCount,
+                this.fiberCount,
+                this.maxFiberSize,
+                this.getAverageFiberSize());
+    }
+}
@@ -0,0 +1,107 @@
+package no.hvl.tim.transitionsystem;
+
+import java.util.Arrays;
+
+/**
+ * The preimage of one component (states or transitions) of a morphism.
+ * Holds the ids of the source elements grouped by the ids of their images. The elements over one image
+ * (its fiber) are stored contiguously and keep the order of the source elements.
+ */
+public final class Fibers {
+
+    // The fiber of image i is elements[offsets[i] .. offsets[i + 1] - 1]
+    private final int[] offsets;
+    private final int[] elements;
+    private volatile FiberStatistics statistics;
+
+    /**
+     * Groups the element ids by their image using a counting sort.
+     * Throws a {@link TransitionSystemException} if an element has no image, i.e., an image id outside of
+     * 0 to imageCount - 1 such as -1.
+     *
+     * @param images     the image id for each element id
+     * @param imageCount the number of possible images
+     */
+    public Fibers(final int[] images, final int imageCount) {
+        this.offsets = new int[imageCount + 1];
+        for (int element = 0; element < images.length; element++) {
+            final int image = images[element];
+            if (image < 0 || image >= imageCount) {
+                throw new TransitionSystemException(String.format(
+                        "The element %d has the image %d, which is not one of the %d images!",
+                        element,
+                        image,
+                        imageCount));
+            }
+            this.offsets[image + 1]++;
+        }
+        for (int image = 0; image < imageCount; image++) {
+            this.offsets[image + 1] += this.offsets[image];
+        }
+        this.elements = new int[images.length];
+        final int[] nextSlot = Arrays.copyOf(this.offsets, imageCount);
+        for (int element = 0; element < images.length; element++) {
+            this.elements[nextSlot[images[element]]++] = element;
+        }
+    }
+
+    /**
+     * Returns the number of possible images, i.e., the number of fibers.
+     */
+    public int getImageCount() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of elements over the given image.
+     */
+    public int getFiberSize(final int image) {
+        return this.offsets[image + 1] - this.offsets[image];
+    }
+
+    /**
+     * Returns the position of the first element of the fiber of the given image.
+     */
+    public int getStart(final int image) {
+        return this.offsets[image];
+    }
+
+    /**
+     * Returns the position after the last element of the fiber of the given image.
+     */
+    public int getEnd(final int image) {
+        return this.offsets[image + 1];
+    }
+
+    /**
+     * Returns the element id at the given position.
+     */
+    public int get(final int position) {
+        return this.elements[position];
+    }
+
+    /**
+     * Returns a copy of the element ids over the given image.
+     */
+    public int[] getFiber(final int image) {
+        return Arrays.copyOfRange(this.elements, this.offsets[image], this.offsets[image + 1]);
+    }
+
+    public FiberStatistics getStatistics() {
+        var result = this.statistics;
+        if (result == null) {
+            var nonEmptyFibers = 0;
+            var maxFiberSize = 0;
+            for (int image = 0; image < this.getImageCount(); image++) {
+                final int fiberSize = this.getFiberSize(image);
+                if (fiberSize > 0) {
+                    nonEmptyFibers++;
+                }
+                maxFiberSize = Math.max(maxFiberSize, fiberSize);
+            }
+            result = new FiberStatistics(this.getImageCount(), this.elements.length, nonEmptyFibers, maxFiberSize);
+            this.statistics = result;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,111 @@
+package no.hvl.tim.transitionsystem;
+
+/**
+ * Order-independent 128-bit hash of the states and transitions of a transition system.
+ * The fingerprint of a system is the sum of the fingerprints of its elements, so it can be updated incrementally
+ * by adding or subtracting the fingerprints of single states and transitions.
+ * Fingerprints are derived from the ids of {@link Symbol}s and are therefore only comparable within one process and
+ * while the systems (or at least their symbols) are still referenced, since the ids of collected symbols are reused.
+ */
+public final class Fingerprint {
+
+    /**
+     * Fingerprint of the empty system.
+     */
+    public static final Fingerprint EMPTY = new Fingerprint(0L, 0L);
+
+    private static final long STATE_SEED = 0x9E3779B97F4A7C15L;
+    private static final long TRANSITION_SEED = 0xC2B2AE3D27D4EB4FL;
+    private static final long HIGH_SEED = 0x165667B19E3779F9L;
+
+    private final long low;
+    private final long high;
+
+    public Fingerprint(final long low, final long high) {
+        this.low = low;
+        this.high = high;
+    }
+
+    public static Fingerprint of(final State state) {
+        return ofElement(STATE_SEED + state.getSymbol().getId());
+    }
+
+    public static Fingerprint of(final Transition transition) {
+        long hash = TRANSITION_SEED;
+        hash = mix(hash + transition.getSource().getSymbol().getId());
+        hash = mix(hash + transition.getTarget().getSymbol().getId());
+        hash = mix(hash + transition.getLabelSymbol().getId());
+        return ofElement(hash);
+    }
+
+    /**
+     * Calculates the fingerprint of the states and transitions of the given system.
+     */
+    public static Fingerprint of(final TransitionSystem system) {
+        long low = 0L;
+        long high = 0L;
+        for (final State state : system.getStates()) {
+            final Fingerprint stateFingerprint = of(state);
+            low += stateFingerprint.low;
+            high += stateFingerprint.high;
+        }
+        for (final Transition transition : system.getTransitions()) {
+            final Fingerprint transitionFingerprint = of(transition);
+            low += transitionFingerprint.low;
+            high += transitionFingerprint.high;
+        }
+        return new Fingerprint(low, high);
+    }
+
+    private static Fingerprint ofElement(final long hash) {
+        return new Fingerprint(mix(hash), mix(hash ^ HIGH_SEED));
+    }
+
+    /**
+     * Finalizer of SplitMix64, which spreads every input bit over all output bits.
+     */
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public Fingerprint add(final Fingerprint other) {
+        return new Fingerprint(this.low + other.low, this.high + other.high);
+    }
+
+    public Fingerprint subtract(final Fingerprint other) {
+        return new Fingerprint(this.low - other.low, this.high - other.high);
+    }
+
+    public long getLow() {
+        return this.low;
+    }
+
+    public long getHigh() {
+        return this.high;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Fingerprint)) {
+            return false;
+        }
+        final Fingerprint that = (Fingerprint) o;
+        return this.low == that.low && this.high == that.high;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(this.low);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", this.high, this.low);
+    }
+}
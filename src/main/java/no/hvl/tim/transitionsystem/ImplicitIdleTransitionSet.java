@@ -0,0 +1,73 @@
+package no.hvl.tim.transitionsystem;
+
+import com.google.common.collect.Iterators;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unmodifiable view of the stored transitions of a system followed by its implicit idle transitions.
+ * The idle transitions are not stored with the other transitions but created once for all states on first use.
+ */
+class ImplicitIdleTransitionSet extends AbstractSet<Transition> {
+
+    private final Set<State> states;
+    private final Set<Transition> storedTransitions;
+    private final Symbol idleLabel;
+    // Created lazily like the index of the system.
+    private volatile List<Transition> idleTransitions;
+
+    ImplicitIdleTransitionSet(final Set<State> states, final Set<Transition> storedTransitions, final Symbol idleLabel) {
+        this.states = states;
+        this.storedTransitions = storedTransitions;
+        this.idleLabel = idleLabel;
+    }
+
+    boolean isIdleTransition(final Transition transition) {
+        return transition.getSource().equals(transition.getTarget())
+                && transition.getLabelSymbol() == this.idleLabel
+                && this.states.contains(transition.getSource());
+    }
+
+    /**
+     * Returns the implicit idle transitions in the order of their states.
+     */
+    List<Transition> getIdleTransitions() {
+        var result = this.idleTransitions;
+        if (result == null) {
+            // Racing threads create equal transitions, so it does not matter which ones are kept.
+            final List<Transition> transitions = new ArrayList<>(this.states.size());
+            for (final State state : this.states) {
+                transitions.add(new Transition(state, state, this.idleLabel));
+            }
+            result = Collections.unmodifiableList(transitions);
+            this.idleTransitions = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if (!(o instanceof Transition)) {
+            return false;
+        }
+        final Transition transition = (Transition) o;
+        return this.isIdleTransition(transition) || this.storedTransitions.contains(transition);
+    }
+
+    @Override
+    public Iterator<Transition> iterator() {
+        return Iterators.unmodifiableIterator(Iterators.concat(
+                this.storedTransitions.iterator(),
+                this.getIdleTransitions().iterator()));
+    }
+
+    @Override
+    public int size() {
+        return this.storedTransitions.size() + this.states.size();
+    }
+}
@@ -1,25 +1,58 @@
 package no.hvl.tim.transitionsystem;
 
-import com.google.common.base.Objects;
+import java.util.Arrays;
 
 /**
  * Desribes a state in a transition system.
+ * The name of a state is interned in the {@link SymbolTable}, such that states are compared by their symbol.
+ * A state references its symbol, which keeps the symbol from being collected.
  */
 public class State {
 
-    private final String name;
+    private final Symbol symbol;
 
     public State(final String name) {
-        this.name = name;
+        this(SymbolTable.getGlobal().intern(name));
+    }
+
+    /**
+     * Creates a state for an already interned name.
+     */
+    public State(final Symbol symbol) {
+        assert symbol != null;
+        this.symbol = symbol;
+    }
+
+    /**
+     * Creates a state with the composite name of the given states, e.g., "(a, b)".
+     */
+    public static State tuple(final State... components) {
+        return new State(SymbolTable.getGlobal().internTuple(
+                SymbolTable.TupleKind.STATE,
+                Arrays.stream(components).map(State::getSymbol).toArray(Symbol[]::new)));
+    }
+
+    /**
+     * Creates a state with the composite name of the given two states, e.g., "(a, b)".
+     */
+    public static State tuple(final State first, final State second) {
+        return new State(SymbolTable.getGlobal().internTuple(
+                SymbolTable.TupleKind.STATE,
+                first.getSymbol(),
+                second.getSymbol()));
+    }
+
+    public Symbol getSymbol() {
+        return this.symbol;
     }
 
     public String getName() {
-        return this.name;
+        return this.symbol.render();
     }
 
     @Override
     public String toString() {
-        return this.name;
+        return this.getName();
     }
 
     @Override
@@ -31,11 +64,11 @@ public class State {
             return false;
         }
         final var state = (State) o;
-        return Objects.equal(this.getName(), state.getName());
+        return this.symbol == state.symbol;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.getName());
+        return this.symbol.hashCode();
     }
 }
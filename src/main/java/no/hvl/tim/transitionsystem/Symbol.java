@@ -0,0 +1,114 @@
+package no.hvl.tim.transitionsystem;
+
+/**
+ * Interned name of a state or label of a transition, which is either an atomic name or a tuple of symbols.
+ * Symbols are created by a {@link SymbolTable}, which returns the same symbol for equal names as long as the symbol
+ * is referenced, so symbols are compared by identity.
+ */
+public final class Symbol {
+
+    private final int id;
+    // Atomic name or null for tuples
+    private final String name;
+    private final SymbolTable.TupleKind kind;
+    private final Symbol[] components;
+
+    Symbol(final int id, final String name) {
+        this.id = id;
+        this.name = name;
+        this.kind = null;
+        this.components = null;
+    }
+
+    Symbol(final int id, final SymbolTable.TupleKind kind, final Symbol[] components) {
+        this.id = id;
+        this.name = null;
+        this.kind = kind;
+        this.components = components;
+    }
+
+    /**
+     * Returns the id of this symbol, which is unique among the symbols of its table which are still referenced.
+     * Ids are small ints and the ids of collected symbols are reused.
+     */
+    public int getId() {
+        return this.id;
+    }
+
+    public boolean isTuple() {
+        return this.kind != null;
+    }
+
+    public SymbolTable.TupleKind getTupleKind() {
+        this.checkTuple();
+        return this.kind;
+    }
+
+    /**
+     * Returns the components of this tuple symbol.
+     */
+    public Symbol[] getTupleComponents() {
+        this.checkTuple();
+        return this.components.clone();
+    }
+
+    /**
+     * Returns the text of this symbol. Tuples are rendered recursively.
+     */
+    public String render() {
+        if (this.name != null) {
+            return this.name;
+        }
+        final var builder = new StringBuilder();
+        this.render(builder);
+        return builder.toString();
+    }
+
+    private void render(final StringBuilder builder) {
+        builder.append(this.kind.getPrefix());
+        for (int i = 0; i < this.components.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            final Symbol component = this.components[i];
+            if (component.isTuple()) {
+                component.render(builder);
+            } else {
+                appendComponent(component.name, builder);
+            }
+        }
+        builder.append(this.kind.getSuffix());
+    }
+
+    private static void appendComponent(final String name, final StringBuilder builder) {
+        if (!SymbolTable.needsQuotes(name)) {
+            builder.append(name);
+            return;
+        }
+        builder.append('"');
+        for (int index = 0; index < name.length(); index++) {
+            final char character = name.charAt(index);
+            if (character == '"' || character == '\\') {
+                builder.append('\\');
+            }
+            builder.append(character);
+        }
+        builder.append('"');
+    }
+
+    private void checkTuple() {
+        if (this.kind == null) {
+            throw new TransitionSystemException(String.format("The symbol %s is not a tuple!", this.name));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.render();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.id;
+    }
+}
@@ -0,0 +1,357 @@
+package no.hvl.tim.transitionsystem;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the names of states and the labels of transitions as {@link Symbol}s.
+ * A symbol is either an atomic name or a tuple of symbols, such as the composite names in pullbacks.
+ * Tuples are kept structured and are only rendered to text when needed.
+ * Equal names (and equal tuples) get the same symbol as long as it is referenced, so they can be compared by
+ * identity.
+ * <p>
+ * Tuples are rendered unambiguously: components are separated by ", " and atomic components which are empty or
+ * contain one of {@code , ( ) < > { } " \} are quoted, where quotes and backslashes are escaped by a backslash,
+ * e.g., ("a, b", c). Names which are rendered tuples are interned as that tuple, so a symbol and the symbol of its
+ * rendering are the same and two symbols are equal if and only if they are rendered equally.
+ * <p>
+ * The table only references its symbols weakly. Symbols which are no longer referenced by any state, transition or
+ * system are collected, and their entries and ids are reclaimed by later calls to the table.
+ */
+public final class SymbolTable {
+
+    private static final SymbolTable GLOBAL = new SymbolTable();
+
+    private static final int INITIAL_FREE_IDS = 16;
+
+    // Characters of atomic names which are quoted in tuples
+    private static final String SPECIAL_CHARACTERS = ",()<>{}\"\\";
+
+    /**
+     * Kind of a tuple, which determines how it is rendered.
+     */
+    public enum TupleKind {
+        /**
+         * Composite state names, rendered like "(a, b)".
+         */
+        STATE("(", ")"),
+        /**
+         * Composite transition labels, rendered like "&lt;a, b&gt;".
+         */
+        LABEL("<", ">"),
+        /**
+         * Groups of labels which are executed together, rendered like "{a, b}".
+         */
+        GROUP("{", "}");
+
+        private final String prefix;
+        private final String suffix;
+
+        TupleKind(final String prefix, final String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        String getPrefix() {
+            return this.prefix;
+        }
+
+        String getSuffix() {
+            return this.suffix;
+        }
+    }
+
+    // Names and tuples to their symbols. Tuple-shaped names are mapped to the symbol of their tuple.
+    private final Map<Object, SymbolReference> symbols = new ConcurrentHashMap<>();
+    // References of collected symbols, whose entries are removed by expunge.
+    private final ReferenceQueue<Symbol> collected = new ReferenceQueue<>();
+    // Ids of collected symbols, which are reused first. Only change under the lock.
+    private int[] freeIds = new int[INITIAL_FREE_IDS];
+    private int freeCount;
+    private int nextId;
+
+    /**
+     * Returns the symbol table which is used for all states and transitions.
+     */
+    public static SymbolTable getGlobal() {
+        return GLOBAL;
+    }
+
+    /**
+     * Returns the symbol for the given name, which is a tuple symbol if the name has the form of a tuple.
+     */
+    public Symbol intern(final String name) {
+        final Symbol symbol = this.lookup(name);
+        if (symbol != null) {
+            return symbol;
+        }
+        final ParsedTuple parsed = parseTupleName(name);
+        if (parsed == null) {
+            return this.internEntry(name);
+        }
+        final Symbol tuple = this.internParsed(parsed);
+        this.addAlias(name, tuple);
+        return tuple;
+    }
+
+    /**
+     * Returns the symbol for the tuple of the given symbols.
+     */
+    public Symbol internTuple(final TupleKind kind, final Symbol... components) {
+        assert components.length > 0;
+        return this.internEntry(new TupleKey(kind, components.clone()));
+    }
+
+    /**
+     * Returns the number of symbols which are referenced or whose collection has not been noticed yet.
+     */
+    public synchronized int size() {
+        this.expunge();
+        return this.nextId - this.freeCount;
+    }
+
+    private Symbol internParsed(final Object parsed) {
+        if (parsed instanceof String) {
+            // Parsed names are atomic.
+            return this.internEntry(parsed);
+        }
+        final ParsedTuple tuple = (ParsedTuple) parsed;
+        return this.internTuple(tuple.kind, tuple.components.stream().map(this::internParsed).toArray(Symbol[]::new));
+    }
+
+    /**
+     * Parses the given name as it is rendered by {@link Symbol#render()}, i.e., components are separated by ", ",
+     * nested tuples are enclosed in their brackets and other components are quoted if {@link #needsQuotes}.
+     * Returns the tuple with its atomic names (String) and nested tuples (ParsedTuple), or null if the name is not
+     * rendered like this, e.g., "(a,b)", "(a, , b)" or "(a, (b)".
+     */
+    private static ParsedTuple parseTupleName(final String name) {
+        if (tupleKind(name) == null) {
+            return null;
+        }
+        final var parser = new NameParser(name);
+        final ParsedTuple tuple = parser.parseTuple();
+        return tuple != null && parser.position == name.length() ? tuple : null;
+    }
+
+    /**
+     * Whether the given atomic name is quoted as a component of a tuple, since it would be read differently
+     * otherwise.
+     */
+    static boolean needsQuotes(final String name) {
+        if (name.isEmpty()) {
+            return true;
+        }
+        for (int index = 0; index < name.length(); index++) {
+            if (SPECIAL_CHARACTERS.indexOf(name.charAt(index)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static TupleKind tupleKind(final String name) {
+        return name.isEmpty() ? null : tupleKind(name.charAt(0));
+    }
+
+    private static TupleKind tupleKind(final char prefix) {
+        for (final TupleKind kind : TupleKind.values()) {
+            if (kind.prefix.charAt(0) == prefix) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    private Symbol lookup(final Object key) {
+        final SymbolReference reference = this.symbols.get(key);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Returns the symbol of the given atomic name (String) or tuple (TupleKey), which is created if there is no
+     * referenced symbol for it.
+     */
+    private Symbol internEntry(final Object key) {
+        final Symbol symbol = this.lookup(key);
+        if (symbol != null) {
+            return symbol;
+        }
+        synchronized (this) {
+            final Symbol existingSymbol = this.lookup(key);
+            if (existingSymbol != null) {
+                return existingSymbol;
+            }
+            this.expunge();
+            final int id = this.freeCount > 0 ? this.freeIds[--this.freeCount] : this.nextId++;
+            final Symbol newSymbol = key instanceof String
+                    ? new Symbol(id, (String) key)
+                    : new Symbol(id, ((TupleKey) key).kind, ((TupleKey) key).components);
+            // Replaces the entry of a collected symbol, whose reference only removes itself.
+            this.symbols.put(key, new SymbolReference(newSymbol, key, id, this.collected));
+            return newSymbol;
+        }
+    }
+
+    /**
+     * Maps the given tuple-shaped name to its tuple, such that it is not parsed again.
+     */
+    private synchronized void addAlias(final String name, final Symbol tuple) {
+        this.expunge();
+        this.symbols.put(name, new SymbolReference(tuple, name, -1, this.collected));
+    }
+
+    /**
+     * Removes the entries of collected symbols and frees their ids.
+     */
+    private void expunge() {
+        Reference<? extends Symbol> reference;
+        while ((reference = this.collected.poll()) != null) {
+            final SymbolReference symbolReference = (SymbolReference) reference;
+            this.symbols.remove(symbolReference.key, symbolReference);
+            if (symbolReference.id >= 0) {
+                if (this.freeCount == this.freeIds.length) {
+                    this.freeIds = Arrays.copyOf(this.freeIds, this.freeCount * 2);
+                }
+                this.freeIds[this.freeCount++] = symbolReference.id;
+            }
+        }
+    }
+
+    private static final class SymbolReference extends WeakReference<Symbol> {
+        private final Object key;
+        // Id of the symbol, or -1 for tuple-shaped names which only refer to the symbol of their tuple
+        private final int id;
+
+        private SymbolReference(
+                final Symbol symbol,
+                final Object key,
+                final int id,
+                final ReferenceQueue<Symbol> queue) {
+            super(symbol, queue);
+            this.key = key;
+            this.id = id;
+        }
+    }
+
+    private static final class TupleKey {
+        private final TupleKind kind;
+        private final Symbol[] components;
+        private final int hash;
+
+        private TupleKey(final TupleKind kind, final Symbol[] components) {
+            this.kind = kind;
+            this.components = components;
+            this.hash = 31 * kind.hashCode() + Arrays.hashCode(components);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TupleKey)) {
+                return false;
+            }
+            final TupleKey tuple = (TupleKey) o;
+            // Components are interned and compared by identity.
+            return this.kind == tuple.kind && Arrays.equals(this.components, tuple.components);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    private static final class ParsedTuple {
+        private final TupleKind kind;
+        private final List<Object> components = new ArrayList<>();
+
+        private ParsedTuple(final TupleKind kind) {
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * Recursive descent parser for rendered tuples. Each method returns null if the name is not rendered by
+     * {@link Symbol#render()}.
+     */
+    private static final class NameParser {
+        private final String name;
+        private int position;
+
+        private NameParser(final String name) {
+            this.name = name;
+        }
+
+        private ParsedTuple parseTuple() {
+            final TupleKind kind = tupleKind(this.name.charAt(this.position++));
+            final var tuple = new ParsedTuple(kind);
+            while (true) {
+                final Object component = this.parseComponent();
+                if (component == null) {
+                    return null;
+                }
+                tuple.components.add(component);
+                if (this.name.startsWith(", ", this.position)) {
+                    this.position += 2;
+                } else if (this.name.startsWith(kind.suffix, this.position)) {
+                    this.position++;
+                    return tuple;
+                } else {
+                    return null;
+                }
+            }
+        }
+
+        private Object parseComponent() {
+            if (this.position == this.name.length()) {
+                return null;
+            }
+            final char first = this.name.charAt(this.position);
+            if (tupleKind(first) != null) {
+                return this.parseTuple();
+            }
+            if (first == '"') {
+                return this.parseQuoted();
+            }
+            final int start = this.position;
+            while (this.position < this.name.length()
+                    && SPECIAL_CHARACTERS.indexOf(this.name.charAt(this.position)) < 0) {
+                this.position++;
+            }
+            return this.position > start ? this.name.substring(start, this.position) : null;
+        }
+
+        private String parseQuoted() {
+            this.position++;
+            final var component = new StringBuilder();
+            while (this.position < this.name.length()) {
+                char character = this.name.charAt(this.position++);
+                if (character == '"') {
+                    final String result = component.toString();
+                    // Names which are not quoted when rendered, or which are read as tuples, are not atomic.
+                    return needsQuotes(result) && parseTupleName(result) == null ? result : null;
+                }
+                if (character == '\\') {
+                    if (this.position == this.name.length()) {
+                        return null;
+                    }
+                    character = this.name.charAt(this.position++);
+                    if (character != '"' && character != '\\') {
+                        return null;
+                    }
+                }
+                component.append(character);
+            }
+            return null;
+        }
+    }
+}
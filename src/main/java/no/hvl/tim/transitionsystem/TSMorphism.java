@@ -1,56 +1,273 @@
 package no.hvl.tim.transitionsystem;
 
+import com.google.common.collect.Maps;
+
+import java.util.AbstractList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.function.IntFunction;
 
+/**
+ * A morphism between two transition systems, i.e., a state and a transition mapping which are compatible.
+ * If the source system has implicit idle transitions, they are implicitly mapped to the idle transition
+ * of the image of their state and need no entry in the transition mapping.
+ * Morphisms can also be backed by int arrays holding the ids of the images (see {@link #fromImages}).
+ * Then the map based API is a view on the arrays.
+ * The preimages (fibers) of target states and transitions are indexed lazily on first use.
+ */
 public class TSMorphism {
 
+    /**
+     * Maximum number of transition mappings checked in {@link ValidationMode#SAMPLED} mode.
+     */
+    private static final int VALIDATION_SAMPLE_SIZE = 64;
+
     private final TransitionSystem source;
     private final TransitionSystem target;
     private final Map<State, State> stateMapping;
     private final Map<Transition, Transition> transitionMapping;
+    // Ids of the images indexed by the ids of the source. Calculated lazily for map based morphisms.
+    private volatile int[] stateImages;
+    private volatile int[] transitionImages;
+    // Preimage index, calculated lazily.
+    private volatile Fibers stateFibers;
+    private volatile Fibers transitionFibers;
 
     public TSMorphism(
             final TransitionSystem source,
             final TransitionSystem target,
             final Map<State, State> stateMapping,
             final Map<Transition, Transition> transitionMapping) {
+        this(source, target, stateMapping, transitionMapping, ValidationMode.FULL);
+    }
+
+    public TSMorphism(
+            final TransitionSystem source,
+            final TransitionSystem target,
+            final Map<State, State> stateMapping,
+            final Map<Transition, Transition> transitionMapping,
+            final ValidationMode validationMode) {
+        this(source, target, stateMapping, transitionMapping, null, null, validationMode);
+    }
+
+    private TSMorphism(
+            final TransitionSystem source,
+            final TransitionSystem target,
+            final Map<State, State> stateMapping,
+            final Map<Transition, Transition> transitionMapping,
+            final int[] stateImages,
+            final int[] transitionImages,
+            final ValidationMode validationMode) {
         this.source = source;
         this.target = target;
         this.stateMapping = stateMapping;
         this.transitionMapping = transitionMapping;
-        this.checkTotality();
-        this.checkMappingCriteria();
+        this.stateImages = stateImages;
+        this.transitionImages = transitionImages;
+        switch (validationMode) {
+            case FULL:
+                this.validate();
+                break;
+            case SAMPLED:
+                this.checkTotality();
+                this.checkMappingCriteria(VALIDATION_SAMPLE_SIZE);
+                break;
+            case PARALLEL:
+                this.checkTotality();
+                this.checkMappingCriteriaInParallel();
+                break;
+            case DEFERRED:
+                break;
+        }
+    }
+
+    /**
+     * Creates a morphism backed by int arrays.
+     * stateImages[i] is the id of the image of the source state with id i and
+     * transitionImages[i] is the id of the image of the source transition with id i
+     * (see {@link TransitionSystem#getStateId(State)} and {@link TransitionSystem#getTransitionId(Transition)}).
+     * The arrays are owned by the morphism afterwards.
+     * All ids are range checked, even if the morphism is not validated.
+     */
+    public static TSMorphism fromImages(
+            final TransitionSystem source,
+            final TransitionSystem target,
+            final int[] stateImages,
+            final int[] transitionImages) {
+        return fromImages(source, target, stateImages, transitionImages, ValidationMode.FULL);
+    }
+
+    /**
+     * Creates a morphism backed by int arrays (see {@link #fromImages(TransitionSystem, TransitionSystem, int[], int[])})
+     * which is validated according to the given mode.
+     */
+    public static TSMorphism fromImages(
+            final TransitionSystem source,
+            final TransitionSystem target,
+            final int[] stateImages,
+            final int[] transitionImages,
+            final ValidationMode validationMode) {
+        if (stateImages.length != source.getStates().size()
+                || transitionImages.length != source.getTransitions().size()) {
+            throw new TransitionSystemException("State and transition images must be given for the whole source!");
+        }
+        checkImageIds(stateImages, target.getStates().size(), "state");
+        checkImageIds(transitionImages, target.getTransitions().size(), "transition");
+        return new TSMorphism(
+                source,
+                target,
+                new DenseMapping<>(State.class, stateImages, source::getStateId, source::getState, target::getState),
+                new DenseMapping<>(
+                        Transition.class,
+                        transitionImages,
+                        source::getTransitionId,
+                        source::getTransition,
+                        target::getTransition),
+                stateImages,
+                transitionImages,
+                validationMode);
+    }
+
+    private static void checkImageIds(final int[] images, final int imageCount, final String kind) {
+        for (int id = 0; id < images.length; id++) {
+            if (images[id] < 0 || images[id] >= imageCount) {
+                throw new TransitionSystemException(String.format(
+                        "The image %d of the source %s %d is not a %s id of the target!",
+                        images[id],
+                        kind,
+                        id,
+                        kind));
+            }
+        }
+    }
+
+    /**
+     * Composes this morphism with the given one, i.e., returns the morphism which first applies this morphism
+     * and then the given one. The target of this morphism must be the source of the given morphism.
+     * The composite is built from the image ids of both morphisms and is not validated again,
+     * since the composite of two valid morphisms is valid.
+     */
+    public TSMorphism compose(final TSMorphism next) {
+        if (this.target != next.source && !this.target.equals(next.source)) {
+            throw new TransitionSystemException(
+                    "Morphisms can only be composed if the target of the first is the source of the second!");
+        }
+        final int[] stateImages = this.getStateImageIds();
+        for (int i = 0; i < stateImages.length; i++) {
+            stateImages[i] = next.mapStateId(this.nextStateId(next, stateImages[i]));
+        }
+        final int[] transitionImages = this.getTransitionImageIds();
+        for (int i = 0; i < transitionImages.length; i++) {
+            transitionImages[i] = next.mapTransitionId(this.nextTransitionId(next, transitionImages[i]));
+        }
+        return fromImages(this.source, next.target, stateImages, transitionImages, ValidationMode.DEFERRED);
+    }
+
+    /**
+     * Translates a state id of the target of this morphism into a state id of the source of the given morphism.
+     */
+    private int nextStateId(final TSMorphism next, final int stateId) {
+        if (this.target == next.source) {
+            return stateId;
+        }
+        // Equal systems do not need to have the same order.
+        return next.source.getStateId(this.target.getState(stateId));
+    }
+
+    /**
+     * Translates a transition id of the target of this morphism into a transition id of the source of the given
+     * morphism.
+     */
+    private int nextTransitionId(final TSMorphism next, final int transitionId) {
+        if (this.target == next.source) {
+            return transitionId;
+        }
+        return next.source.getTransitionId(this.target.getTransition(transitionId));
     }
 
     private void checkTotality() {
         assert this.stateMapping.keySet().containsAll(this.source.getStates()) : "state mapping must be total";
-        assert this.transitionMapping.keySet().containsAll(this.source.getTransitions()) : "transition mapping must be total";
+        assert this.source.getTransitions().stream().allMatch(transition ->
+                this.transitionMapping.containsKey(transition) || this.source.isImplicitIdleTransition(transition))
+                : "transition mapping must be total";
     }
 
-    private void checkMappingCriteria() {
-        for (final Map.Entry<Transition, Transition> aTransitionMapping : this.transitionMapping.entrySet()) {
-            final var sourceTransition = aTransitionMapping.getKey();
-            final var targetTransition = aTransitionMapping.getValue();
-            if (!this.mapState(sourceTransition.getSource()).equals(targetTransition.getSource())) {
-                throw new TransitionSystemException(
-                        String.format(
-                                "State and transition mapping do not match for the source state of the transition %s! The transition is mapped to %s but the source state to %s",
-                                sourceTransition,
-                                targetTransition,
-                                this.mapState(sourceTransition.getSource())));
+    /**
+     * Checks all state and transition mappings and throws a {@link TransitionSystemException} if they are not
+     * compatible. Used for morphisms created with {@link ValidationMode#DEFERRED}.
+     */
+    public void validate() {
+        this.checkTotality();
+        this.checkMappingCriteria(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Checks an evenly spread sample of at most the given number of transition mappings (and state images).
+     */
+    private void checkMappingCriteria(final int sampleSize) {
+        var index = 0;
+        if (this.source.hasImplicitIdleTransitions()) {
+            // Implicit idle transitions are mapped to the idle transitions of the state images.
+            final int stateStride = sampleStride(this.stateMapping.size(), sampleSize);
+            for (final State image : this.stateMapping.values()) {
+                if (index++ % stateStride == 0) {
+                    this.target.getIdleTransition(image);
+                }
             }
-            if (!this.mapState(sourceTransition.getTarget()).equals(targetTransition.getTarget())) {
-                throw new TransitionSystemException(
-                        String.format(
-                                "State and transition mapping do not match for the target state of the transition %s! The transition is mapped to %s but the target state to %s",
-                                sourceTransition,
-                                targetTransition,
-                                this.mapState(sourceTransition.getTarget())));
+        }
+        index = 0;
+        final int transitionStride = sampleStride(this.transitionMapping.size(), sampleSize);
+        for (final Map.Entry<Transition, Transition> aTransitionMapping : this.transitionMapping.entrySet()) {
+            if (index++ % transitionStride == 0) {
+                this.checkTransitionMapping(aTransitionMapping.getKey(), aTransitionMapping.getValue());
             }
         }
     }
 
+    /**
+     * Returns the smallest stride which picks at most sampleSize of count elements.
+     */
+    static int sampleStride(final int count, final int sampleSize) {
+        return Math.max(1, (int) (((long) count + sampleSize - 1) / sampleSize));
+    }
+
+    private void checkMappingCriteriaInParallel() {
+        if (this.source.hasImplicitIdleTransitions()) {
+            this.stateMapping.values().parallelStream().forEach(this.target::getIdleTransition);
+        }
+        this.transitionMapping.entrySet().parallelStream().forEach(aTransitionMapping ->
+                this.checkTransitionMapping(aTransitionMapping.getKey(), aTransitionMapping.getValue()));
+    }
+
+    private void checkTransitionMapping(final Transition sourceTransition, final Transition targetTransition) {
+        final State sourceImage = this.mapState(sourceTransition.getSource());
+        if (this.source.isImplicitIdleTransition(sourceTransition)
+                && !this.target.getIdleTransition(sourceImage).equals(targetTransition)) {
+            throw new TransitionSystemException(String.format(
+                    "The implicit idle transition %s must be mapped to an idle transition but is mapped to %s!",
+                    sourceTransition,
+                    targetTransition));
+        }
+        if (!sourceImage.equals(targetTransition.getSource())) {
+            throw new TransitionSystemException(
+                    String.format(
+                            "State and transition mapping do not match for the source state of the transition %s! The transition is mapped to %s but the source state to %s",
+                            sourceTransition,
+                            targetTransition,
+                            sourceImage));
+        }
+        final State targetImage = this.mapState(sourceTransition.getTarget());
+        if (!targetImage.equals(targetTransition.getTarget())) {
+            throw new TransitionSystemException(
+                    String.format(
+                            "State and transition mapping do not match for the target state of the transition %s! The transition is mapped to %s but the target state to %s",
+                            sourceTransition,
+                            targetTransition,
+                            targetImage));
+        }
+    }
+
     public TransitionSystem getSource() {
         return this.source;
     }
@@ -63,7 +280,13 @@ public class TSMorphism {
         return Collections.unmodifiableMap(this.stateMapping);
     }
 
+    /**
+     * Returns the transition mapping. Includes the mapping of implicit idle transitions of the source.
+     */
     public Map<Transition, Transition> getTransitionMapping() {
+        if (this.source.hasImplicitIdleTransitions()) {
+            return Maps.asMap(this.source.getTransitions(), this::mapTransition);
+        }
         return Collections.unmodifiableMap(this.transitionMapping);
     }
 
@@ -81,6 +304,9 @@ public class TSMorphism {
 
     public Transition mapTransition(final Transition transition) {
         final var mappedTransition = this.transitionMapping.get(transition);
+        if (mappedTransition == null && this.source.isImplicitIdleTransition(transition)) {
+            return this.target.getIdleTransition(this.mapState(transition.getSource()));
+        }
         if (mappedTransition == null) {
             throw new TransitionSystemException(
                     String.format(
@@ -91,6 +317,143 @@ public class TSMorphism {
         return mappedTransition;
     }
 
+    /**
+     * Returns the id of the image of the source state with the given id.
+     * This is a single array read for morphisms backed by arrays.
+     */
+    public int mapStateId(final int sourceStateId) {
+        return this.stateImages()[sourceStateId];
+    }
+
+    /**
+     * Returns the id of the image of the source transition with the given id.
+     * This is a single array read for morphisms backed by arrays.
+     */
+    public int mapTransitionId(final int sourceTransitionId) {
+        return this.transitionImages()[sourceTransitionId];
+    }
+
+    /**
+     * Returns a copy of the ids of the state images indexed by the ids of the source states.
+     */
+    public int[] getStateImageIds() {
+        return this.stateImages().clone();
+    }
+
+    /**
+     * Returns a copy of the ids of the transition images indexed by the ids of the source transitions.
+     */
+    public int[] getTransitionImageIds() {
+        return this.transitionImages().clone();
+    }
+
+    private int[] stateImages() {
+        var result = this.stateImages;
+        if (result == null) {
+            result = new int[this.source.getStates().size()];
+            var id = 0;
+            for (final State state : this.source.getStates()) {
+                result[id++] = this.target.getStateId(this.mapState(state));
+            }
+            this.stateImages = result;
+        }
+        return result;
+    }
+
+    private int[] transitionImages() {
+        var result = this.transitionImages;
+        if (result == null) {
+            result = new int[this.source.getTransitions().size()];
+            var id = 0;
+            for (final Transition transition : this.source.getTransitions()) {
+                result[id++] = this.target.getTransitionId(this.mapTransition(transition));
+            }
+            this.transitionImages = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the source states which are mapped to the given target state in the order of the source.
+     */
+    public List<State> getStateFiber(final State targetState) {
+        final int image = this.target.getStateId(targetState);
+        if (image < 0) {
+            throw new TransitionSystemException(String.format(
+                    "The state %s is not part of the target system!",
+                    targetState));
+        }
+        return fiberView(this.getStateFibers(), image, this.source::getState);
+    }
+
+    /**
+     * Returns the source transitions which are mapped to the given target transition in the order of the source.
+     */
+    public List<Transition> getTransitionFiber(final Transition targetTransition) {
+        final int image = this.target.getTransitionId(targetTransition);
+        if (image < 0) {
+            throw new TransitionSystemException(String.format(
+                    "The transition %s is not part of the target system!",
+                    targetTransition));
+        }
+        return fiberView(this.getTransitionFibers(), image, this.source::getTransition);
+    }
+
+    /**
+     * Returns the ids of the source states grouped by the ids of their images.
+     */
+    public Fibers getStateFibers() {
+        var result = this.stateFibers;
+        if (result == null) {
+            result = new Fibers(this.stateImages(), this.target.getStates().size());
+            this.stateFibers = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids of the source transitions grouped by the ids of their images.
+     */
+    public Fibers getTransitionFibers() {
+        var result = this.transitionFibers;
+        if (result == null) {
+            result = new Fibers(this.transitionImages(), this.target.getTransitions().size());
+            this.transitionFibers = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns true if every state and every transition of the target has a preimage.
+     */
+    public boolean isSurjective() {
+        return this.getStateFibers().getStatistics().isSurjective()
+                && this.getTransitionFibers().getStatistics().isSurjective();
+    }
+
+    private static <T> List<T> fiberView(final Fibers fibers, final int image, final IntFunction<T> elements) {
+        final int start = fibers.getStart(image);
+        final int size = fibers.getFiberSize(image);
+        return new AbstractList<>() {
+            @Override
+            public T get(final int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return elements.apply(fibers.get(start + index));
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Lists the systems and the mappings, but at most {@value TransitionSystem#TO_STRING_LIMIT} mappings of states
+     * and transitions each. Use {@link no.hvl.tim.transitionsystem.io.CsvExporter} to write large morphisms.
+     */
     @Override
     public String toString() {
         final var builder = new StringBuilder();
@@ -100,24 +463,27 @@ public class TSMorphism {
                .append(this.target.toString());
 
         builder.append("\nState mapping:");
-        this.stateMapping.forEach((from, to) -> {
+        this.stateMapping.entrySet().stream().limit(TransitionSystem.TO_STRING_LIMIT).forEach(mapping -> {
             builder.append("\n");
-            builder.append(from);
+            builder.append(mapping.getKey());
             builder.append(" -> ");
-            builder.append(to);
+            builder.append(mapping.getValue());
         });
+        TransitionSystem.appendOmitted(builder, this.stateMapping.size());
 
         builder.append("\nTransition mapping:");
-        this.transitionMapping.forEach((from, to) -> {
+        final Map<Transition, Transition> transitionMapping = this.getTransitionMapping();
+        transitionMapping.entrySet().stream().limit(TransitionSystem.TO_STRING_LIMIT).forEach(mapping -> {
             builder.append("\n");
             builder.append("(");
-            builder.append(from);
+            builder.append(mapping.getKey());
             builder.append(")");
             builder.append(" -> ");
             builder.append("(");
-            builder.append(to);
+            builder.append(mapping.getValue());
             builder.append(")");
         });
+        TransitionSystem.appendOmitted(builder, transitionMapping.size());
         return builder.toString();
     }
 }
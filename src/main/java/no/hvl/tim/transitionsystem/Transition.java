@@ -1,22 +1,49 @@
 package no.hvl.tim.transitionsystem;
 
-import com.google.common.base.Objects;
+import java.util.Arrays;
 
 /**
  * Desribes a transition from one state to another in a transition system.
+ * The label of a transition is interned in the {@link SymbolTable}.
  */
 public class Transition {
 
     private final State source;
     private final State target;
-    private final String label;
+    private final Symbol label;
 
     public Transition(final State source, final State target, final String label) {
+        this(source, target, SymbolTable.getGlobal().intern(label));
+    }
+
+    /**
+     * Creates a transition with an already interned label.
+     */
+    public Transition(final State source, final State target, final Symbol label) {
         this.source = source;
         this.target = target;
         this.label = label;
     }
 
+    /**
+     * Returns the symbol of the composite label of the given transitions, e.g., "&lt;a, b&gt;".
+     */
+    public static Symbol tupleLabel(final Transition... components) {
+        return SymbolTable.getGlobal().internTuple(
+                SymbolTable.TupleKind.LABEL,
+                Arrays.stream(components).map(Transition::getLabelSymbol).toArray(Symbol[]::new));
+    }
+
+    /**
+     * Returns the symbol of the composite label of the given two transitions, e.g., "&lt;a, b&gt;".
+     */
+    public static Symbol tupleLabel(final Transition first, final Transition second) {
+        return SymbolTable.getGlobal().internTuple(
+                SymbolTable.TupleKind.LABEL,
+                first.getLabelSymbol(),
+                second.getLabelSymbol());
+    }
+
     public State getSource() {
         return source;
     }
@@ -26,12 +53,16 @@ public class Transition {
     }
 
     public String getLabel() {
+        return label.render();
+    }
+
+    public Symbol getLabelSymbol() {
         return label;
     }
 
     @Override
     public String toString() {
-        return String.format("%s --%s--> %s", source, label, target);
+        return String.format("%s --%s--> %s", source, getLabel(), target);
     }
 
     @Override
@@ -39,11 +70,11 @@ public class Transition {
         if (this == o) return true;
         if (!(o instanceof Transition)) return false;
         final Transition that = (Transition) o;
-        return Objects.equal(getSource(), that.getSource()) && Objects.equal(getTarget(), that.getTarget()) && Objects.equal(getLabel(), that.getLabel());
+        return label == that.label && getSource().equals(that.getSource()) && getTarget().equals(that.getTarget());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(getSource(), getTarget(), getLabel());
+        return 31 * (31 * getSource().hashCode() + getTarget().hashCode()) + label.hashCode();
     }
 }
@@ -9,15 +9,68 @@ import java.util.Set;
 import java.util.stream.Collectors;
 
 public class TransitionSystem {
+    /**
+     * Label of the idle transitions, i.e., the loops which represent doing nothing.
+     */
+    public static final String IDLE_LABEL = "*";
+
+    /**
+     * Symbol of {@link #IDLE_LABEL}, which is never collected since it is held here.
+     */
+    public static final Symbol IDLE_LABEL_SYMBOL = SymbolTable.getGlobal().intern(IDLE_LABEL);
+
+    /**
+     * Maximum number of states, transitions and mappings listed by toString.
+     */
+    static final int TO_STRING_LIMIT = 1000;
+
     private final State startState;
     private final Set<State> states;
+    // Unmodifiable view which is created once instead of on every call.
+    private final Set<State> stateView;
     private final Set<Transition> transitions;
+    // Transitions without the implicit idle transitions.
+    private final Set<Transition> storedTransitions;
+    private final Set<Transition> storedTransitionView;
+    // Label symbol of the implicit idle transitions or null if idle transitions are not implied.
+    private final Symbol implicitIdleLabel;
+    // Built lazily on first use. The system is immutable so the index never changes afterwards.
+    private volatile TransitionSystemIndex index;
+    // Calculated lazily on first use like the index.
+    private volatile Fingerprint fingerprint;
+    private volatile TransitionSystemIds ids;
 
     public TransitionSystem(final State startState, final Set<State> states, final Set<Transition> transitions) {
+        this(startState, states, transitions, null);
+    }
+
+    /**
+     * Creates a transition system with implicit idle transitions if an idle label symbol is given.
+     * Implicit idle transitions are loops with the given label for every state.
+     * They are not stored but iterating, looking up and mapping transitions treats them as present.
+     * <p>
+     * The system takes over the given sets without copying them, so they must not be modified afterwards.
+     * The index, fingerprint and ids of the system are derived from them once.
+     */
+    public TransitionSystem(
+            final State startState,
+            final Set<State> states,
+            final Set<Transition> transitions,
+            final Symbol implicitIdleLabel) {
         assert states.contains(startState);
         this.startState = startState;
         this.states = states;
-        this.transitions = transitions;
+        this.stateView = Collections.unmodifiableSet(states);
+        this.storedTransitions = transitions;
+        this.storedTransitionView = Collections.unmodifiableSet(transitions);
+        this.implicitIdleLabel = implicitIdleLabel;
+        if (implicitIdleLabel == null) {
+            this.transitions = this.storedTransitionView;
+        } else {
+            this.transitions = new ImplicitIdleTransitionSet(states, transitions, implicitIdleLabel);
+            assert transitions.stream().noneMatch(this::isImplicitIdleTransition)
+                    : "Implicit idle transitions must not be stored!";
+        }
     }
 
     public State getStartState() {
@@ -25,11 +78,137 @@ public class TransitionSystem {
     }
 
     public Set<State> getStates() {
-        return Collections.unmodifiableSet(this.states);
+        return this.stateView;
     }
 
     public Set<Transition> getTransitions() {
-        return Collections.unmodifiableSet(this.transitions);
+        return this.transitions;
+    }
+
+    /**
+     * Returns the transitions without the implicit idle transitions.
+     * Their ids are the transition ids below the number of stored transitions, the implicit idle transitions
+     * follow in the order of their states.
+     */
+    public Set<Transition> getStoredTransitions() {
+        return this.storedTransitionView;
+    }
+
+    public boolean hasImplicitIdleTransitions() {
+        return this.implicitIdleLabel != null;
+    }
+
+    /**
+     * Returns the label of the implicit idle transitions or null if they are not implied.
+     */
+    public String getImplicitIdleLabel() {
+        return this.hasImplicitIdleTransitions() ? this.implicitIdleLabel.render() : null;
+    }
+
+    /**
+     * Returns the label symbol of the implicit idle transitions or null if they are not implied.
+     */
+    public Symbol getImplicitIdleLabelSymbol() {
+        return this.implicitIdleLabel;
+    }
+
+    /**
+     * Returns true if the given transition is one of the implicit idle transitions of this system.
+     */
+    public boolean isImplicitIdleTransition(final Transition transition) {
+        return this.hasImplicitIdleTransitions()
+                && ((ImplicitIdleTransitionSet) this.transitions).isIdleTransition(transition);
+    }
+
+    /**
+     * Returns the transitions which start in the given state.
+     * The implicit idle transition of the state (if any) comes last.
+     */
+    public List<Transition> getOutgoingTransitions(final State state) {
+        return this.getIndex().getOutgoingTransitions(state);
+    }
+
+    /**
+     * Returns the transitions which end in the given state.
+     * The implicit idle transition of the state (if any) comes last.
+     */
+    public List<Transition> getIncomingTransitions(final State state) {
+        return this.getIndex().getIncomingTransitions(state);
+    }
+
+    /**
+     * Returns the idle transition (labeled {@link #IDLE_LABEL}) of the given state.
+     * For systems with implicit idle transitions, the implicit idle transition is returned.
+     */
+    public Transition getIdleTransition(final State state) {
+        final Transition idleTransition = this.getIndex().getIdleTransition(state);
+        if (idleTransition == null) {
+            throw new TransitionSystemException(String.format("The state %s has no idle transition!", state));
+        }
+        return idleTransition;
+    }
+
+    /**
+     * Returns the dense id of the given state or -1 if it is not part of this system.
+     * State ids range from 0 to the number of states and follow the iteration order of {@link #getStates()}.
+     */
+    public int getStateId(final State state) {
+        return this.getIds().getStateId(state);
+    }
+
+    public State getState(final int stateId) {
+        return this.getIds().getState(stateId);
+    }
+
+    /**
+     * Returns the dense id of the given transition or -1 if it is not part of this system.
+     * Transition ids range from 0 to the number of transitions and follow the iteration order of
+     * {@link #getTransitions()}.
+     */
+    public int getTransitionId(final Transition transition) {
+        return this.getIds().getTransitionId(transition);
+    }
+
+    public Transition getTransition(final int transitionId) {
+        return this.getIds().getTransition(transitionId);
+    }
+
+    private TransitionSystemIds getIds() {
+        var result = this.ids;
+        if (result == null) {
+            result = new TransitionSystemIds(this.states, this.storedTransitions, this.getImplicitIdleTransitions());
+            this.ids = result;
+        }
+        return result;
+    }
+
+    private List<Transition> getImplicitIdleTransitions() {
+        return this.hasImplicitIdleTransitions()
+                ? ((ImplicitIdleTransitionSet) this.transitions).getIdleTransitions()
+                : null;
+    }
+
+    private TransitionSystemIndex getIndex() {
+        var result = this.index;
+        if (result == null) {
+            // Racing threads build equal indices, so it does not matter which one is kept.
+            result = new TransitionSystemIndex(this.storedTransitions, this.getImplicitIdleTransitions());
+            this.index = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the structural fingerprint of the states and transitions of this system.
+     * It is calculated once, since the system is immutable.
+     */
+    public Fingerprint getFingerprint() {
+        var result = this.fingerprint;
+        if (result == null) {
+            result = Fingerprint.of(this);
+            this.fingerprint = result;
+        }
+        return result;
     }
 
     @Override
@@ -41,29 +220,51 @@ public class TransitionSystem {
             return false;
         }
         final TransitionSystem that = (TransitionSystem) o;
+        // Different fingerprints imply different systems.
+        if (!this.getFingerprint().equals(that.getFingerprint())) {
+            return false;
+        }
         return Objects.equal(this.getStates(), that.getStates()) && Objects.equal(this.getTransitions(), that.getTransitions());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.getStates(), this.getTransitions());
+        return this.getFingerprint().hashCode();
     }
 
+    /**
+     * Lists the states and transitions, but at most {@value #TO_STRING_LIMIT} of each.
+     * Use the exporters of the io package to write large systems completely.
+     */
     @Override
     public String toString() {
         final var builder = new StringBuilder();
         builder.append("States:");
-        final List<String> stateNames = this.states.stream().map(State::getName).collect(Collectors.toList());
+        final List<String> stateNames = this.states.stream()
+                .limit(TO_STRING_LIMIT)
+                .map(State::getName)
+                .collect(Collectors.toList());
         builder.append(stateNames);
+        appendOmitted(builder, this.states.size());
         builder.append("\nTransitions:\n");
-        final Iterator<Transition> it = this.transitions.iterator();
+        final Iterator<Transition> it = this.getTransitions().iterator();
         if (it.hasNext()) {
             builder.append(it.next());
         }
-        while (it.hasNext()) {
+        for (int count = 1; count < TO_STRING_LIMIT && it.hasNext(); count++) {
             builder.append(",\n");
             builder.append(it.next());
         }
+        appendOmitted(builder, this.getTransitions().size());
         return builder.toString();
     }
+
+    /**
+     * Appends the number of elements which are not listed by {@link #toString()}.
+     */
+    static void appendOmitted(final StringBuilder builder, final int count) {
+        if (count > TO_STRING_LIMIT) {
+            builder.append(String.format("\n... %d more", count - TO_STRING_LIMIT));
+        }
+    }
 }
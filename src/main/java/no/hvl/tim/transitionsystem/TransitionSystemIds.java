@@ -0,0 +1,69 @@
+package no.hvl.tim.transitionsystem;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Dense ids for the states and transitions of a transition system.
+ * Ids follow the iteration order of the states and transitions of the system.
+ * Implicit idle transitions come after the stored transitions, in the order of their states.
+ */
+class TransitionSystemIds {
+
+    private final State[] states;
+    private final Transition[] storedTransitions;
+    private final Map<State, Integer> stateIds;
+    private final Map<Transition, Integer> transitionIds;
+    // Null if idle transitions are not implied.
+    private final List<Transition> implicitIdleTransitions;
+
+    TransitionSystemIds(
+            final Set<State> states,
+            final Set<Transition> storedTransitions,
+            final List<Transition> implicitIdleTransitions) {
+        this.states = states.toArray(new State[0]);
+        this.storedTransitions = storedTransitions.toArray(new Transition[0]);
+        this.implicitIdleTransitions = implicitIdleTransitions;
+        this.stateIds = new HashMap<>(this.states.length * 4 / 3 + 1);
+        for (int id = 0; id < this.states.length; id++) {
+            this.stateIds.put(this.states[id], id);
+        }
+        this.transitionIds = new HashMap<>(this.storedTransitions.length * 4 / 3 + 1);
+        for (int id = 0; id < this.storedTransitions.length; id++) {
+            this.transitionIds.put(this.storedTransitions[id], id);
+        }
+    }
+
+    int getStateId(final State state) {
+        final Integer id = this.stateIds.get(state);
+        return id == null ? -1 : id;
+    }
+
+    State getState(final int id) {
+        return this.states[id];
+    }
+
+    int getTransitionId(final Transition transition) {
+        final Integer id = this.transitionIds.get(transition);
+        if (id != null) {
+            return id;
+        }
+        if (this.implicitIdleTransitions != null
+                && transition.getSource().equals(transition.getTarget())) {
+            final int stateId = this.getStateId(transition.getSource());
+            if (stateId != -1 && this.implicitIdleTransitions.get(stateId).equals(transition)) {
+                return this.storedTransitions.length + stateId;
+            }
+        }
+        return -1;
+    }
+
+    Transition getTransition(final int id) {
+        if (id < this.storedTransitions.length) {
+            return this.storedTransitions[id];
+        }
+        return this.implicitIdleTransitions.get(id - this.storedTransitions.length);
+    }
+}
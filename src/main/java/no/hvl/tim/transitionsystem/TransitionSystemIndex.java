@@ -0,0 +1,53 @@
+package no.hvl.tim.transitionsystem;
+
+import java.util.*;
+
+/**
+ * Immutable index over the transitions of a transition system.
+ * Contains the outgoing and incoming transitions as well as the idle transition for each state.
+ * Implicit idle transitions are indexed after the stored transitions, so they come last for their state.
+ */
+class TransitionSystemIndex {
+
+    private final Map<State, List<Transition>> outgoingTransitions = new HashMap<>();
+    private final Map<State, List<Transition>> incomingTransitions = new HashMap<>();
+    private final Map<State, Transition> idleTransitions = new HashMap<>();
+
+    /**
+     * Creates the index for the given stored transitions and the implicit idle transitions, which are null if
+     * idle transitions are not implied.
+     */
+    TransitionSystemIndex(final Set<Transition> storedTransitions, final List<Transition> implicitIdleTransitions) {
+        for (final Transition transition : storedTransitions) {
+            this.add(transition);
+            if (implicitIdleTransitions == null && transition.getLabelSymbol() == TransitionSystem.IDLE_LABEL_SYMBOL) {
+                this.idleTransitions.putIfAbsent(transition.getSource(), transition);
+            }
+        }
+        if (implicitIdleTransitions != null) {
+            for (final Transition transition : implicitIdleTransitions) {
+                this.add(transition);
+                this.idleTransitions.put(transition.getSource(), transition);
+            }
+        }
+        this.outgoingTransitions.replaceAll((state, outgoing) -> Collections.unmodifiableList(outgoing));
+        this.incomingTransitions.replaceAll((state, incoming) -> Collections.unmodifiableList(incoming));
+    }
+
+    private void add(final Transition transition) {
+        this.outgoingTransitions.computeIfAbsent(transition.getSource(), state -> new ArrayList<>()).add(transition);
+        this.incomingTransitions.computeIfAbsent(transition.getTarget(), state -> new ArrayList<>()).add(transition);
+    }
+
+    List<Transition> getOutgoingTransitions(final State state) {
+        return this.outgoingTransitions.getOrDefault(state, Collections.emptyList());
+    }
+
+    List<Transition> getIncomingTransitions(final State state) {
+        return this.incomingTransitions.getOrDefault(state, Collections.emptyList());
+    }
+
+    Transition getIdleTransition(final State state) {
+        return this.idleTransitions.get(state);
+    }
+}
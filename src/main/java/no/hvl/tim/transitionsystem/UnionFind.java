@@ -0,0 +1,62 @@
+package no.hvl.tim.transitionsystem;
+
+/**
+ * Disjoint sets over the ints 0..size-1 with union by size and path halving.
+ * Used to collapse states into equivalence classes in near-linear time.
+ */
+public final class UnionFind {
+
+    private final int[] parents;
+    private final int[] sizes;
+
+    public UnionFind(final int size) {
+        this.parents = new int[size];
+        this.sizes = new int[size];
+        for (int element = 0; element < size; element++) {
+            this.parents[element] = element;
+            this.sizes[element] = 1;
+        }
+    }
+
+    /**
+     * Returns the representative of the set of the given element.
+     */
+    public int find(final int element) {
+        int current = element;
+        while (this.parents[current] != current) {
+            this.parents[current] = this.parents[this.parents[current]];
+            current = this.parents[current];
+        }
+        return current;
+    }
+
+    /**
+     * Merges the sets of the given elements. Returns false if they were already in the same set.
+     */
+    public boolean union(final int first, final int second) {
+        int firstRoot = this.find(first);
+        int secondRoot = this.find(second);
+        if (firstRoot == secondRoot) {
+            return false;
+        }
+        if (this.sizes[firstRoot] < this.sizes[secondRoot]) {
+            final int swap = firstRoot;
+            firstRoot = secondRoot;
+            secondRoot = swap;
+        }
+        this.parents[secondRoot] = firstRoot;
+        this.sizes[firstRoot] += this.sizes[secondRoot];
+        return true;
+    }
+
+    public boolean connected(final int first, final int second) {
+        return this.find(first) == this.find(second);
+    }
+
+    /**
+     * Returns the number of elements.
+     */
+    public int size() {
+        return this.parents.length;
+    }
+}
@@ -0,0 +1,25 @@
+package no.hvl.tim.transitionsystem;
+
+/**
+ * How the mappings of a {@link TSMorphism} are checked when it is created.
+ */
+public enum ValidationMode {
+    /**
+     * All state and transition mappings are checked. This is the default.
+     */
+    FULL,
+    /**
+     * Only an evenly spread sample of the transition mappings (and of the state images) is checked.
+     * Catches systematic errors for a fraction of the cost.
+     */
+    SAMPLED,
+    /**
+     * Nothing is checked when the morphism is created. The checks can be run later using
+     * {@link TSMorphism#validate()}. Meant for morphisms created by trusted algorithms.
+     */
+    DEFERRED,
+    /**
+     * All mappings are checked like {@link #FULL}, but the transition mappings are checked in parallel.
+     */
+    PARALLEL
+}
@@ -0,0 +1,146 @@
+package no.hvl.tim.transitionsystem.builder;
+
+import no.hvl.tim.transitionsystem.CompactTransitionSystem;
+import no.hvl.tim.transitionsystem.Symbol;
+import no.hvl.tim.transitionsystem.SymbolTable;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Creates a {@link CompactTransitionSystem} step by step.
+ * State names and labels are interned, such that each distinct name gets one dense id.
+ * In contrast to {@link TransitionSystemBuilder} duplicate transitions are not filtered out.
+ */
+public class CompactTransitionSystemBuilder {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Dense ids by symbol
+    private final Map<Symbol, Integer> stateIds;
+    private final Map<Symbol, Integer> labelIds = new HashMap<>();
+    private Symbol[] stateSymbols;
+    private int stateCount;
+    private Symbol[] labelSymbols = new Symbol[DEFAULT_CAPACITY];
+    private int labelCount;
+    private int startState = -1;
+
+    private int[] transitionSources;
+    private int[] transitionTargets;
+    private int[] transitionLabels;
+    private int transitionCount;
+
+    public CompactTransitionSystemBuilder() {
+        this(DEFAULT_CAPACITY, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a builder which is presized for the expected number of states and transitions.
+     */
+    public CompactTransitionSystemBuilder(final int expectedStates, final int expectedTransitions) {
+        this.stateIds = new HashMap<>(Math.max(DEFAULT_CAPACITY, expectedStates * 4 / 3 + 1));
+        this.stateSymbols = new Symbol[Math.max(DEFAULT_CAPACITY, expectedStates)];
+        final int capacity = Math.max(DEFAULT_CAPACITY, expectedTransitions);
+        this.transitionSources = new int[capacity];
+        this.transitionTargets = new int[capacity];
+        this.transitionLabels = new int[capacity];
+    }
+
+    /**
+     * Adds a state if not present yet and returns its id.
+     */
+    public int addState(final String name) {
+        return this.addStateSymbol(SymbolTable.getGlobal().intern(name));
+    }
+
+    /**
+     * Adds a state with an already interned name if not present yet and returns its id.
+     */
+    public int addStateSymbol(final Symbol symbol) {
+        final Integer id = this.stateIds.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        if (this.stateCount == this.stateSymbols.length) {
+            this.stateSymbols = Arrays.copyOf(this.stateSymbols, this.stateCount * 2);
+        }
+        final int newId = this.stateCount++;
+        this.stateSymbols[newId] = symbol;
+        this.stateIds.put(symbol, newId);
+        return newId;
+    }
+
+    public CompactTransitionSystemBuilder startState(final String name) {
+        this.startState = this.addState(name);
+        return this;
+    }
+
+    public CompactTransitionSystemBuilder startState(final int state) {
+        assert state >= 0 && state < this.stateCount;
+        this.startState = state;
+        return this;
+    }
+
+    /**
+     * Adds a label if not present yet and returns its id.
+     */
+    public int addLabel(final String label) {
+        return this.addLabelSymbol(SymbolTable.getGlobal().intern(label));
+    }
+
+    /**
+     * Adds an already interned label if not present yet and returns its id.
+     */
+    public int addLabelSymbol(final Symbol symbol) {
+        final Integer id = this.labelIds.get(symbol);
+        if (id != null) {
+            return id;
+        }
+        if (this.labelCount == this.labelSymbols.length) {
+            this.labelSymbols = Arrays.copyOf(this.labelSymbols, this.labelCount * 2);
+        }
+        final int newId = this.labelCount++;
+        this.labelSymbols[newId] = symbol;
+        this.labelIds.put(symbol, newId);
+        return newId;
+    }
+
+    /**
+     * Adds a transition alongside its source and target state.
+     */
+    public CompactTransitionSystemBuilder addTransition(final String source, final String label, final String target) {
+        return this.addTransition(this.addState(source), this.addLabel(label), this.addState(target));
+    }
+
+    /**
+     * Adds a transition between already added states using an already added label.
+     */
+    public CompactTransitionSystemBuilder addTransition(final int source, final int label, final int target) {
+        assert source >= 0 && source < this.stateCount;
+        assert target >= 0 && target < this.stateCount;
+        assert label >= 0 && label < this.labelCount;
+        if (this.transitionCount == this.transitionSources.length) {
+            final int newCapacity = this.transitionSources.length * 2;
+            this.transitionSources = Arrays.copyOf(this.transitionSources, newCapacity);
+            this.transitionTargets = Arrays.copyOf(this.transitionTargets, newCapacity);
+            this.transitionLabels = Arrays.copyOf(this.transitionLabels, newCapacity);
+        }
+        this.transitionSources[this.transitionCount] = source;
+        this.transitionTargets[this.transitionCount] = target;
+        this.transitionLabels[this.transitionCount] = label;
+        this.transitionCount++;
+        return this;
+    }
+
+    public CompactTransitionSystem build() {
+        assert this.startState >= 0;
+        return new CompactTransitionSystem(
+                Arrays.copyOf(this.stateSymbols, this.stateCount),
+                Arrays.copyOf(this.labelSymbols, this.labelCount),
+                this.startState,
+                Arrays.copyOf(this.transitionSources, this.transitionCount),
+                Arrays.copyOf(this.transitionTargets, this.transitionCount),
+                Arrays.copyOf(this.transitionLabels, this.transitionCount));
+    }
+}
@@ -15,13 +15,7 @@ public class TSMorphismBuilder {
     private final Map<Transition, Transition> transitionMapping = new HashMap<>();
     private TransitionSystem source;
     private TransitionSystem target;
-
-    private static Transition findIdleTransitionForState(final State stateOfSystem, final TransitionSystem system) {
-        return system.getTransitions().stream()
-                .filter(transition -> transition.getSource().equals(stateOfSystem) && transition.getLabel().equals("*"))
-                .findAny()
-                .orElseThrow(RuntimeException::new);
-    }
+    private ValidationMode validationMode = ValidationMode.FULL;
 
     public TSMorphismBuilder source(final TransitionSystem source) {
         this.source = source;
@@ -33,15 +27,24 @@ public class TSMorphismBuilder {
         return this;
     }
 
+    /**
+     * Sets how the built morphism is validated. Defaults to {@link ValidationMode#FULL}.
+     * The per-call checks of this builder are only done for full validation.
+     */
+    public TSMorphismBuilder validation(final ValidationMode validationMode) {
+        this.validationMode = validationMode;
+        return this;
+    }
+
     public TSMorphismBuilder addStateMapping(final State from, final State to) {
         assert this.source != null;
         assert this.target != null;
-        assert this.source.getStates().contains(from)
+        assert this.validationMode != ValidationMode.FULL || this.source.getStates().contains(from)
                 : "The from state has to be contained in the states of the source ts!";
-        assert this.target.getStates().contains(to)
+        assert this.validationMode != ValidationMode.FULL || this.target.getStates().contains(to)
                 : "The to state has to be contained in the states of the target ts!";
         // No mapping or the one which should be set.
-        assert this.stateMapping.get(from) == null || this.stateMapping.get(from) == to
+        assert this.stateMapping.get(from) == null || this.stateMapping.get(from).equals(to)
                 : String.format("The state %s was expected to be %s.", to, this.stateMapping.get(from));
 
         this.stateMapping.put(from, to);
@@ -68,7 +71,7 @@ public class TSMorphismBuilder {
         assert this.source != null;
         assert this.target != null;
 
-        final var idleTransitionForState = TSMorphismBuilder.findIdleTransitionForState(idleState, this.target);
+        final var idleTransitionForState = this.target.getIdleTransition(idleState);
         this.addTransitionMapping(from, idleTransitionForState);
         return this;
     }
@@ -87,37 +90,46 @@ public class TSMorphismBuilder {
         }
 
         // State mapping has to be total
-        assert this.stateMapping.keySet().containsAll(this.source.getStates());
-
-        // Automatically map idle transitions to idle transitions
-        this.stateMapping.forEach((sourceState, targetState) ->
-                this.transitionMapping.put(
-                        TSMorphismBuilder.findIdleTransitionForState(sourceState, this.source),
-                        TSMorphismBuilder.findIdleTransitionForState(targetState, this.target))
-        );
+        assert this.validationMode != ValidationMode.FULL
+                || this.stateMapping.keySet().containsAll(this.source.getStates());
+
+        // Automatically map idle transitions to idle transitions (implied for implicit idle transitions)
+        if (!this.source.hasImplicitIdleTransitions()) {
+            this.stateMapping.forEach((sourceState, targetState) ->
+                    this.transitionMapping.put(
+                            this.source.getIdleTransition(sourceState),
+                            this.target.getIdleTransition(targetState))
+            );
+        }
         // Automatically map undefined transitions to idle transitions
         final Set<Transition> mappedTransitions = this.transitionMapping.keySet();
-        this.source.getTransitions().stream()
+        this.source.getStoredTransitions().stream()
                 .filter(transition -> !mappedTransitions.contains(transition))
                 .forEach(unmappedTransition -> {
-                    final var idleTranstionInTheTargetSystemState = TSMorphismBuilder.findIdleTransitionForState(
-                            this.stateMapping.get(unmappedTransition.getSource()), this.target);
+                    final var idleTranstionInTheTargetSystemState = this.target.getIdleTransition(
+                            this.stateMapping.get(unmappedTransition.getSource()));
                     this.transitionMapping.put(
                             unmappedTransition,
                             idleTranstionInTheTargetSystemState);
                 });
 
-        return new TSMorphism(this.source, this.target, this.stateMapping, this.transitionMapping);
+        return new TSMorphism(
+                this.source,
+                this.target,
+                this.stateMapping,
+                this.transitionMapping,
+                this.validationMode);
     }
 
     public TSMorphism build() {
         assert this.source != null;
         assert this.target != null;
-
-        // State and transition mapping has to be total
-        assert this.stateMapping.keySet().containsAll(this.source.getStates());
-        assert this.transitionMapping.keySet().containsAll(this.source.getTransitions());
-
-        return new TSMorphism(this.source, this.target, this.stateMapping, this.transitionMapping);
+        // Totality of the mappings is checked by the morphism.
+        return new TSMorphism(
+                this.source,
+                this.target,
+                this.stateMapping,
+                this.transitionMapping,
+                this.validationMode);
     }
 }
@@ -1,19 +1,24 @@
 package no.hvl.tim.transitionsystem.builder;
 
 import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.Symbol;
 import no.hvl.tim.transitionsystem.Transition;
 import no.hvl.tim.transitionsystem.TransitionSystem;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
  * Erstellt einen unveränderliches Transitionssystem Schritt für Schritt.
+ * Built systems take over the sets of the builder, which are copied if the builder is modified afterwards.
  */
 public class TransitionSystemBuilder {
-    private final Set<State> states = new LinkedHashSet<>();
-    private final Set<Transition> transitions = new LinkedHashSet<>();
+    private Set<State> states = new LinkedHashSet<>();
+    private Set<Transition> transitions = new LinkedHashSet<>();
     private State startState;
+    // Whether the sets belong to a built system and must be copied before they are modified.
+    private boolean shared;
 
     public TransitionSystemBuilder startState(final State startState) {
         this.startState = startState;
@@ -25,6 +30,7 @@ public class TransitionSystemBuilder {
      * Adds a state to the transition system which is build.
      */
     public TransitionSystemBuilder addState(final State state) {
+        this.unshare();
         this.states.add(state);
         return this;
     }
@@ -34,6 +40,7 @@ public class TransitionSystemBuilder {
      * to the transition system which is build.
      */
     public TransitionSystemBuilder addTransition(final Transition transition) {
+        this.unshare();
         this.states.add(transition.getSource());
         this.states.add(transition.getTarget());
 
@@ -42,16 +49,50 @@ public class TransitionSystemBuilder {
     }
 
     public TransitionSystem buildWithIdleTransitions() {
-        this.states.forEach(state -> this.transitions.add(new Transition(state, state, "*")));
+        this.unshare();
+        this.states.forEach(state -> this.transitions.add(new Transition(state, state, TransitionSystem.IDLE_LABEL)));
         return this.build();
     }
 
+    /**
+     * Builds a transition system with implicit idle transitions labeled {@link TransitionSystem#IDLE_LABEL}.
+     * In contrast to {@link #buildWithIdleTransitions()} the idle transitions are not stored.
+     */
+    public TransitionSystem buildWithImplicitIdleTransitions() {
+        return this.buildWithImplicitIdleTransitions(TransitionSystem.IDLE_LABEL_SYMBOL);
+    }
+
+    /**
+     * Builds a transition system with implicit idle transitions with the given label symbol.
+     * Added loops with this label are dropped since they are implied.
+     */
+    public TransitionSystem buildWithImplicitIdleTransitions(final Symbol idleLabel) {
+        assert this.startState != null;
+        this.unshare();
+        this.transitions.removeIf(transition -> transition.getSource().equals(transition.getTarget())
+                && transition.getLabelSymbol() == idleLabel);
+        this.shared = true;
+        return new TransitionSystem(this.startState, this.states, this.transitions, idleLabel);
+    }
+
     public TransitionSystem build() {
         assert this.startState != null;
+        this.shared = true;
         return new TransitionSystem(this.startState, this.states, this.transitions);
     }
 
     public Set<State> getStates() {
-        return this.states;
+        return Collections.unmodifiableSet(this.states);
+    }
+
+    /**
+     * Copies the sets if they belong to a built system, which must not change afterwards.
+     */
+    private void unshare() {
+        if (this.shared) {
+            this.states = new LinkedHashSet<>(this.states);
+            this.transitions = new LinkedHashSet<>(this.transitions);
+            this.shared = false;
+        }
     }
 }
@@ -0,0 +1,58 @@
+package no.hvl.tim.transitionsystem.generator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of the number of outgoing transitions of the states of a random graph.
+ */
+@FunctionalInterface
+public interface DegreeDistribution {
+
+    int sample(SplittableRandom random);
+
+    /**
+     * Every state has the given degree.
+     */
+    static DegreeDistribution constant(final int degree) {
+        assert degree >= 0;
+        return random -> degree;
+    }
+
+    /**
+     * Degrees are uniformly distributed between min and max (both inclusive).
+     */
+    static DegreeDistribution uniform(final int min, final int max) {
+        assert 0 <= min && min <= max;
+        return random -> random.nextInt(min, max + 1);
+    }
+
+    /**
+     * Degrees from 1 to max follow a power law with the given exponent, i.e., degree d has a probability
+     * proportional to d^-exponent. Most states have few transitions and some states have many.
+     */
+    static DegreeDistribution powerLaw(final double exponent, final int max) {
+        assert exponent > 0 && max >= 1;
+        // Cumulative weights, sampled by binary search
+        final double[] cumulative = new double[max];
+        double sum = 0;
+        for (int degree = 1; degree <= max; degree++) {
+            sum += Math.pow(degree, -exponent);
+            cumulative[degree - 1] = sum;
+        }
+        final double total = sum;
+        return random -> {
+            final double value = random.nextDouble() * total;
+            int low = 0;
+            int high = max - 1;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (cumulative[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low + 1;
+        };
+    }
+}
@@ -0,0 +1,273 @@
+package no.hvl.tim.transitionsystem.generator;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.CompactTransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+
+import java.util.*;
+
+/**
+ * Generates families of transition systems and cospans for benchmarks and stress tests.
+ * Random choices are drawn from a generator seeded at construction, so the same seed and calls give the same
+ * systems. Systems are collected in int arrays (see {@link CompactTransitionSystemBuilder}) and converted once,
+ * such that each state and transition object is created exactly once.
+ * <p>
+ * All systems have idle transitions for every state, which are implicit if
+ * {@link #implicitIdleTransitions(boolean)} is set. Implicit idle transitions keep million-state systems small.
+ */
+public class TransitionSystemGenerator {
+
+    private final SplittableRandom random;
+    private boolean implicitIdleTransitions;
+
+    public TransitionSystemGenerator(final long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Sets whether the generated systems have implicit instead of stored idle transitions.
+     */
+    public TransitionSystemGenerator implicitIdleTransitions(final boolean implicitIdleTransitions) {
+        this.implicitIdleTransitions = implicitIdleTransitions;
+        return this;
+    }
+
+    /**
+     * Generates the chain prefix0 --prefix0--&gt; prefix1 --prefix1--&gt; ... prefix(length - 1).
+     */
+    public TransitionSystem chain(final String prefix, final int length) {
+        assert length >= 1;
+        final var builder = new CompactTransitionSystemBuilder(length, length - 1);
+        addStates(builder, prefix, length);
+        for (int state = 0; state + 1 < length; state++) {
+            builder.addTransition(state, builder.addLabel(prefix + state), state + 1);
+        }
+        return this.toTransitionSystem(builder.build());
+    }
+
+    /**
+     * Generates the ring prefix0 --prefix0--&gt; prefix1 --prefix1--&gt; ... prefix(size - 1) --&gt; prefix0.
+     */
+    public TransitionSystem ring(final String prefix, final int size) {
+        assert size >= 1;
+        final var builder = new CompactTransitionSystemBuilder(size, size);
+        addStates(builder, prefix, size);
+        for (int state = 0; state < size; state++) {
+            builder.addTransition(state, builder.addLabel(prefix + state), (state + 1) % size);
+        }
+        return this.toTransitionSystem(builder.build());
+    }
+
+    /**
+     * Generates a grid of states named "prefix{x}_{y}", in which each state has a transition labeled "right" to its
+     * right neighbour and a transition labeled "down" to its lower neighbour. The start state is the upper left one.
+     */
+    public TransitionSystem grid(final String prefix, final int width, final int height) {
+        assert width >= 1 && height >= 1;
+        final var builder = new CompactTransitionSystemBuilder(width * height, 2 * width * height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                builder.addState(prefix + x + "_" + y);
+            }
+        }
+        builder.startState(0);
+        final int right = builder.addLabel("right");
+        final int down = builder.addLabel("down");
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final int state = y * width + x;
+                if (x + 1 < width) {
+                    builder.addTransition(state, right, state + 1);
+                }
+                if (y + 1 < height) {
+                    builder.addTransition(state, down, state + width);
+                }
+            }
+        }
+        return this.toTransitionSystem(builder.build());
+    }
+
+    /**
+     * Generates a random graph, in which the number of outgoing transitions of each state is drawn from the given
+     * distribution. Targets are uniformly distributed and labels are drawn from "a0" to "a{labelCount - 1}".
+     * Duplicate transitions are dropped and states may be unreachable from the start state prefix0.
+     */
+    public TransitionSystem randomGraph(
+            final String prefix,
+            final int stateCount,
+            final DegreeDistribution outDegree,
+            final int labelCount) {
+        assert stateCount >= 1 && labelCount >= 1;
+        final var builder = new CompactTransitionSystemBuilder(stateCount, stateCount);
+        addStates(builder, prefix, stateCount);
+        for (int label = 0; label < labelCount; label++) {
+            builder.addLabel("a" + label);
+        }
+        for (int state = 0; state < stateCount; state++) {
+            final int degree = outDegree.sample(this.random);
+            for (int transition = 0; transition < degree; transition++) {
+                builder.addTransition(state, this.random.nextInt(labelCount), this.random.nextInt(stateCount));
+            }
+        }
+        return this.toTransitionSystem(builder.build());
+    }
+
+    /**
+     * Generates the ABCD example scaled to chains of the given length: the first chain s0 --&gt; ... --&gt; s(length - 1)
+     * and the second chain s(length - overlap) --&gt; ... --&gt; s(2 * length - overlap - 1), which interact in the
+     * transitions between the overlapping states. The transition from s{i} is labeled t{i} in both chains.
+     */
+    public Cospan abcd(final int length, final int overlap) {
+        assert 1 <= overlap && overlap <= length;
+        final int offset = length - overlap;
+        final TransitionSystem first = this.chain("s", "t", 0, length);
+        final TransitionSystem second = this.chain("s", "t", offset, length);
+        final Map<Transition, Transition> interactions = new LinkedHashMap<>();
+        for (int state = offset; state + 1 < length; state++) {
+            final var transition = new Transition(new State("s" + state), new State("s" + (state + 1)), "t" + state);
+            interactions.put(transition, transition);
+        }
+        return PullbackResult.calcCoordinationInterface(first, second, interactions);
+    }
+
+    /**
+     * Generates the traffic light example scaled to a light which cycles through the given number of phases and
+     * a pedestrian light which cycles through the given number of synchronisations. Each transition of the
+     * pedestrian light interacts with a transition of the light, which are evenly spread over the cycle.
+     */
+    public Cospan trafficLight(final int phases, final int synchronisations) {
+        assert 1 <= synchronisations && synchronisations <= phases;
+        final TransitionSystem light = this.ring("light", phases);
+        final TransitionSystem pedestrian = this.ring("pedestrian", synchronisations);
+        final Map<Transition, Transition> interactions = new LinkedHashMap<>();
+        for (int synchronisation = 0; synchronisation < synchronisations; synchronisation++) {
+            final int phase = (int) ((long) synchronisation * phases / synchronisations);
+            interactions.put(
+                    light.getTransition(phase),
+                    pedestrian.getTransition(synchronisation));
+        }
+        return PullbackResult.calcCoordinationInterface(light, pedestrian, interactions);
+    }
+
+    /**
+     * Generates a cospan over the ring i0 --i0--&gt; i1 --i1--&gt; ... of the given size with controlled fibers.
+     * Both legs have fiberSize states over each state of the ring, e.g., p3_0 to p3_{fiberSize - 1} over i3.
+     * Each state has one synchronised transition, e.g., p3_0 --sync3--&gt; p4_0 over i3 --i3--&gt; i4, and a random
+     * number of local transitions to states over the same state, which are mapped to idle transitions. The number
+     * of local transitions is chosen such that on average the given share of all transitions is synchronised.
+     * The pullback has size * fiberSize^2 states.
+     */
+    public Cospan fiberedCospan(final int size, final int fiberSize, final double syncDensity) {
+        assert size >= 1 && fiberSize >= 1 && 0 < syncDensity && syncDensity <= 1;
+        final TransitionSystem interfaceSystem = this.ring("i", size);
+        return new Cospan(
+                this.fiberedLeg("p", interfaceSystem, fiberSize, syncDensity),
+                this.fiberedLeg("q", interfaceSystem, fiberSize, syncDensity));
+    }
+
+    private TSMorphism fiberedLeg(
+            final String prefix,
+            final TransitionSystem interfaceSystem,
+            final int fiberSize,
+            final double syncDensity) {
+        final int size = interfaceSystem.getStates().size();
+        final int stateCount = size * fiberSize;
+        final var builder = new CompactTransitionSystemBuilder(stateCount, stateCount);
+        final int[] stateImages = new int[stateCount];
+        for (int image = 0; image < size; image++) {
+            for (int element = 0; element < fiberSize; element++) {
+                stateImages[builder.addState(prefix + image + "_" + element)] = image;
+            }
+        }
+        builder.startState(0);
+        // Ids of the images of the stored transitions. The ring transitions of the interface have the ids of their
+        // sources and the idle transition of the interface state s has the id size + s.
+        int[] transitionImages = new int[stateCount * 2];
+        int transitionCount = 0;
+        final int local = builder.addLabel(prefix + "local");
+        for (int state = 0; state < stateCount; state++) {
+            final int image = stateImages[state];
+            final int element = state % fiberSize;
+            if (transitionCount + fiberSize + 1 > transitionImages.length) {
+                transitionImages = Arrays.copyOf(transitionImages, transitionImages.length * 2 + fiberSize + 1);
+            }
+            builder.addTransition(
+                    state,
+                    builder.addLabel("sync" + image),
+                    ((image + 1) % size) * fiberSize + element);
+            transitionImages[transitionCount++] = image;
+            // Geometrically distributed with mean (1 - syncDensity) / syncDensity. Distinct targets avoid
+            // duplicate transitions, which would be dropped.
+            for (int target = 1; target <= fiberSize && this.random.nextDouble() >= syncDensity; target++) {
+                builder.addTransition(state, local, image * fiberSize + (element + target) % fiberSize);
+                transitionImages[transitionCount++] = size + image;
+            }
+        }
+        final TransitionSystem leg = this.toTransitionSystem(builder.build());
+        // Idle transitions come after the stored transitions in the order of their states.
+        final int[] images = Arrays.copyOf(transitionImages, transitionCount + stateCount);
+        for (int state = 0; state < stateCount; state++) {
+            images[transitionCount + state] = size + stateImages[state];
+        }
+        return TSMorphism.fromImages(leg, interfaceSystem, stateImages, images, ValidationMode.DEFERRED);
+    }
+
+    /**
+     * Generates the chain statePrefix{first} --labelPrefix{first}--&gt; ... statePrefix{first + length - 1}.
+     */
+    private TransitionSystem chain(
+            final String statePrefix,
+            final String labelPrefix,
+            final int first,
+            final int length) {
+        final var builder = new CompactTransitionSystemBuilder(length, length - 1);
+        for (int state = first; state < first + length; state++) {
+            builder.addState(statePrefix + state);
+        }
+        builder.startState(0);
+        for (int state = 0; state + 1 < length; state++) {
+            builder.addTransition(state, builder.addLabel(labelPrefix + (first + state)), state + 1);
+        }
+        return this.toTransitionSystem(builder.build());
+    }
+
+    private static void addStates(final CompactTransitionSystemBuilder builder, final String prefix, final int count) {
+        for (int state = 0; state < count; state++) {
+            builder.addState(prefix + state);
+        }
+        builder.startState(0);
+    }
+
+    /**
+     * Converts the compact system, adding idle transitions according to {@link #implicitIdleTransitions}.
+     */
+    private TransitionSystem toTransitionSystem(final CompactTransitionSystem compact) {
+        final State[] states = new State[compact.getStateCount()];
+        for (int state = 0; state < states.length; state++) {
+            states[state] = new State(compact.getStateSymbol(state));
+        }
+        final int storedCount = compact.getTransitionCount() + (this.implicitIdleTransitions ? 0 : states.length);
+        final Set<Transition> transitions = new LinkedHashSet<>(storedCount * 4 / 3 + 1);
+        for (int transition = 0; transition < compact.getTransitionCount(); transition++) {
+            transitions.add(new Transition(
+                    states[compact.getTransitionSource(transition)],
+                    states[compact.getTransitionTarget(transition)],
+                    compact.getLabelSymbol(compact.getTransitionLabel(transition))));
+        }
+        if (this.implicitIdleTransitions) {
+            return new TransitionSystem(
+                    states[compact.getStartState()],
+                    new LinkedHashSet<>(Arrays.asList(states)),
+                    transitions,
+                    TransitionSystem.IDLE_LABEL_SYMBOL);
+        }
+        for (final State state : states) {
+            transitions.add(new Transition(state, state, TransitionSystem.IDLE_LABEL_SYMBOL));
+        }
+        return new TransitionSystem(
+                states[compact.getStartState()],
+                new LinkedHashSet<>(Arrays.asList(states)),
+                transitions);
+    }
+}
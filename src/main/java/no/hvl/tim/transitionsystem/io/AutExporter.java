@@ -0,0 +1,68 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes systems in the Aldebaran format (.aut), which can be read by {@link AutImporter}.
+ * States are numbered by their ids (see {@link TransitionSystem#getStateId}), so their names are not kept.
+ * Labels are quoted, where quotes and backslashes are escaped by a backslash and line breaks are written as
+ * {@code \n}. Elements are written one at a time, so the memory used does not depend on the size of the system.
+ */
+public final class AutExporter {
+
+    private AutExporter() {
+    }
+
+    /**
+     * Writes the system to the given writer, which is flushed but not closed.
+     */
+    public static void write(final TransitionSystem system, final Writer writer) throws IOException {
+        final var out = new BufferedWriter(writer);
+        out.write(String.format(
+                "des (%d, %d, %d)\n",
+                system.getStateId(system.getStartState()),
+                system.getTransitions().size(),
+                system.getStates().size()));
+        for (final Transition transition : system.getTransitions()) {
+            out.write('(');
+            out.write(Integer.toString(system.getStateId(transition.getSource())));
+            out.write(", ");
+            writeLabel(out, transition.getLabel());
+            out.write(", ");
+            out.write(Integer.toString(system.getStateId(transition.getTarget())));
+            out.write(")\n");
+        }
+        out.flush();
+    }
+
+    private static void writeLabel(final Writer out, final String label) throws IOException {
+        out.write('"');
+        for (int index = 0; index < label.length(); index++) {
+            final char character = label.charAt(index);
+            if (character == '\n') {
+                out.write("\\n");
+            } else {
+                if (character == '"' || character == '\\') {
+                    out.write('\\');
+                }
+                out.write(character);
+            }
+        }
+        out.write('"');
+    }
+
+    /**
+     * Writes the system to the given channel as UTF-8. The channel is not closed.
+     */
+    public static void write(final TransitionSystem system, final WritableByteChannel channel) throws IOException {
+        write(system, Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+}
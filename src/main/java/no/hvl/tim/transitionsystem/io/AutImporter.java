@@ -0,0 +1,185 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.CompactTransitionSystem;
+import no.hvl.tim.transitionsystem.Symbol;
+import no.hvl.tim.transitionsystem.SymbolTable;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.builder.CompactTransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Imports systems in the Aldebaran format (.aut) in one pass, e.g.,
+ * <pre>
+ * des (0, 2, 2)
+ * (0, "a", 1)
+ * (1, b, 0)
+ * </pre>
+ * The header gives the start state and the number of transitions and states. States are numbered from 0 and
+ * named by their number. States are created when the header or a transition refers to them, so states without
+ * transitions (other than the start state) are not read and a large number of states in the header costs nothing. Labels may be quoted, unquoted labels must not contain commas. In quoted labels,
+ * {@code \"}, {@code \\} and {@code \n} stand for a quote, a backslash and a line break.
+ */
+public final class AutImporter {
+
+    private final ChannelInput input;
+    private final TransitionSink sink;
+    private final SymbolTable symbolTable = SymbolTable.getGlobal();
+    private static final int INITIAL_STATES = 16;
+
+    // Interned names of the states by their number, null for states which were not referred to yet
+    private Symbol[] stateSymbols = new Symbol[INITIAL_STATES];
+    // Number of states in the header
+    private int stateCount;
+
+    private AutImporter(final ReadableByteChannel channel, final TransitionSink sink) {
+        this.input = new ChannelInput(channel);
+        this.sink = sink;
+    }
+
+    /**
+     * Reads the system from the given channel and passes its states and transitions to the given sink.
+     * Each state is passed before the first transition which refers to it.
+     */
+    public static void read(final ReadableByteChannel channel, final TransitionSink sink) throws IOException {
+        new AutImporter(channel, sink).read();
+    }
+
+    /**
+     * Reads the system with implicit idle transitions labeled {@link TransitionSystem#IDLE_LABEL}, which are needed
+     * to calculate pullbacks. Idle transitions in the file are implied.
+     */
+    public static TransitionSystem read(final ReadableByteChannel channel) throws IOException {
+        return read(channel, true);
+    }
+
+    /**
+     * Reads the system with implicit idle transitions labeled {@link TransitionSystem#IDLE_LABEL} if requested,
+     * otherwise only with the transitions in the file.
+     */
+    public static TransitionSystem read(final ReadableByteChannel channel, final boolean implicitIdleTransitions)
+            throws IOException {
+        final var builder = new TransitionSystemBuilder();
+        read(channel, TransitionSink.of(builder));
+        return implicitIdleTransitions ? builder.buildWithImplicitIdleTransitions() : builder.build();
+    }
+
+    public static CompactTransitionSystem readCompact(final ReadableByteChannel channel) throws IOException {
+        final var builder = new CompactTransitionSystemBuilder();
+        read(channel, TransitionSink.of(builder));
+        return builder.build();
+    }
+
+    private void read() throws IOException {
+        this.input.skipWhitespace();
+        for (final char expected : "des".toCharArray()) {
+            if (this.input.read() != expected) {
+                throw this.input.error("Expected the header \"des (start, transitions, states)\"");
+            }
+        }
+        this.input.expect('(');
+        final int startState = this.input.readNumber();
+        this.input.expect(',');
+        final int transitionCount = this.input.readNumber();
+        this.input.expect(',');
+        this.stateCount = this.input.readNumber();
+        this.input.expect(')');
+        this.sink.startState(this.state(startState));
+
+        for (int transition = 0; transition < transitionCount; transition++) {
+            this.input.expect('(');
+            final Symbol source = this.state(this.input.readNumber());
+            this.input.expect(',');
+            final Symbol label = this.readLabel();
+            this.input.expect(',');
+            final Symbol target = this.state(this.input.readNumber());
+            this.input.expect(')');
+            this.sink.transition(source, label, target);
+        }
+        this.input.skipWhitespace();
+        if (this.input.peek() != ChannelInput.END) {
+            throw this.input.error(String.format(
+                    "Expected %d transitions but found more",
+                    transitionCount));
+        }
+    }
+
+    /**
+     * Returns the name of the state with the given number, which is passed to the sink when it is first referred to.
+     * Names are cached in an array which grows with the numbers of the referred states, not with the header.
+     */
+    private Symbol state(final int number) {
+        if (number >= this.stateCount) {
+            throw this.input.error(String.format(
+                    "The state %d is not below the number of states %d",
+                    number,
+                    this.stateCount));
+        }
+        if (number >= this.stateSymbols.length && number < 2L * this.stateSymbols.length) {
+            this.stateSymbols = Arrays.copyOf(
+                    this.stateSymbols,
+                    (int) Math.min(this.stateCount, 2L * this.stateSymbols.length));
+        }
+        if (number >= this.stateSymbols.length) {
+            // Far beyond the states referred to so far, so it is not cached and may be passed again.
+            final Symbol symbol = this.symbolTable.intern(Integer.toString(number));
+            this.sink.state(symbol);
+            return symbol;
+        }
+        Symbol symbol = this.stateSymbols[number];
+        if (symbol == null) {
+            symbol = this.symbolTable.intern(Integer.toString(number));
+            this.stateSymbols[number] = symbol;
+            this.sink.state(symbol);
+        }
+        return symbol;
+    }
+
+    private Symbol readLabel() throws IOException {
+        this.input.skipWhitespace();
+        this.input.startToken();
+        if (this.input.peek() == '"') {
+            this.input.read();
+            int next;
+            while ((next = this.input.read()) != '"') {
+                if (next == ChannelInput.END || next == '\n') {
+                    throw this.input.error("Unterminated label");
+                }
+                if (next == '\\') {
+                    next = this.readEscaped();
+                }
+                this.input.appendToToken(next);
+            }
+        } else {
+            while (this.input.peek() != ',' && this.input.peek() != '\n' && this.input.peek() != ChannelInput.END) {
+                this.input.appendToToken(this.input.read());
+            }
+            // Trailing whitespace is not part of unquoted labels.
+            final String label = this.input.getToken().strip();
+            if (label.isEmpty()) {
+                throw this.input.error("Expected a label");
+            }
+            return this.symbolTable.intern(label);
+        }
+        return this.symbolTable.intern(this.input.getToken());
+    }
+
+    /**
+     * Reads the character after a backslash in a quoted label. Other characters than quotes, backslashes and "n"
+     * keep the backslash.
+     */
+    private int readEscaped() throws IOException {
+        final int escaped = this.input.peek();
+        if (escaped == '"' || escaped == '\\') {
+            return this.input.read();
+        }
+        if (escaped == 'n') {
+            this.input.read();
+            return '\n';
+        }
+        return '\\';
+    }
+}
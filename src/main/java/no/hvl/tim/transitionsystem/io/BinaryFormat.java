@@ -0,0 +1,55 @@
+package no.hvl.tim.transitionsystem.io;
+
+/**
+ * Versioned binary format for transition systems, morphisms, cospans and pullback results.
+ * <p>
+ * A file consists of
+ * <ol>
+ *     <li>a header: the magic number "TSBF", the version (int) and the {@link Content} (byte),</li>
+ *     <li>the symbol table: the names and labels used by the systems, where tuples refer to their components,</li>
+ *     <li>one section for each system: the state symbols, the start state, the label of implicit idle transitions
+ *     and the stored transitions, whose source is delta encoded to the previous source and whose target is
+ *     delta encoded to the source,</li>
+ *     <li>one section for each morphism: the indices of its systems and the delta encoded image ids,</li>
+ *     <li>a directory with the offsets of all sections, followed by the offset of the directory (long).</li>
+ * </ol>
+ * Unless noted otherwise, ints are unsigned variable length integers (LEB128) and signed ints are zigzag encoded.
+ * Symbols are only meaningful within one file and are interned into the global symbol table when read.
+ */
+public final class BinaryFormat {
+
+    /**
+     * The bytes "TSBF".
+     */
+    static final int MAGIC = 0x54534246;
+
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 9;
+    static final int FOOTER_SIZE = 8;
+
+    /**
+     * The objects which are stored in a file.
+     */
+    public enum Content {
+        /**
+         * One system.
+         */
+        TRANSITION_SYSTEM,
+        /**
+         * One morphism and its systems.
+         */
+        MORPHISM,
+        /**
+         * The two morphisms of a cospan and their systems.
+         */
+        COSPAN,
+        /**
+         * The two morphisms of a pullback result and their systems.
+         */
+        PULLBACK_RESULT
+    }
+
+    private BinaryFormat() {
+    }
+}
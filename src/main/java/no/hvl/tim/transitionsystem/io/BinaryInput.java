@@ -0,0 +1,136 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Sequential input of the primitives of the {@link BinaryFormat} from a region of a file. The region may be split
+ * into several buffers, since a buffer holds less than 2 GB. Reading past the end of the region fails with a
+ * {@link TransitionSystemException}.
+ */
+final class BinaryInput {
+
+    private final ByteBuffer[] buffers;
+    private int current;
+    private long remaining;
+
+    BinaryInput(final ByteBuffer... buffers) {
+        this.buffers = buffers;
+        for (final ByteBuffer buffer : buffers) {
+            this.remaining += buffer.remaining();
+        }
+    }
+
+    private BinaryInput(final BinaryInput original) {
+        this.buffers = new ByteBuffer[original.buffers.length];
+        for (int index = 0; index < this.buffers.length; index++) {
+            this.buffers[index] = original.buffers[index].duplicate();
+        }
+        this.current = original.current;
+        this.remaining = original.remaining;
+    }
+
+    /**
+     * Returns an input with an independent position, which starts at the current position.
+     */
+    BinaryInput duplicate() {
+        return new BinaryInput(this);
+    }
+
+    long getRemaining() {
+        return this.remaining;
+    }
+
+    byte readByte() {
+        if (this.remaining == 0) {
+            throw corrupt();
+        }
+        while (!this.buffers[this.current].hasRemaining()) {
+            this.current++;
+        }
+        this.remaining--;
+        return this.buffers[this.current].get();
+    }
+
+    void readBytes(final byte[] bytes) {
+        if (bytes.length > this.remaining) {
+            throw corrupt();
+        }
+        int offset = 0;
+        while (offset < bytes.length) {
+            final ByteBuffer buffer = this.buffers[this.current];
+            final int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+            if (!buffer.hasRemaining() && this.current + 1 < this.buffers.length) {
+                this.current++;
+            }
+        }
+        this.remaining -= bytes.length;
+    }
+
+    int readInt() {
+        int value = 0;
+        for (int index = 0; index < Integer.BYTES; index++) {
+            value = value << 8 | this.readByte() & 0xFF;
+        }
+        return value;
+    }
+
+    long readLong() {
+        long value = 0;
+        for (int index = 0; index < Long.BYTES; index++) {
+            value = value << 8 | this.readByte() & 0xFF;
+        }
+        return value;
+    }
+
+    int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int value = this.readByte();
+            result |= (value & 0x7F) << shift;
+            if ((value & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new TransitionSystemException("Malformed variable length integer!");
+    }
+
+    int readSignedVarInt() {
+        final int value = this.readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads the number of the following entries, each of which takes at least one byte.
+     */
+    int readCount() {
+        return this.checkCount(this.readVarInt(), 1);
+    }
+
+    /**
+     * Checks that the given number of entries of the given minimal size can follow.
+     */
+    int checkCount(final int count, final int entrySize) {
+        if (count < 0 || (long) count * entrySize > this.remaining) {
+            throw corrupt();
+        }
+        return count;
+    }
+
+    int[] readDeltaArray() {
+        final int[] values = new int[this.readCount()];
+        int previous = 0;
+        for (int index = 0; index < values.length; index++) {
+            previous += this.readSignedVarInt();
+            values[index] = previous;
+        }
+        return values;
+    }
+
+    static TransitionSystemException corrupt() {
+        return new TransitionSystemException("The file is truncated or corrupt!");
+    }
+}
@@ -0,0 +1,102 @@
+package no.hvl.tim.transitionsystem.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffered output of the primitives of the {@link BinaryFormat}, which keeps track of the number of written bytes.
+ */
+class BinaryOutput {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private long position;
+
+    BinaryOutput(final OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Returns the number of bytes written so far.
+     */
+    long getPosition() {
+        return this.position + this.count;
+    }
+
+    void writeByte(final int value) throws IOException {
+        if (this.count == BUFFER_SIZE) {
+            this.flushBuffer();
+        }
+        this.buffer[this.count++] = (byte) value;
+    }
+
+    void writeBytes(final byte[] bytes) throws IOException {
+        for (final byte value : bytes) {
+            this.writeByte(value);
+        }
+    }
+
+    void writeInt(final int value) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            this.writeByte(value >>> shift);
+        }
+    }
+
+    void writeLong(final long value) throws IOException {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            this.writeByte((int) (value >>> shift));
+        }
+    }
+
+    /**
+     * Writes a non-negative int using 7 bits per byte, least significant group first.
+     */
+    void writeVarInt(final int value) throws IOException {
+        assert value >= 0;
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            this.writeByte((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        this.writeByte(rest);
+    }
+
+    /**
+     * Writes an int which may be negative, such that values close to zero take few bytes.
+     */
+    void writeSignedVarInt(final int value) throws IOException {
+        // Zigzag encoding is unsigned, so it is written without the sign check of writeVarInt.
+        int rest = (value << 1) ^ (value >> 31);
+        while ((rest & ~0x7F) != 0) {
+            this.writeByte((rest & 0x7F) | 0x80);
+            rest >>>= 7;
+        }
+        this.writeByte(rest);
+    }
+
+    /**
+     * Writes the length of the array followed by the delta of each value to the previous one.
+     */
+    void writeDeltaArray(final int[] values) throws IOException {
+        this.writeVarInt(values.length);
+        int previous = 0;
+        for (final int value : values) {
+            this.writeSignedVarInt(value - previous);
+            previous = value;
+        }
+    }
+
+    void flush() throws IOException {
+        this.flushBuffer();
+        this.out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        this.out.write(this.buffer, 0, this.count);
+        this.position += this.count;
+        this.count = 0;
+    }
+}
@@ -0,0 +1,321 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads files in the {@link BinaryFormat}.
+ * Opening a file only reads its header and directory. The symbol table, systems and morphisms are decoded on
+ * first access and kept afterwards, such that morphisms sharing a system in the file share it after reading.
+ * <p>
+ * {@link #map(Path)} maps the sections of a file into memory instead of reading it, so only the pages of the
+ * accessed sections are loaded. Files and sections larger than a buffer are held in several buffers.
+ * <p>
+ * Morphisms are not validated when read, since they were written from valid morphisms. Truncated or corrupt files
+ * are reported with a {@link TransitionSystemException} when the affected object is decoded.
+ */
+public final class BinaryReader {
+
+    /**
+     * The maximal number of bytes of one buffer.
+     */
+    static final int BUFFER_SIZE = 1 << 30;
+
+    private final BinaryFormat.Content content;
+    private final BinaryInput symbolSection;
+    private final BinaryInput[] systemSections;
+    private final BinaryInput[] morphismSections;
+
+    // File symbol -> global symbol
+    private Symbol[] symbols;
+    private final TransitionSystem[] systems;
+    private final TSMorphism[] morphisms;
+
+    private BinaryReader(
+            final BinaryFormat.Content content,
+            final BinaryInput symbolSection,
+            final BinaryInput[] systemSections,
+            final BinaryInput[] morphismSections) {
+        this.content = content;
+        this.symbolSection = symbolSection;
+        this.systemSections = systemSections;
+        this.morphismSections = morphismSections;
+        this.systems = new TransitionSystem[systemSections.length];
+        this.morphisms = new TSMorphism[morphismSections.length];
+    }
+
+    /**
+     * Reads the whole stream into memory. Objects are still decoded on first access.
+     */
+    public static BinaryReader read(final InputStream in) throws IOException {
+        return read(in, BUFFER_SIZE);
+    }
+
+    /**
+     * Reads the whole stream into buffers of the given size.
+     */
+    static BinaryReader read(final InputStream in, final int bufferSize) throws IOException {
+        final List<ByteBuffer> buffers = new ArrayList<>();
+        long size = 0;
+        byte[] bytes;
+        do {
+            bytes = in.readNBytes(bufferSize);
+            buffers.add(ByteBuffer.wrap(bytes));
+            size += bytes.length;
+        } while (bytes.length == bufferSize);
+        return open(size, (offset, length) -> {
+            final List<ByteBuffer> section = new ArrayList<>();
+            for (long position = offset; position < offset + length; ) {
+                final int start = (int) (position % bufferSize);
+                final int end = (int) Math.min(bufferSize, start + offset + length - position);
+                section.add(buffers.get((int) (position / bufferSize)).duplicate().position(start).limit(end).slice());
+                position += end - start;
+            }
+            return new BinaryInput(section.toArray(new ByteBuffer[0]));
+        });
+    }
+
+    /**
+     * Maps the given file into memory.
+     */
+    public static BinaryReader map(final Path file) throws IOException {
+        return map(file, BUFFER_SIZE);
+    }
+
+    /**
+     * Maps the given file into memory using buffers of at most the given size.
+     */
+    static BinaryReader map(final Path file, final int bufferSize) throws IOException {
+        // Mappings stay valid after the channel is closed.
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return open(channel.size(), (offset, length) -> {
+                final List<ByteBuffer> section = new ArrayList<>();
+                for (long position = offset; position < offset + length; position += bufferSize) {
+                    section.add(channel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            position,
+                            Math.min(bufferSize, offset + length - position)));
+                }
+                return new BinaryInput(section.toArray(new ByteBuffer[0]));
+            });
+        }
+    }
+
+    public BinaryFormat.Content getContent() {
+        return this.content;
+    }
+
+    public int getSystemCount() {
+        return this.systems.length;
+    }
+
+    public int getMorphismCount() {
+        return this.morphisms.length;
+    }
+
+    /**
+     * Returns the system with the given index in the order in which the systems were written.
+     */
+    public synchronized TransitionSystem getSystem(final int index) {
+        if (this.systems[index] == null) {
+            try {
+                this.systems[index] = this.decodeSystem(this.systemSections[index].duplicate());
+            } catch (final IndexOutOfBoundsException e) {
+                throw BinaryInput.corrupt();
+            }
+        }
+        return this.systems[index];
+    }
+
+    /**
+     * Returns the morphism with the given index in the order in which the morphisms were written.
+     */
+    public synchronized TSMorphism getMorphism(final int index) {
+        if (this.morphisms[index] == null) {
+            try {
+                this.morphisms[index] = this.decodeMorphism(this.morphismSections[index].duplicate());
+            } catch (final IndexOutOfBoundsException e) {
+                throw BinaryInput.corrupt();
+            }
+        }
+        return this.morphisms[index];
+    }
+
+    public TransitionSystem readTransitionSystem() {
+        this.expectContent(BinaryFormat.Content.TRANSITION_SYSTEM);
+        return this.getSystem(0);
+    }
+
+    public TSMorphism readMorphism() {
+        this.expectContent(BinaryFormat.Content.MORPHISM);
+        return this.getMorphism(0);
+    }
+
+    public Cospan readCospan() {
+        this.expectContent(BinaryFormat.Content.COSPAN);
+        return new Cospan(this.getMorphism(0), this.getMorphism(1));
+    }
+
+    public PullbackResult readPullbackResult() {
+        this.expectContent(BinaryFormat.Content.PULLBACK_RESULT);
+        return new PullbackResult(this.getMorphism(0), this.getMorphism(1));
+    }
+
+    private void expectContent(final BinaryFormat.Content expected) {
+        if (this.content != expected) {
+            throw new TransitionSystemException(String.format(
+                    "The file contains a %s and not a %s!",
+                    this.content,
+                    expected));
+        }
+    }
+
+    private static BinaryReader open(final long size, final Sections file) throws IOException {
+        if (size < BinaryFormat.HEADER_SIZE + BinaryFormat.FOOTER_SIZE) {
+            throw new TransitionSystemException("The file is too short!");
+        }
+        final Sections sections = (offset, length) -> {
+            if (offset < 0 || length < 0 || offset + length > size) {
+                throw BinaryInput.corrupt();
+            }
+            return file.get(offset, length);
+        };
+        final BinaryInput header = sections.get(0, BinaryFormat.HEADER_SIZE);
+        if (header.readInt() != BinaryFormat.MAGIC) {
+            throw new TransitionSystemException("The file is not a transition system file!");
+        }
+        final int version = header.readInt();
+        if (version != BinaryFormat.VERSION) {
+            throw new TransitionSystemException(String.format("The file version %d is not supported!", version));
+        }
+        final int contentOrdinal = header.readByte();
+        if (contentOrdinal < 0 || contentOrdinal >= BinaryFormat.Content.values().length) {
+            throw new TransitionSystemException(String.format("Unknown file content %d!", contentOrdinal));
+        }
+
+        final long directoryOffset = sections.get(size - BinaryFormat.FOOTER_SIZE, BinaryFormat.FOOTER_SIZE).readLong();
+        final BinaryInput directory = sections.get(directoryOffset, size - BinaryFormat.FOOTER_SIZE - directoryOffset);
+        final long symbolsOffset = directory.readLong();
+        final long[] systemOffsets = new long[directory.checkCount(directory.readInt(), Long.BYTES)];
+        for (int index = 0; index < systemOffsets.length; index++) {
+            systemOffsets[index] = directory.readLong();
+        }
+        final long[] morphismOffsets = new long[directory.checkCount(directory.readInt(), Long.BYTES)];
+        for (int index = 0; index < morphismOffsets.length; index++) {
+            morphismOffsets[index] = directory.readLong();
+        }
+
+        // Sections are written one after the other, so each one ends where the next one starts.
+        final long symbolsEnd = systemOffsets.length > 0 ? systemOffsets[0] : directoryOffset;
+        final long systemsEnd = morphismOffsets.length > 0 ? morphismOffsets[0] : directoryOffset;
+        return new BinaryReader(
+                BinaryFormat.Content.values()[contentOrdinal],
+                sections.get(symbolsOffset, symbolsEnd - symbolsOffset),
+                slice(sections, systemOffsets, systemsEnd),
+                slice(sections, morphismOffsets, directoryOffset));
+    }
+
+    private static BinaryInput[] slice(final Sections sections, final long[] offsets, final long end)
+            throws IOException {
+        final BinaryInput[] result = new BinaryInput[offsets.length];
+        for (int index = 0; index < offsets.length; index++) {
+            final long sectionEnd = index + 1 < offsets.length ? offsets[index + 1] : end;
+            result[index] = sections.get(offsets[index], sectionEnd - offsets[index]);
+        }
+        return result;
+    }
+
+    private Symbol[] symbols() {
+        if (this.symbols == null) {
+            try {
+                this.symbols = decodeSymbols(this.symbolSection.duplicate());
+            } catch (final IndexOutOfBoundsException e) {
+                throw BinaryInput.corrupt();
+            }
+        }
+        return this.symbols;
+    }
+
+    private static Symbol[] decodeSymbols(final BinaryInput input) {
+        final SymbolTable symbolTable = SymbolTable.getGlobal();
+        final SymbolTable.TupleKind[] tupleKinds = SymbolTable.TupleKind.values();
+        final Symbol[] symbols = new Symbol[input.readCount()];
+        for (int symbol = 0; symbol < symbols.length; symbol++) {
+            final int tag = input.readByte();
+            if (tag == 0) {
+                final byte[] name = new byte[input.readCount()];
+                input.readBytes(name);
+                symbols[symbol] = symbolTable.intern(new String(name, StandardCharsets.UTF_8));
+            } else {
+                final Symbol[] components = new Symbol[input.readCount()];
+                for (int component = 0; component < components.length; component++) {
+                    // Components are written before their tuples.
+                    final int componentSymbol = input.readVarInt();
+                    if (componentSymbol < 0 || componentSymbol >= symbol) {
+                        throw BinaryInput.corrupt();
+                    }
+                    components[component] = symbols[componentSymbol];
+                }
+                symbols[symbol] = symbolTable.internTuple(tupleKinds[tag - 1], components);
+            }
+        }
+        return symbols;
+    }
+
+    private TransitionSystem decodeSystem(final BinaryInput input) {
+        final Symbol[] symbols = this.symbols();
+        final State[] states = new State[input.readCount()];
+        for (int state = 0; state < states.length; state++) {
+            states[state] = new State(symbols[input.readVarInt()]);
+        }
+        final State startState = states[input.readVarInt()];
+        final int implicitIdleLabel = input.readVarInt();
+        final int transitionCount = input.readCount();
+        final Set<Transition> transitions = new LinkedHashSet<>(transitionCount * 4 / 3 + 1);
+        int source = 0;
+        for (int transition = 0; transition < transitionCount; transition++) {
+            source += input.readSignedVarInt();
+            final int target = source + input.readSignedVarInt();
+            transitions.add(new Transition(states[source], states[target], symbols[input.readVarInt()]));
+        }
+        return new TransitionSystem(
+                startState,
+                new LinkedHashSet<>(Arrays.asList(states)),
+                transitions,
+                implicitIdleLabel == 0 ? null : symbols[implicitIdleLabel - 1]);
+    }
+
+    private TSMorphism decodeMorphism(final BinaryInput input) {
+        final TransitionSystem source = this.getSystem(input.readVarInt());
+        final TransitionSystem target = this.getSystem(input.readVarInt());
+        final int[] stateImages = input.readDeltaArray();
+        final int[] transitionImages = input.readDeltaArray();
+        if (stateImages.length != source.getStates().size()
+                || transitionImages.length != source.getTransitions().size()) {
+            throw BinaryInput.corrupt();
+        }
+        return TSMorphism.fromImages(source, target, stateImages, transitionImages, ValidationMode.DEFERRED);
+    }
+
+    /**
+     * Provides the bytes of a region of the file.
+     */
+    @FunctionalInterface
+    private interface Sections {
+        BinaryInput get(long offset, long length) throws IOException;
+    }
+}
@@ -0,0 +1,201 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Writes transition systems, morphisms, cospans and pullback results in the {@link BinaryFormat}.
+ * Systems shared by several morphisms are written once.
+ */
+public final class BinaryWriter {
+
+    private final BinaryFormat.Content content;
+    private final List<TransitionSystem> systems = new ArrayList<>();
+    private final Map<TransitionSystem, Integer> systemIndices = new IdentityHashMap<>();
+    private final List<TSMorphism> morphisms = new ArrayList<>();
+    // Global symbol -> symbol in the file. Tuples are added after their components.
+    private final Map<Symbol, Integer> symbols = new LinkedHashMap<>();
+
+    private BinaryWriter(final BinaryFormat.Content content) {
+        this.content = content;
+    }
+
+    public static void write(final TransitionSystem system, final OutputStream out) throws IOException {
+        final var writer = new BinaryWriter(BinaryFormat.Content.TRANSITION_SYSTEM);
+        writer.addSystem(system);
+        writer.write(out);
+    }
+
+    public static void write(final TSMorphism morphism, final OutputStream out) throws IOException {
+        final var writer = new BinaryWriter(BinaryFormat.Content.MORPHISM);
+        writer.addMorphism(morphism);
+        writer.write(out);
+    }
+
+    public static void write(final Cospan cospan, final OutputStream out) throws IOException {
+        final var writer = new BinaryWriter(BinaryFormat.Content.COSPAN);
+        writer.addMorphism(cospan.getI1());
+        writer.addMorphism(cospan.getI2());
+        writer.write(out);
+    }
+
+    public static void write(final PullbackResult result, final OutputStream out) throws IOException {
+        final var writer = new BinaryWriter(BinaryFormat.Content.PULLBACK_RESULT);
+        writer.addMorphism(result.getM1());
+        writer.addMorphism(result.getM2());
+        writer.write(out);
+    }
+
+    public static void write(final TransitionSystem system, final Path file) throws IOException {
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(system, out);
+        }
+    }
+
+    public static void write(final TSMorphism morphism, final Path file) throws IOException {
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(morphism, out);
+        }
+    }
+
+    public static void write(final Cospan cospan, final Path file) throws IOException {
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(cospan, out);
+        }
+    }
+
+    public static void write(final PullbackResult result, final Path file) throws IOException {
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(result, out);
+        }
+    }
+
+    private void addSystem(final TransitionSystem system) {
+        if (this.systemIndices.containsKey(system)) {
+            return;
+        }
+        this.systemIndices.put(system, this.systems.size());
+        this.systems.add(system);
+        system.getStates().forEach(state -> this.addSymbol(state.getSymbol()));
+        for (final Transition transition : system.getStoredTransitions()) {
+            this.addSymbol(transition.getLabelSymbol());
+        }
+        if (system.hasImplicitIdleTransitions()) {
+            this.addSymbol(system.getImplicitIdleLabelSymbol());
+        }
+    }
+
+    private void addMorphism(final TSMorphism morphism) {
+        this.addSystem(morphism.getSource());
+        this.addSystem(morphism.getTarget());
+        this.morphisms.add(morphism);
+    }
+
+    private void addSymbol(final Symbol symbol) {
+        if (this.symbols.containsKey(symbol)) {
+            return;
+        }
+        if (symbol.isTuple()) {
+            for (final Symbol component : symbol.getTupleComponents()) {
+                this.addSymbol(component);
+            }
+        }
+        this.symbols.put(symbol, this.symbols.size());
+    }
+
+    private void write(final OutputStream out) throws IOException {
+        final var output = new BinaryOutput(out);
+        output.writeInt(BinaryFormat.MAGIC);
+        output.writeInt(BinaryFormat.VERSION);
+        output.writeByte(this.content.ordinal());
+
+        final long symbolsOffset = output.getPosition();
+        this.writeSymbols(output);
+        final long[] systemOffsets = new long[this.systems.size()];
+        for (int index = 0; index < systemOffsets.length; index++) {
+            systemOffsets[index] = output.getPosition();
+            this.writeSystem(output, this.systems.get(index));
+        }
+        final long[] morphismOffsets = new long[this.morphisms.size()];
+        for (int index = 0; index < morphismOffsets.length; index++) {
+            morphismOffsets[index] = output.getPosition();
+            this.writeMorphism(output, this.morphisms.get(index));
+        }
+
+        // Fixed width, so the reader can find the sections without decoding anything else.
+        final long directoryOffset = output.getPosition();
+        output.writeLong(symbolsOffset);
+        output.writeInt(systemOffsets.length);
+        for (final long offset : systemOffsets) {
+            output.writeLong(offset);
+        }
+        output.writeInt(morphismOffsets.length);
+        for (final long offset : morphismOffsets) {
+            output.writeLong(offset);
+        }
+        output.writeLong(directoryOffset);
+        output.flush();
+    }
+
+    /**
+     * Writes the symbols in the order of their symbols in the file. An entry is either 0 and the UTF-8 bytes of a
+     * name or the tuple kind + 1 and the file symbols of the components.
+     */
+    private void writeSymbols(final BinaryOutput output) throws IOException {
+        output.writeVarInt(this.symbols.size());
+        for (final Symbol symbol : this.symbols.keySet()) {
+            if (symbol.isTuple()) {
+                output.writeByte(symbol.getTupleKind().ordinal() + 1);
+                final Symbol[] components = symbol.getTupleComponents();
+                output.writeVarInt(components.length);
+                for (final Symbol component : components) {
+                    output.writeVarInt(this.symbols.get(component));
+                }
+            } else {
+                output.writeByte(0);
+                final byte[] name = symbol.render().getBytes(StandardCharsets.UTF_8);
+                output.writeVarInt(name.length);
+                output.writeBytes(name);
+            }
+        }
+    }
+
+    private void writeSystem(final BinaryOutput output, final TransitionSystem system) throws IOException {
+        output.writeVarInt(system.getStates().size());
+        for (final State state : system.getStates()) {
+            output.writeVarInt(this.symbols.get(state.getSymbol()));
+        }
+        output.writeVarInt(system.getStateId(system.getStartState()));
+        // 0 if there are no implicit idle transitions, otherwise the file symbol of their label + 1
+        output.writeVarInt(system.hasImplicitIdleTransitions()
+                ? this.symbols.get(system.getImplicitIdleLabelSymbol()) + 1
+                : 0);
+        final Set<Transition> transitions = system.getStoredTransitions();
+        output.writeVarInt(transitions.size());
+        int previousSource = 0;
+        for (final Transition transition : transitions) {
+            final int source = system.getStateId(transition.getSource());
+            final int target = system.getStateId(transition.getTarget());
+            output.writeSignedVarInt(source - previousSource);
+            output.writeSignedVarInt(target - source);
+            output.writeVarInt(this.symbols.get(transition.getLabelSymbol()));
+            previousSource = source;
+        }
+    }
+
+    private void writeMorphism(final BinaryOutput output, final TSMorphism morphism) throws IOException {
+        output.writeVarInt(this.systemIndices.get(morphism.getSource()));
+        output.writeVarInt(this.systemIndices.get(morphism.getTarget()));
+        output.writeDeltaArray(morphism.getStateImageIds());
+        output.writeDeltaArray(morphism.getTransitionImageIds());
+    }
+}
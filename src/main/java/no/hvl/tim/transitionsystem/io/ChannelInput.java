@@ -0,0 +1,127 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Byte-wise input from a blocking channel through a buffer of fixed size, which tracks the current line for
+ * error messages. Tokens are collected in a reusable byte array and decoded as UTF-8.
+ */
+class ChannelInput {
+
+    static final int END = -1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).flip();
+    private byte[] token = new byte[64];
+    private int tokenLength;
+    private int line = 1;
+
+    ChannelInput(final ReadableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the next byte without consuming it or {@link #END} at the end of the input.
+     */
+    int peek() throws IOException {
+        if (!this.buffer.hasRemaining() && !this.fill()) {
+            return END;
+        }
+        return this.buffer.get(this.buffer.position()) & 0xFF;
+    }
+
+    int read() throws IOException {
+        final int next = this.peek();
+        if (next != END) {
+            this.buffer.position(this.buffer.position() + 1);
+            if (next == '\n') {
+                this.line++;
+            }
+        }
+        return next;
+    }
+
+    void skipWhitespace() throws IOException {
+        while (Character.isWhitespace(this.peek())) {
+            this.read();
+        }
+    }
+
+    /**
+     * Skips whitespace and consumes the given character.
+     */
+    void expect(final char expected) throws IOException {
+        this.skipWhitespace();
+        final int next = this.read();
+        if (next != expected) {
+            throw this.error(String.format("Expected '%s' but found %s", expected, describe(next)));
+        }
+    }
+
+    /**
+     * Reads a non-negative decimal number.
+     */
+    int readNumber() throws IOException {
+        this.skipWhitespace();
+        if (!isDigit(this.peek())) {
+            throw this.error(String.format("Expected a number but found %s", describe(this.peek())));
+        }
+        long number = 0;
+        while (isDigit(this.peek())) {
+            number = number * 10 + this.read() - '0';
+            if (number > Integer.MAX_VALUE) {
+                throw this.error("The number is too large");
+            }
+        }
+        return (int) number;
+    }
+
+    void startToken() {
+        this.tokenLength = 0;
+    }
+
+    void appendToToken(final int value) {
+        if (this.tokenLength == this.token.length) {
+            this.token = Arrays.copyOf(this.token, this.tokenLength * 2);
+        }
+        this.token[this.tokenLength++] = (byte) value;
+    }
+
+    int getTokenLength() {
+        return this.tokenLength;
+    }
+
+    String getToken() {
+        return new String(this.token, 0, this.tokenLength, StandardCharsets.UTF_8);
+    }
+
+    TransitionSystemException error(final String message) {
+        return new TransitionSystemException(String.format("%s in line %d!", message, this.line));
+    }
+
+    static String describe(final int value) {
+        return value == END ? "the end of the input" : String.format("'%c'", (char) value);
+    }
+
+    private static boolean isDigit(final int value) {
+        return value >= '0' && value <= '9';
+    }
+
+    private boolean fill() throws IOException {
+        this.buffer.clear();
+        int count;
+        do {
+            count = this.channel.read(this.buffer);
+        } while (count == 0);
+        this.buffer.flip();
+        return count > 0;
+    }
+}
@@ -0,0 +1,97 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.TSMorphism;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the transitions of systems and the mappings of morphisms as comma separated values (RFC 4180) with a
+ * header line. Elements are written one at a time, so the memory used does not depend on the size of the system.
+ */
+public final class CsvExporter {
+
+    private static final String LINE_END = "\r\n";
+
+    private CsvExporter() {
+    }
+
+    /**
+     * Writes one line "source,label,target" for each transition. The writer is flushed but not closed.
+     */
+    public static void write(final TransitionSystem system, final Writer writer) throws IOException {
+        final var out = new BufferedWriter(writer);
+        out.write("source,label,target" + LINE_END);
+        for (final Transition transition : system.getTransitions()) {
+            writeTransition(out, transition);
+            out.write(LINE_END);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the system to the given channel as UTF-8. The channel is not closed.
+     */
+    public static void write(final TransitionSystem system, final WritableByteChannel channel) throws IOException {
+        write(system, Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes one line for each state and each transition of the source with its image.
+     * States only use the source and image source columns. The writer is flushed but not closed.
+     */
+    public static void write(final TSMorphism morphism, final Writer writer) throws IOException {
+        final var out = new BufferedWriter(writer);
+        out.write("element,source,label,target,image source,image label,image target" + LINE_END);
+        for (final State state : morphism.getSource().getStates()) {
+            out.write("state,");
+            writeField(out, state.getName());
+            out.write(",,,");
+            writeField(out, morphism.mapState(state).getName());
+            out.write(",," + LINE_END);
+        }
+        for (final Transition transition : morphism.getSource().getTransitions()) {
+            out.write("transition,");
+            writeTransition(out, transition);
+            out.write(',');
+            writeTransition(out, morphism.mapTransition(transition));
+            out.write(LINE_END);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the mapping of the morphism to the given channel as UTF-8. The channel is not closed.
+     */
+    public static void write(final TSMorphism morphism, final WritableByteChannel channel) throws IOException {
+        write(morphism, Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    private static void writeTransition(final Writer out, final Transition transition) throws IOException {
+        writeField(out, transition.getSource().getName());
+        out.write(',');
+        writeField(out, transition.getLabel());
+        out.write(',');
+        writeField(out, transition.getTarget().getName());
+    }
+
+    /**
+     * Writes the field and quotes it if it contains commas, quotes or line breaks.
+     */
+    private static void writeField(final Writer out, final String field) throws IOException {
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        out.write(field.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
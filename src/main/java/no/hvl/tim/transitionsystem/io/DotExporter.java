@@ -0,0 +1,80 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes systems as directed graphs in the DOT language, which can be read by {@link DotImporter}.
+ * The start state is marked by an edge from the point node {@value DotImporter#START_NODE}, so no state may have
+ * this name.
+ * Names and labels are quoted, where quotes and backslashes are escaped by a backslash.
+ * Elements are written one at a time, so the memory used does not depend on the size of the system.
+ */
+public final class DotExporter {
+
+    private DotExporter() {
+    }
+
+    /**
+     * Writes the system to the given writer, which is flushed but not closed.
+     * Throws a {@link TransitionSystemException} before writing anything if a state is named
+     * {@value DotImporter#START_NODE}.
+     */
+    public static void write(final TransitionSystem system, final Writer writer) throws IOException {
+        if (system.getStates().contains(new State(DotImporter.START_NODE))) {
+            throw new TransitionSystemException(String.format(
+                    "The state %s cannot be written, since it would be read as the start marker!",
+                    DotImporter.START_NODE));
+        }
+        final var out = new BufferedWriter(writer);
+        out.write("digraph {\n");
+        out.write("    " + DotImporter.START_NODE + " [shape=point];\n");
+        out.write("    " + DotImporter.START_NODE + " -> ");
+        writeId(out, system.getStartState().getName());
+        out.write(";\n");
+        for (final State state : system.getStates()) {
+            out.write("    ");
+            writeId(out, state.getName());
+            out.write(";\n");
+        }
+        for (final Transition transition : system.getTransitions()) {
+            out.write("    ");
+            writeId(out, transition.getSource().getName());
+            out.write(" -> ");
+            writeId(out, transition.getTarget().getName());
+            out.write(" [label=");
+            writeId(out, transition.getLabel());
+            out.write("];\n");
+        }
+        out.write("}\n");
+        out.flush();
+    }
+
+    /**
+     * Writes the system to the given channel as UTF-8. The channel is not closed.
+     */
+    public static void write(final TransitionSystem system, final WritableByteChannel channel) throws IOException {
+        write(system, Channels.newWriter(channel, StandardCharsets.UTF_8));
+    }
+
+    private static void writeId(final Writer out, final String id) throws IOException {
+        out.write('"');
+        for (int index = 0; index < id.length(); index++) {
+            final char character = id.charAt(index);
+            if (character == '"' || character == '\\') {
+                out.write('\\');
+            }
+            out.write(character);
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,379 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.CompactTransitionSystem;
+import no.hvl.tim.transitionsystem.Symbol;
+import no.hvl.tim.transitionsystem.SymbolTable;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.builder.CompactTransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Imports systems from directed graphs in the DOT language in one pass, e.g.,
+ * <pre>
+ * digraph {
+ *     __start -&gt; s0;
+ *     s0 -&gt; s1 [label="a"];
+ *     s1 -&gt; s0 [label="b"];
+ * }
+ * </pre>
+ * Nodes are states named by their ID and edges are transitions labeled by their "label" attribute
+ * (edges without label get the label of the last {@code edge [label=...]} statement or the empty label). The start state is the target of the edge from the node
+ * {@value #START_NODE}, which is not a state itself, or the first state otherwise.
+ * In quoted IDs, {@code \"} and {@code \\} stand for a quote and a backslash, other backslashes are kept.
+ * Subgraphs, ports and HTML IDs are not supported. Other attributes are ignored.
+ */
+public final class DotImporter {
+
+    /**
+     * Name of the node which points to the start state.
+     */
+    public static final String START_NODE = "__start";
+
+    private static final String LABEL_ATTRIBUTE = "label";
+
+    private enum Token { ID, OPEN_BRACE, CLOSE_BRACE, OPEN_BRACKET, CLOSE_BRACKET, SEMICOLON, COMMA, EQUALS, ARROW, END }
+
+    private final ChannelInput input;
+    private final TransitionSink sink;
+    private final SymbolTable symbolTable = SymbolTable.getGlobal();
+    private final Symbol startNode;
+    private final Symbol emptyLabel;
+
+    private Token pushedBack;
+    private String text;
+    private Symbol firstState;
+    // Label of edges without label attribute
+    private Symbol defaultEdgeLabel;
+    private boolean startStateFound;
+
+    private DotImporter(final ReadableByteChannel channel, final TransitionSink sink) {
+        this.input = new ChannelInput(channel);
+        this.sink = sink;
+        this.startNode = this.symbolTable.intern(START_NODE);
+        this.emptyLabel = this.symbolTable.intern("");
+        this.defaultEdgeLabel = this.emptyLabel;
+    }
+
+    /**
+     * Reads the graph from the given channel and passes its states and transitions to the given sink.
+     */
+    public static void read(final ReadableByteChannel channel, final TransitionSink sink) throws IOException {
+        new DotImporter(channel, sink).read();
+    }
+
+    /**
+     * Reads the system with implicit idle transitions labeled {@link TransitionSystem#IDLE_LABEL}, which are needed
+     * to calculate pullbacks. Idle transitions in the graph are implied.
+     */
+    public static TransitionSystem read(final ReadableByteChannel channel) throws IOException {
+        return read(channel, true);
+    }
+
+    /**
+     * Reads the system with implicit idle transitions labeled {@link TransitionSystem#IDLE_LABEL} if requested,
+     * otherwise only with the transitions in the file.
+     */
+    public static TransitionSystem read(final ReadableByteChannel channel, final boolean implicitIdleTransitions)
+            throws IOException {
+        final var builder = new TransitionSystemBuilder();
+        read(channel, TransitionSink.of(builder));
+        return implicitIdleTransitions ? builder.buildWithImplicitIdleTransitions() : builder.build();
+    }
+
+    public static CompactTransitionSystem readCompact(final ReadableByteChannel channel) throws IOException {
+        final var builder = new CompactTransitionSystemBuilder();
+        read(channel, TransitionSink.of(builder));
+        return builder.build();
+    }
+
+    private void read() throws IOException {
+        Token token = this.next();
+        if (token == Token.ID && this.text.equalsIgnoreCase("strict")) {
+            token = this.next();
+        }
+        if (token != Token.ID || !this.text.equalsIgnoreCase("digraph")) {
+            throw this.input.error("Expected a digraph");
+        }
+        token = this.next();
+        if (token == Token.ID) {
+            // Name of the graph
+            token = this.next();
+        }
+        this.expect(token, Token.OPEN_BRACE);
+        while ((token = this.next()) != Token.CLOSE_BRACE) {
+            if (token == Token.SEMICOLON || token == Token.COMMA) {
+                continue;
+            }
+            this.expect(token, Token.ID);
+            this.readStatement();
+        }
+        if (this.next() != Token.END) {
+            throw this.input.error("Expected the end of the input after the graph");
+        }
+        if (!this.startStateFound) {
+            if (this.firstState == null) {
+                throw this.input.error("The graph has no states");
+            }
+            this.sink.startState(this.firstState);
+        }
+    }
+
+    /**
+     * Reads the statement starting with the current ID.
+     */
+    private void readStatement() throws IOException {
+        final String first = this.text;
+        if (first.equalsIgnoreCase("subgraph")) {
+            throw this.input.error("Subgraphs are not supported");
+        }
+        final Token token = this.next();
+        if (token == Token.EQUALS) {
+            // Graph attribute
+            this.expect(this.next(), Token.ID);
+            return;
+        }
+        if (token == Token.OPEN_BRACKET && first.equalsIgnoreCase("edge")) {
+            // Default attributes of the following edges
+            this.defaultEdgeLabel = this.readLabelAttribute(this.defaultEdgeLabel);
+            return;
+        }
+        if (token == Token.OPEN_BRACKET && (first.equalsIgnoreCase("graph") || first.equalsIgnoreCase("node"))) {
+            // Default attributes, whose labels are not used
+            this.readLabelAttribute(this.emptyLabel);
+            return;
+        }
+        final Symbol source = this.symbolTable.intern(first);
+        if (token == Token.ARROW) {
+            this.readEdges(source);
+            return;
+        }
+        // Node statement
+        this.state(source);
+        if (token == Token.OPEN_BRACKET) {
+            this.readLabelAttribute(this.emptyLabel);
+        } else {
+            this.pushedBack = token;
+        }
+    }
+
+    /**
+     * Reads an edge chain like "a -&gt; b -&gt; c [label=x]" after the first arrow.
+     */
+    private void readEdges(final Symbol first) throws IOException {
+        Symbol[] nodes = {first, null};
+        int count = 1;
+        Token token;
+        do {
+            this.expect(this.next(), Token.ID);
+            if (count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+            }
+            nodes[count++] = this.symbolTable.intern(this.text);
+            token = this.next();
+        } while (token == Token.ARROW);
+
+        Symbol label = this.defaultEdgeLabel;
+        if (token == Token.OPEN_BRACKET) {
+            label = this.readLabelAttribute(label);
+        } else {
+            this.pushedBack = token;
+        }
+        for (int node = 0; node + 1 < count; node++) {
+            if (nodes[node] == this.startNode) {
+                this.state(nodes[node + 1]);
+                this.sink.startState(nodes[node + 1]);
+                this.startStateFound = true;
+            } else {
+                this.state(nodes[node]);
+                this.state(nodes[node + 1]);
+                this.sink.transition(nodes[node], label, nodes[node + 1]);
+            }
+        }
+    }
+
+    /**
+     * Reads attribute lists after the first opening bracket and returns the label symbol or the given default label.
+     */
+    private Symbol readLabelAttribute(final Symbol defaultLabel) throws IOException {
+        Symbol label = defaultLabel;
+        Token token = Token.OPEN_BRACKET;
+        while (token == Token.OPEN_BRACKET) {
+            while ((token = this.next()) != Token.CLOSE_BRACKET) {
+                if (token == Token.COMMA || token == Token.SEMICOLON) {
+                    continue;
+                }
+                this.expect(token, Token.ID);
+                final String name = this.text;
+                this.expect(this.next(), Token.EQUALS);
+                this.expect(this.next(), Token.ID);
+                if (name.equals(LABEL_ATTRIBUTE)) {
+                    label = this.symbolTable.intern(this.text);
+                }
+            }
+            token = this.next();
+        }
+        this.pushedBack = token;
+        return label;
+    }
+
+    private void state(final Symbol state) {
+        if (state == this.startNode) {
+            return;
+        }
+        if (this.firstState == null) {
+            this.firstState = state;
+        }
+        this.sink.state(state);
+    }
+
+    private void expect(final Token actual, final Token expected) {
+        if (actual != expected) {
+            throw this.input.error(String.format("Expected %s but found %s", expected, actual));
+        }
+    }
+
+    /**
+     * Reads the next token. The text of IDs is stored in {@link #text}.
+     */
+    private Token next() throws IOException {
+        if (this.pushedBack != null) {
+            final Token token = this.pushedBack;
+            this.pushedBack = null;
+            return token;
+        }
+        this.skipWhitespaceAndComments();
+        final int next = this.input.peek();
+        switch (next) {
+            case ChannelInput.END:
+                return Token.END;
+            case '{':
+                this.input.read();
+                return Token.OPEN_BRACE;
+            case '}':
+                this.input.read();
+                return Token.CLOSE_BRACE;
+            case '[':
+                this.input.read();
+                return Token.OPEN_BRACKET;
+            case ']':
+                this.input.read();
+                return Token.CLOSE_BRACKET;
+            case ';':
+                this.input.read();
+                return Token.SEMICOLON;
+            case ',':
+                this.input.read();
+                return Token.COMMA;
+            case '=':
+                this.input.read();
+                return Token.EQUALS;
+            case '"':
+                this.readQuotedId();
+                return Token.ID;
+            default:
+                break;
+        }
+        this.input.startToken();
+        if (next == '-') {
+            this.input.read();
+            if (this.input.peek() == '>') {
+                this.input.read();
+                return Token.ARROW;
+            }
+            if (this.input.peek() == '-') {
+                throw this.input.error("Undirected edges are not supported");
+            }
+            // Negative numeral
+            this.input.appendToToken('-');
+        }
+        while (isIdCharacter(this.input.peek())) {
+            this.input.appendToToken(this.input.read());
+        }
+        if (this.input.getTokenLength() == 0) {
+            throw this.input.error(String.format("Unexpected %s", ChannelInput.describe(next)));
+        }
+        this.text = this.input.getToken();
+        return Token.ID;
+    }
+
+    private void readQuotedId() throws IOException {
+        this.input.read();
+        this.input.startToken();
+        int next;
+        while ((next = this.input.read()) != '"') {
+            if (next == ChannelInput.END) {
+                throw this.input.error("Unterminated string");
+            }
+            if (next == '\\') {
+                final int escaped = this.input.read();
+                if (escaped == ChannelInput.END) {
+                    throw this.input.error("Unterminated string");
+                }
+                if (escaped == '\n') {
+                    // Line continuation
+                    continue;
+                }
+                if (escaped != '"' && escaped != '\\') {
+                    this.input.appendToToken('\\');
+                }
+                next = escaped;
+            }
+            this.input.appendToToken(next);
+        }
+        this.text = this.input.getToken();
+    }
+
+    private void skipWhitespaceAndComments() throws IOException {
+        while (true) {
+            this.input.skipWhitespace();
+            final int next = this.input.peek();
+            if (next == '#') {
+                this.skipLine();
+            } else if (next == '/') {
+                this.input.read();
+                final int second = this.input.read();
+                if (second == '/') {
+                    this.skipLine();
+                } else if (second == '*') {
+                    this.skipBlockComment();
+                } else {
+                    throw this.input.error(String.format("Unexpected %s after '/'", ChannelInput.describe(second)));
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int next;
+        do {
+            next = this.input.read();
+        } while (next != '\n' && next != ChannelInput.END);
+    }
+
+    private void skipBlockComment() throws IOException {
+        int previous = 0;
+        int next;
+        while ((next = this.input.read()) != ChannelInput.END) {
+            if (previous == '*' && next == '/') {
+                return;
+            }
+            previous = next;
+        }
+        throw this.input.error("Unterminated comment");
+    }
+
+    private static boolean isIdCharacter(final int value) {
+        return value >= 'a' && value <= 'z'
+                || value >= 'A' && value <= 'Z'
+                || value >= '0' && value <= '9'
+                || value == '_'
+                || value == '.'
+                || value >= 0x80;
+    }
+}
@@ -0,0 +1,73 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.Symbol;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.builder.CompactTransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+/**
+ * Receives the states and transitions of a system while it is imported.
+ * Names and labels are passed as their {@link Symbol}s.
+ */
+public interface TransitionSink {
+
+    /**
+     * Passes a state, which may be passed more than once.
+     */
+    void state(Symbol state);
+
+    /**
+     * Sets the start state, which may be called before or after the state was passed otherwise.
+     */
+    void startState(Symbol state);
+
+    void transition(Symbol source, Symbol label, Symbol target);
+
+    /**
+     * Returns a sink which adds everything to the given builder.
+     */
+    static TransitionSink of(final TransitionSystemBuilder builder) {
+        return new TransitionSink() {
+            @Override
+            public void state(final Symbol state) {
+                builder.addState(new State(state));
+            }
+
+            @Override
+            public void startState(final Symbol state) {
+                builder.startState(new State(state));
+            }
+
+            @Override
+            public void transition(final Symbol source, final Symbol label, final Symbol target) {
+                builder.addTransition(new Transition(new State(source), new State(target), label));
+            }
+        };
+    }
+
+    /**
+     * Returns a sink which adds everything to the given builder without creating state or transition objects.
+     */
+    static TransitionSink of(final CompactTransitionSystemBuilder builder) {
+        return new TransitionSink() {
+            @Override
+            public void state(final Symbol state) {
+                builder.addStateSymbol(state);
+            }
+
+            @Override
+            public void startState(final Symbol state) {
+                builder.startState(builder.addStateSymbol(state));
+            }
+
+            @Override
+            public void transition(final Symbol source, final Symbol label, final Symbol target) {
+                builder.addTransition(
+                        builder.addStateSymbol(source),
+                        builder.addLabelSymbol(label),
+                        builder.addStateSymbol(target));
+            }
+        };
+    }
+}
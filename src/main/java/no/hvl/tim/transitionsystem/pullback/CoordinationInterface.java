@@ -0,0 +1,280 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import com.google.common.collect.Multimap;
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.Symbol;
+import no.hvl.tim.transitionsystem.SymbolTable;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+import no.hvl.tim.transitionsystem.UnionFind;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.util.*;
+
+/**
+ * Calculates the coordination interface of two transition systems and their interactions.
+ * The states of both systems are collapsed into equivalence classes using a union-find structure:
+ * the start states, the sources and the targets of interacting transitions are merged pairwise and
+ * non-interacting transitions collapse their source and target state. Each class becomes one state of the
+ * coordination interface, which is named after the first pair of states merged into it (start states first,
+ * then the interactions in their order).
+ * <p>
+ * Interactions form a relation, i.e., a transition can interact with several transitions of the other system.
+ * Transitions which are connected by interactions are grouped and the group becomes one transition of the
+ * coordination interface. Its label is the pair of the labels of both sides, where several labels of one side
+ * are combined into a {@link SymbolTable.TupleKind#GROUP}, e.g., "&lt;a, {b, c}&gt;".
+ * Since the pullback synchronises every pair of transitions over the same interface transition, each transition
+ * of a group must interact with every transition of the other side in the group. Otherwise, e.g., for the
+ * interactions (a, b), (a, c) and (d, c), the pullback would contain the unrequested pair (d, b), so such
+ * relations are rejected.
+ */
+class CoordinationInterface {
+
+    private final TransitionSystem ts1;
+    private final TransitionSystem ts2;
+    private final Multimap<Transition, Transition> interactions;
+    // States of ts1 have their ids, states of ts2 their ids shifted by the number of states of ts1.
+    private final UnionFind stateClasses;
+    // The interface state for each class representative.
+    private final State[] classStates;
+    private final TransitionSystemBuilder coordinationInterfaceBuilder = new TransitionSystemBuilder();
+
+    private CoordinationInterface(
+            final TransitionSystem ts1,
+            final TransitionSystem ts2,
+            final Multimap<Transition, Transition> interactions) {
+        this.ts1 = ts1;
+        this.ts2 = ts2;
+        this.interactions = interactions;
+        final int stateCount = ts1.getStates().size() + ts2.getStates().size();
+        this.stateClasses = new UnionFind(stateCount);
+        this.classStates = new State[stateCount];
+    }
+
+    static Cospan calculate(
+            final TransitionSystem ts1,
+            final TransitionSystem ts2,
+            final Multimap<Transition, Transition> interactions) {
+        return new CoordinationInterface(ts1, ts2, interactions).calculate();
+    }
+
+    private Cospan calculate() {
+        this.checkInteractions();
+        this.collapseStates();
+
+        // Name the classes in the order of their first pair
+        final State startState = this.nameClass(this.ts1.getStartState(), this.ts2.getStartState());
+        this.coordinationInterfaceBuilder.startState(startState);
+        this.interactions.forEach((ts1Transition, ts2Transition) -> {
+            this.nameClass(ts1Transition.getSource(), ts2Transition.getSource());
+            this.nameClass(ts1Transition.getTarget(), ts2Transition.getTarget());
+        });
+        this.checkAllStatesMapped();
+
+        // Synched transitions, one for each group of interacting transitions
+        final Map<Transition, Transition> ts1TransitionMapping = new LinkedHashMap<>();
+        final Map<Transition, Transition> ts2TransitionMapping = new LinkedHashMap<>();
+        for (final InteractionGroup group : this.groupInteractions()) {
+            final Transition representative = group.ts1Transitions.get(0);
+            final var combinedTransition = new Transition(
+                    this.classState(this.ts1Id(representative.getSource())),
+                    this.classState(this.ts1Id(representative.getTarget())),
+                    SymbolTable.getGlobal().internTuple(
+                            SymbolTable.TupleKind.LABEL,
+                            groupLabel(group.ts1Transitions),
+                            groupLabel(group.ts2Transitions)));
+            this.coordinationInterfaceBuilder.addTransition(combinedTransition);
+            group.ts1Transitions.forEach(ts1Transition -> ts1TransitionMapping.put(ts1Transition, combinedTransition));
+            group.ts2Transitions.forEach(ts2Transition -> ts2TransitionMapping.put(ts2Transition, combinedTransition));
+        }
+
+        final TransitionSystem coordinationInterface;
+        if (this.ts1.hasImplicitIdleTransitions() && this.ts2.hasImplicitIdleTransitions()) {
+            coordinationInterface = this.coordinationInterfaceBuilder.buildWithImplicitIdleTransitions();
+        } else {
+            coordinationInterface = this.coordinationInterfaceBuilder.buildWithIdleTransitions();
+        }
+
+        // Build morphisms. Non-interacting transitions are mapped to idle transitions.
+        final TSMorphismBuilder ts1MappingBuilder = new TSMorphismBuilder()
+                .source(this.ts1)
+                .target(coordinationInterface);
+        this.ts1.getStates().forEach(state ->
+                ts1MappingBuilder.addStateMapping(state, this.classState(this.ts1Id(state))));
+        ts1TransitionMapping.forEach(ts1MappingBuilder::addTransitionMapping);
+
+        final TSMorphismBuilder ts2MappingBuilder = new TSMorphismBuilder()
+                .source(this.ts2)
+                .target(coordinationInterface);
+        this.ts2.getStates().forEach(state ->
+                ts2MappingBuilder.addStateMapping(state, this.classState(this.ts2Id(state))));
+        ts2TransitionMapping.forEach(ts2MappingBuilder::addTransitionMapping);
+
+        return new Cospan(ts1MappingBuilder.buildWithIdleTransitions(), ts2MappingBuilder.buildWithIdleTransitions());
+    }
+
+    private void checkInteractions() {
+        final List<Map.Entry<Transition, Transition>> invalidInteractions = new ArrayList<>();
+        this.interactions.entries().forEach(interaction -> {
+            if (this.ts1.getTransitionId(interaction.getKey()) < 0
+                    || this.ts2.getTransitionId(interaction.getValue()) < 0) {
+                invalidInteractions.add(interaction);
+            }
+        });
+        if (!invalidInteractions.isEmpty()) {
+            throw new TransitionSystemException(String.format(
+                    "Interactions must be contained in transition systems! Invalid interactions: %s",
+                    invalidInteractions));
+        }
+    }
+
+    private void collapseStates() {
+        this.stateClasses.union(this.ts1Id(this.ts1.getStartState()), this.ts2Id(this.ts2.getStartState()));
+        this.interactions.forEach((ts1Transition, ts2Transition) -> {
+            this.stateClasses.union(this.ts1Id(ts1Transition.getSource()), this.ts2Id(ts2Transition.getSource()));
+            this.stateClasses.union(this.ts1Id(ts1Transition.getTarget()), this.ts2Id(ts2Transition.getTarget()));
+        });
+        final Set<Transition> ts2InteractingTransitions = new HashSet<>(this.interactions.values());
+        for (final Transition transition : this.ts1.getTransitions()) {
+            if (!this.interactions.containsKey(transition)) {
+                this.stateClasses.union(this.ts1Id(transition.getSource()), this.ts1Id(transition.getTarget()));
+            }
+        }
+        for (final Transition transition : this.ts2.getTransitions()) {
+            if (!ts2InteractingTransitions.contains(transition)) {
+                this.stateClasses.union(this.ts2Id(transition.getSource()), this.ts2Id(transition.getTarget()));
+            }
+        }
+    }
+
+    /**
+     * Groups the interacting transitions into the connected components of the interaction relation in one pass
+     * over the interactions. Groups are ordered by their first interaction and the transitions of a group by their first interaction.
+     */
+    private Collection<InteractionGroup> groupInteractions() {
+        // Transitions of ts1 have their ids, transitions of ts2 their ids shifted by the number of transitions of ts1.
+        final int ts1TransitionCount = this.ts1.getTransitions().size();
+        final UnionFind transitionGroups = new UnionFind(ts1TransitionCount + this.ts2.getTransitions().size());
+        this.interactions.forEach((ts1Transition, ts2Transition) -> transitionGroups.union(
+                this.ts1.getTransitionId(ts1Transition),
+                ts1TransitionCount + this.ts2.getTransitionId(ts2Transition)));
+
+        final Map<Integer, InteractionGroup> groups = new LinkedHashMap<>();
+        final Set<Transition> seenTs1Transitions = new HashSet<>();
+        final Set<Transition> seenTs2Transitions = new HashSet<>();
+        final Set<Map.Entry<Transition, Transition>> seenInteractions = new HashSet<>();
+        this.interactions.entries().forEach(interaction -> {
+            final Transition ts1Transition = interaction.getKey();
+            final Transition ts2Transition = interaction.getValue();
+            final InteractionGroup group = groups.computeIfAbsent(
+                    transitionGroups.find(this.ts1.getTransitionId(ts1Transition)),
+                    representative -> new InteractionGroup());
+            if (seenTs1Transitions.add(ts1Transition)) {
+                group.ts1Transitions.add(ts1Transition);
+            }
+            if (seenTs2Transitions.add(ts2Transition)) {
+                group.ts2Transitions.add(ts2Transition);
+            }
+            if (seenInteractions.add(interaction)) {
+                group.interactionCount++;
+            }
+        });
+        this.checkGroupsComplete(groups.values());
+        return groups.values();
+    }
+
+    /**
+     * Throws an exception listing all missing interactions if a group does not relate each of its transitions of
+     * ts1 to each of its transitions of ts2.
+     */
+    private void checkGroupsComplete(final Collection<InteractionGroup> groups) {
+        final List<String> missingInteractions = new ArrayList<>();
+        for (final InteractionGroup group : groups) {
+            if ((long) group.ts1Transitions.size() * group.ts2Transitions.size() == group.interactionCount) {
+                continue;
+            }
+            for (final Transition ts1Transition : group.ts1Transitions) {
+                for (final Transition ts2Transition : group.ts2Transitions) {
+                    if (!this.interactions.containsEntry(ts1Transition, ts2Transition)) {
+                        missingInteractions.add(ts1Transition + " with " + ts2Transition);
+                    }
+                }
+            }
+        }
+        if (!missingInteractions.isEmpty()) {
+            throw new TransitionSystemException(String.format(
+                    "Interacting transitions must interact with all transitions of the other side they are "
+                            + "connected to! Missing interactions: %s",
+                    missingInteractions));
+        }
+    }
+
+    /**
+     * Returns the label of the given transitions, combined into a group if they have different labels.
+     */
+    private static Symbol groupLabel(final List<Transition> transitions) {
+        final Symbol[] labels = transitions.stream().map(Transition::getLabelSymbol).distinct().toArray(Symbol[]::new);
+        if (labels.length == 1) {
+            return labels[0];
+        }
+        return SymbolTable.getGlobal().internTuple(SymbolTable.TupleKind.GROUP, labels);
+    }
+
+    /**
+     * Creates the interface state for the class of the given pair of states if it has none yet.
+     */
+    private State nameClass(final State ts1State, final State ts2State) {
+        final int representative = this.stateClasses.find(this.ts1Id(ts1State));
+        if (this.classStates[representative] == null) {
+            final var compositeState = State.tuple(ts1State, ts2State);
+            this.classStates[representative] = compositeState;
+            this.coordinationInterfaceBuilder.addState(compositeState);
+        }
+        return this.classStates[representative];
+    }
+
+    /**
+     * Throws an exception listing all states which are not connected to the start states or an interaction.
+     */
+    private void checkAllStatesMapped() {
+        final List<State> unmappedStates = new ArrayList<>();
+        for (final State state : this.ts1.getStates()) {
+            if (this.classState(this.ts1Id(state)) == null) {
+                unmappedStates.add(state);
+            }
+        }
+        for (final State state : this.ts2.getStates()) {
+            if (this.classState(this.ts2Id(state)) == null) {
+                unmappedStates.add(state);
+            }
+        }
+        if (!unmappedStates.isEmpty()) {
+            throw new TransitionSystemException(String.format(
+                    "The states %s are neither connected to the start states nor to an interaction!",
+                    unmappedStates));
+        }
+    }
+
+    private State classState(final int stateId) {
+        return this.classStates[this.stateClasses.find(stateId)];
+    }
+
+    private int ts1Id(final State state) {
+        return this.ts1.getStateId(state);
+    }
+
+    private int ts2Id(final State state) {
+        return this.ts1.getStates().size() + this.ts2.getStateId(state);
+    }
+
+    /**
+     * Transitions of both systems which are connected by interactions.
+     */
+    private static class InteractionGroup {
+        private final List<Transition> ts1Transitions = new ArrayList<>();
+        private final List<Transition> ts2Transitions = new ArrayList<>();
+        private int interactionCount;
+    }
+}
@@ -0,0 +1,745 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import no.hvl.tim.transitionsystem.*;
+
+import java.util.*;
+
+/**
+ * A pullback which is kept up to date while the systems of the cospan legs are edited.
+ * The fibers of both legs and the pairs of the pullback are indexed, so a delta (adding or removing a state or
+ * a transition, or changing the image of a transition) only creates or removes the affected pullback states and
+ * transitions. The target of the cospan is fixed.
+ * <p>
+ * The pullback states and transitions which were added or removed by the deltas are collected until they are
+ * taken with {@link #pollChanges()}, so readers can follow the pullback in time proportional to the changes.
+ * <p>
+ * States and transitions are kept in slots together with the slots of their images (or components), which are
+ * updated by the deltas. Since systems are immutable, {@link #snapshot()} and {@link #getCospan()} copy the states
+ * and transitions into new systems and the slots into the image arrays of the morphisms. This is linear in the size
+ * of the pullback, but does neither match fibers nor create tuple names like {@link PullbackResult#calculate(Cospan)},
+ * so it takes a fraction of a full calculation. Several deltas between two snapshots are copied once.
+ * Instances are not thread-safe.
+ */
+public class IncrementalPullback {
+
+    /**
+     * The legs of the cospan.
+     */
+    public enum Leg {
+        I1, I2;
+
+        private Leg other() {
+            return this == I1 ? I2 : I1;
+        }
+    }
+
+    private final TransitionSystem target;
+    private final EnumMap<Leg, LegIndex> legs = new EnumMap<>(Leg.class);
+    private final Symbol implicitIdleLabel;
+    // Id of the idle transition of each target state, calculated on first use
+    private int[] targetIdleTransitionIds;
+
+    // Pullback states with the slots of their components in both legs and pullback transitions with the codes of
+    // their components (see LegIndex#transitionCode)
+    private final StatePairIndex stateIndex = new StatePairIndex();
+    private final Slots<State> pullbackStates = new Slots<>();
+    private final Slots<Transition> pullbackTransitions = new Slots<>();
+
+    // Pullback states and transitions added or removed since the last poll. Removing an element which was added
+    // since then (or the other way round) cancels out, so they never hold more than the current and the polled
+    // pullback.
+    private Set<State> addedStates = new LinkedHashSet<>();
+    private Set<State> removedStates = new LinkedHashSet<>();
+    private Set<Transition> addedTransitions = new LinkedHashSet<>();
+    private Set<Transition> removedTransitions = new LinkedHashSet<>();
+
+    private Cospan cospan;
+    private PullbackResult result;
+
+    public IncrementalPullback(final Cospan input) {
+        this.target = input.getI1().getTarget();
+        this.legs.put(Leg.I1, new LegIndex(input.getI1().getSource()));
+        this.legs.put(Leg.I2, new LegIndex(input.getI2().getSource()));
+        this.implicitIdleLabel = PullbackResult.implicitIdleLabel(input);
+        if (!input.getI1().mapState(input.getI1().getSource().getStartState())
+                .equals(input.getI2().mapState(input.getI2().getSource().getStartState()))) {
+            throw new TransitionSystemException("Start state mappings do not match in pullback calculation!");
+        }
+        for (final Leg leg : Leg.values()) {
+            final TSMorphism morphism = leg == Leg.I1 ? input.getI1() : input.getI2();
+            final TransitionSystem system = morphism.getSource();
+            system.getStates().forEach(state -> this.addState(leg, state, morphism.mapState(state)));
+            system.getStoredTransitions()
+                    .forEach(transition -> this.addTransition(leg, transition, morphism.mapTransition(transition)));
+        }
+        this.cospan = input;
+        this.pollChanges();
+    }
+
+    /**
+     * Adds a state with the given image to the system of the given leg.
+     */
+    public void addState(final Leg leg, final State state, final State image) {
+        final LegIndex index = this.legs.get(leg);
+        if (index.states.contains(state)) {
+            throw new TransitionSystemException(String.format("The state %s already exists!", state));
+        }
+        final int imageId = this.target.getStateId(image);
+        if (imageId < 0) {
+            throw new TransitionSystemException(String.format("The state %s is not part of the target!", image));
+        }
+        this.changed();
+        index.states.add(state, imageId, 0);
+        index.stateFibers.computeIfAbsent(image, key -> new LinkedHashSet<>()).add(state);
+        for (final State otherState : this.legs.get(leg.other()).stateFibers.getOrDefault(image, Set.of())) {
+            if (leg == Leg.I1) {
+                this.createPullbackState(state, otherState);
+            } else {
+                this.createPullbackState(otherState, state);
+            }
+        }
+        if (index.implicitIdleLabel != null) {
+            this.pairTransition(leg, index.implicitIdleTransition(state), this.targetIdleTransition(image));
+        }
+    }
+
+    /**
+     * Removes a state and all its transitions from the system of the given leg.
+     */
+    public void removeState(final Leg leg, final State state) {
+        final LegIndex index = this.legs.get(leg);
+        final State image = index.stateImage(state);
+        if (image == null) {
+            throw new TransitionSystemException(String.format("The state %s does not exist!", state));
+        }
+        if (state.equals(index.startState)) {
+            throw new TransitionSystemException(String.format("The start state %s cannot be removed!", state));
+        }
+        this.changed();
+        new ArrayList<>(index.adjacentTransitions.getOrDefault(state, Set.of()))
+                .forEach(transition -> this.removeTransition(leg, transition));
+        if (index.implicitIdleLabel != null) {
+            this.unpairTransition(leg, index.implicitIdleTransition(state));
+        }
+        final LegIndex i1Index = this.legs.get(Leg.I1);
+        final LegIndex i2Index = this.legs.get(Leg.I2);
+        for (final State pullbackState : new ArrayList<>(index.pullbackStates.getOrDefault(state, Set.of()))) {
+            final int slot = this.pullbackStates.remove(pullbackState);
+            if (!this.addedStates.remove(pullbackState)) {
+                this.removedStates.add(pullbackState);
+            }
+            final State i1State = i1Index.states.get(this.pullbackStates.getFirst(slot));
+            final State i2State = i2Index.states.get(this.pullbackStates.getSecond(slot));
+            this.stateIndex.remove(i1State, i2State);
+            i1Index.pullbackStates.get(i1State).remove(pullbackState);
+            i2Index.pullbackStates.get(i2State).remove(pullbackState);
+        }
+        index.pullbackStates.remove(state);
+        index.stateFibers.get(image).remove(state);
+        index.states.remove(state);
+    }
+
+    /**
+     * Adds a transition with the given image to the system of the given leg.
+     * Its states must exist and be mapped to the states of the image.
+     */
+    public void addTransition(final Leg leg, final Transition transition, final Transition image) {
+        final LegIndex index = this.legs.get(leg);
+        if (index.transitions.contains(transition)) {
+            throw new TransitionSystemException(String.format("The transition %s already exists!", transition));
+        }
+        this.checkTransitionImage(index, transition, image);
+        this.changed();
+        index.transitions.add(transition, this.target.getTransitionId(image), 0);
+        index.transitionFibers.computeIfAbsent(image, key -> new LinkedHashSet<>()).add(transition);
+        index.adjacentTransitions.computeIfAbsent(transition.getSource(), key -> new LinkedHashSet<>()).add(transition);
+        index.adjacentTransitions.computeIfAbsent(transition.getTarget(), key -> new LinkedHashSet<>()).add(transition);
+        this.pairTransition(leg, transition, image);
+    }
+
+    /**
+     * Removes a transition from the system of the given leg.
+     */
+    public void removeTransition(final Leg leg, final Transition transition) {
+        final LegIndex index = this.legs.get(leg);
+        final int slot = index.transitions.getSlot(transition);
+        if (slot < 0) {
+            throw new TransitionSystemException(String.format("The transition %s does not exist!", transition));
+        }
+        final Transition image = this.target.getTransition(index.transitions.getFirst(slot));
+        this.changed();
+        this.unpairTransition(leg, transition);
+        index.transitions.remove(transition);
+        index.transitionFibers.get(image).remove(transition);
+        index.adjacentTransitions.get(transition.getSource()).remove(transition);
+        index.adjacentTransitions.get(transition.getTarget()).remove(transition);
+    }
+
+    /**
+     * Changes the image of a transition of the system of the given leg, e.g., to synchronise it.
+     */
+    public void remapTransition(final Leg leg, final Transition transition, final Transition image) {
+        this.checkTransitionImage(this.legs.get(leg), transition, image);
+        this.removeTransition(leg, transition);
+        this.addTransition(leg, transition, image);
+    }
+
+    /**
+     * Returns the current cospan.
+     */
+    public Cospan getCospan() {
+        if (this.cospan == null) {
+            this.rebuildCospan();
+        }
+        return this.cospan;
+    }
+
+    /**
+     * Returns the pullback states and transitions which were added or removed since the last call (or since the
+     * creation), without the implicit idle transitions of the pullback, which follow its states.
+     * Takes time proportional to the changes.
+     */
+    public Changes pollChanges() {
+        final var changes = new Changes(
+                this.addedStates,
+                this.removedStates,
+                this.addedTransitions,
+                this.removedTransitions);
+        this.addedStates = new LinkedHashSet<>();
+        this.removedStates = new LinkedHashSet<>();
+        this.addedTransitions = new LinkedHashSet<>();
+        this.removedTransitions = new LinkedHashSet<>();
+        return changes;
+    }
+
+    /**
+     * Returns the current pullback of the cospan as immutable systems and morphisms.
+     * The first call after a delta copies the whole pullback, see {@link #pollChanges()} to only read the changes.
+     */
+    public PullbackResult snapshot() {
+        if (this.result == null) {
+            this.rebuild();
+        }
+        return this.result;
+    }
+
+    private void changed() {
+        this.cospan = null;
+        this.result = null;
+        this.legs.values().forEach(index -> index.system = null);
+    }
+
+    private void checkTransitionImage(final LegIndex index, final Transition transition, final Transition image) {
+        if (this.target.getTransitionId(image) < 0) {
+            throw new TransitionSystemException(String.format("The transition %s is not part of the target!", image));
+        }
+        if (!image.getSource().equals(index.stateImage(transition.getSource()))
+                || !image.getTarget().equals(index.stateImage(transition.getTarget()))) {
+            throw new TransitionSystemException(String.format(
+                    "The states of the transition %s must exist and be mapped to the states of its image %s!",
+                    transition,
+                    image));
+        }
+    }
+
+    private void createPullbackState(final State i1State, final State i2State) {
+        final var pullbackState = State.tuple(i1State, i2State);
+        final LegIndex i1Index = this.legs.get(Leg.I1);
+        final LegIndex i2Index = this.legs.get(Leg.I2);
+        this.pullbackStates.add(pullbackState, i1Index.states.getSlot(i1State), i2Index.states.getSlot(i2State));
+        if (!this.removedStates.remove(pullbackState)) {
+            this.addedStates.add(pullbackState);
+        }
+        this.stateIndex.put(i1State, i2State, pullbackState);
+        i1Index.pullbackStates.computeIfAbsent(i1State, key -> new HashSet<>()).add(pullbackState);
+        i2Index.pullbackStates.computeIfAbsent(i2State, key -> new HashSet<>()).add(pullbackState);
+    }
+
+    /**
+     * Creates the pullback transitions of the given transition with all transitions of the other leg over the
+     * same image. Pairs of implicit idle transitions are implied by the pullback system and thus skipped.
+     */
+    private void pairTransition(final Leg leg, final Transition transition, final Transition image) {
+        final boolean implicitIdle = this.legs.get(leg).isImplicitIdleTransition(transition);
+        for (final Transition otherTransition : this.legs.get(leg.other()).transitionsOver(image, !implicitIdle)) {
+            if (leg == Leg.I1) {
+                this.createPullbackTransition(transition, otherTransition);
+            } else {
+                this.createPullbackTransition(otherTransition, transition);
+            }
+        }
+    }
+
+    private void createPullbackTransition(final Transition i1Transition, final Transition i2Transition) {
+        final var pullbackTransition = new Transition(
+                this.stateIndex.get(i1Transition.getSource(), i2Transition.getSource()),
+                this.stateIndex.get(i1Transition.getTarget(), i2Transition.getTarget()),
+                Transition.tupleLabel(i1Transition, i2Transition));
+        final LegIndex i1Index = this.legs.get(Leg.I1);
+        final LegIndex i2Index = this.legs.get(Leg.I2);
+        this.pullbackTransitions.add(
+                pullbackTransition,
+                i1Index.transitionCode(i1Transition),
+                i2Index.transitionCode(i2Transition));
+        if (!this.removedTransitions.remove(pullbackTransition)) {
+            this.addedTransitions.add(pullbackTransition);
+        }
+        i1Index.pullbackTransitions.computeIfAbsent(i1Transition, key -> new HashSet<>()).add(pullbackTransition);
+        i2Index.pullbackTransitions.computeIfAbsent(i2Transition, key -> new HashSet<>()).add(pullbackTransition);
+    }
+
+    /**
+     * Removes the pullback transitions which have the given transition as component.
+     */
+    private void unpairTransition(final Leg leg, final Transition transition) {
+        final Set<Transition> pullbackTransitions = this.legs.get(leg).pullbackTransitions.remove(transition);
+        if (pullbackTransitions == null) {
+            return;
+        }
+        final LegIndex otherIndex = this.legs.get(leg.other());
+        for (final Transition pullbackTransition : pullbackTransitions) {
+            final int slot = this.pullbackTransitions.remove(pullbackTransition);
+            if (!this.addedTransitions.remove(pullbackTransition)) {
+                this.removedTransitions.add(pullbackTransition);
+            }
+            final Transition otherTransition = otherIndex.decodeTransition(leg.other() == Leg.I1
+                    ? this.pullbackTransitions.getFirst(slot)
+                    : this.pullbackTransitions.getSecond(slot));
+            final Set<Transition> otherPullbackTransitions = otherIndex.pullbackTransitions.get(otherTransition);
+            otherPullbackTransitions.remove(pullbackTransition);
+            if (otherPullbackTransitions.isEmpty()) {
+                otherIndex.pullbackTransitions.remove(otherTransition);
+            }
+        }
+    }
+
+    private Transition targetIdleTransition(final State targetState) {
+        return this.target.getIdleTransition(targetState);
+    }
+
+    private boolean isTargetIdleTransition(final Transition transition) {
+        return transition.getSource().equals(transition.getTarget())
+                && (this.target.isImplicitIdleTransition(transition)
+                || transition.getLabelSymbol() == TransitionSystem.IDLE_LABEL_SYMBOL);
+    }
+
+    /**
+     * Returns the id of the idle transition of the target state with the given id.
+     */
+    private int targetIdleTransitionId(final int targetStateId) {
+        if (this.targetIdleTransitionIds == null) {
+            final int[] ids = new int[this.target.getStates().size()];
+            for (int stateId = 0; stateId < ids.length; stateId++) {
+                ids[stateId] = this.target.getTransitionId(this.targetIdleTransition(this.target.getState(stateId)));
+            }
+            this.targetIdleTransitionIds = ids;
+        }
+        return this.targetIdleTransitionIds[targetStateId];
+    }
+
+    private void rebuildCospan() {
+        this.compact();
+        this.cospan = new Cospan(this.legs.get(Leg.I1).snapshot(), this.legs.get(Leg.I2).snapshot());
+    }
+
+    private void rebuild() {
+        if (this.legs.get(Leg.I1).system == null) {
+            this.rebuildCospan();
+        }
+        final LegIndex i1Index = this.legs.get(Leg.I1);
+        final LegIndex i2Index = this.legs.get(Leg.I2);
+        final TransitionSystem pbSystem = new TransitionSystem(
+                this.stateIndex.get(i1Index.startState, i2Index.startState),
+                this.pullbackStates.toSet(),
+                this.pullbackTransitions.toSet(),
+                this.implicitIdleLabel);
+
+        final int[] m1StateImages = new int[this.pullbackStates.size()];
+        final int[] m2StateImages = new int[m1StateImages.length];
+        int id = 0;
+        for (int slot = 0; slot < this.pullbackStates.getEnd(); slot++) {
+            if (this.pullbackStates.get(slot) != null) {
+                m1StateImages[id] = i1Index.stateIds[this.pullbackStates.getFirst(slot)];
+                m2StateImages[id] = i2Index.stateIds[this.pullbackStates.getSecond(slot)];
+                id++;
+            }
+        }
+        final int[] m1TransitionImages = new int[pbSystem.getTransitions().size()];
+        final int[] m2TransitionImages = new int[m1TransitionImages.length];
+        id = 0;
+        for (int slot = 0; slot < this.pullbackTransitions.getEnd(); slot++) {
+            if (this.pullbackTransitions.get(slot) != null) {
+                m1TransitionImages[id] = i1Index.transitionId(this.pullbackTransitions.getFirst(slot));
+                m2TransitionImages[id] = i2Index.transitionId(this.pullbackTransitions.getSecond(slot));
+                id++;
+            }
+        }
+        // Implicit idle transitions of the pullback (if any) are mapped to the implicit idle transitions of the legs.
+        for (int stateId = 0; id < m1TransitionImages.length; stateId++, id++) {
+            m1TransitionImages[id] = i1Index.transitions.size() + m1StateImages[stateId];
+            m2TransitionImages[id] = i2Index.transitions.size() + m2StateImages[stateId];
+        }
+        // The morphisms are valid by construction.
+        this.result = new PullbackResult(
+                TSMorphism.fromImages(
+                        pbSystem,
+                        i1Index.system,
+                        m1StateImages,
+                        m1TransitionImages,
+                        ValidationMode.DEFERRED),
+                TSMorphism.fromImages(
+                        pbSystem,
+                        i2Index.system,
+                        m2StateImages,
+                        m2TransitionImages,
+                        ValidationMode.DEFERRED));
+    }
+
+    /**
+     * Drops the slots of removed elements if they take more space than the remaining ones.
+     * The slots referring to moved slots are updated.
+     */
+    private void compact() {
+        for (final Leg leg : Leg.values()) {
+            final LegIndex index = this.legs.get(leg);
+            final boolean first = leg == Leg.I1;
+            if (index.states.isSparse()) {
+                final int[] newSlots = index.states.compact();
+                for (int slot = 0; slot < this.pullbackStates.getEnd(); slot++) {
+                    if (this.pullbackStates.get(slot) != null) {
+                        this.pullbackStates.set(
+                                slot,
+                                first,
+                                newSlots[this.pullbackStates.get(slot, first)]);
+                    }
+                }
+                for (int slot = 0; slot < this.pullbackTransitions.getEnd(); slot++) {
+                    final int code = this.pullbackTransitions.get(slot, first);
+                    if (this.pullbackTransitions.get(slot) != null && code < 0) {
+                        this.pullbackTransitions.set(slot, first, -newSlots[-code - 1] - 1);
+                    }
+                }
+            }
+            if (index.transitions.isSparse()) {
+                final int[] newSlots = index.transitions.compact();
+                for (int slot = 0; slot < this.pullbackTransitions.getEnd(); slot++) {
+                    final int code = this.pullbackTransitions.get(slot, first);
+                    if (this.pullbackTransitions.get(slot) != null && code >= 0) {
+                        this.pullbackTransitions.set(slot, first, newSlots[code]);
+                    }
+                }
+            }
+        }
+        if (this.pullbackStates.isSparse()) {
+            this.pullbackStates.compact();
+        }
+        if (this.pullbackTransitions.isSparse()) {
+            this.pullbackTransitions.compact();
+        }
+    }
+
+    /**
+     * Pullback states and transitions which were added or removed between two polls.
+     */
+    public static final class Changes {
+        private final Set<State> addedStates;
+        private final Set<State> removedStates;
+        private final Set<Transition> addedTransitions;
+        private final Set<Transition> removedTransitions;
+
+        private Changes(
+                final Set<State> addedStates,
+                final Set<State> removedStates,
+                final Set<Transition> addedTransitions,
+                final Set<Transition> removedTransitions) {
+            this.addedStates = Collections.unmodifiableSet(addedStates);
+            this.removedStates = Collections.unmodifiableSet(removedStates);
+            this.addedTransitions = Collections.unmodifiableSet(addedTransitions);
+            this.removedTransitions = Collections.unmodifiableSet(removedTransitions);
+        }
+
+        public Set<State> getAddedStates() {
+            return this.addedStates;
+        }
+
+        public Set<State> getRemovedStates() {
+            return this.removedStates;
+        }
+
+        public Set<Transition> getAddedTransitions() {
+            return this.addedTransitions;
+        }
+
+        public Set<Transition> getRemovedTransitions() {
+            return this.removedTransitions;
+        }
+
+        public boolean isEmpty() {
+            return this.addedStates.isEmpty()
+                    && this.removedStates.isEmpty()
+                    && this.addedTransitions.isEmpty()
+                    && this.removedTransitions.isEmpty();
+        }
+    }
+
+    /**
+     * The editable system of one leg with its mapping into the target and its fibers.
+     */
+    private class LegIndex {
+        private final State startState;
+        private final Symbol implicitIdleLabel;
+        // Stored states and transitions with the ids of their images
+        private final Slots<State> states = new Slots<>();
+        private final Slots<Transition> transitions = new Slots<>();
+        // Fibers over the states and transitions of the target
+        private final Map<State, Set<State>> stateFibers = new HashMap<>();
+        private final Map<Transition, Set<Transition>> transitionFibers = new HashMap<>();
+        // Stored transitions for each state
+        private final Map<State, Set<Transition>> adjacentTransitions = new HashMap<>();
+        // Pullback states and transitions for each component
+        private final Map<State, Set<State>> pullbackStates = new HashMap<>();
+        private final Map<Transition, Set<Transition>> pullbackTransitions = new HashMap<>();
+
+        // The last built system with the ids of the slots, reset by each delta
+        private TransitionSystem system;
+        private int[] stateIds;
+        private int[] transitionIds;
+
+        LegIndex(final TransitionSystem system) {
+            this.startState = system.getStartState();
+            this.implicitIdleLabel = system.getImplicitIdleLabelSymbol();
+        }
+
+        /**
+         * Returns the image of the given state or null if the state does not exist.
+         */
+        State stateImage(final State state) {
+            final int slot = this.states.getSlot(state);
+            return slot < 0 ? null : IncrementalPullback.this.target.getState(this.states.getFirst(slot));
+        }
+
+        Transition implicitIdleTransition(final State state) {
+            return new Transition(state, state, this.implicitIdleLabel);
+        }
+
+        boolean isImplicitIdleTransition(final Transition transition) {
+            return this.implicitIdleLabel != null
+                    && transition.getLabelSymbol() == this.implicitIdleLabel
+                    && transition.getSource().equals(transition.getTarget());
+        }
+
+        /**
+         * Returns the slot of the given stored transition or -(slot of its state + 1) for an implicit idle transition.
+         */
+        int transitionCode(final Transition transition) {
+            return this.isImplicitIdleTransition(transition)
+                    ? -this.states.getSlot(transition.getSource()) - 1
+                    : this.transitions.getSlot(transition);
+        }
+
+        Transition decodeTransition(final int code) {
+            return code < 0 ? this.implicitIdleTransition(this.states.get(-code - 1)) : this.transitions.get(code);
+        }
+
+        /**
+         * Returns the id of the encoded transition in the last built system.
+         */
+        int transitionId(final int code) {
+            return code < 0 ? this.transitions.size() + this.stateIds[-code - 1] : this.transitionIds[code];
+        }
+
+        /**
+         * Returns the transitions over the given transition of the target, including implicit idle transitions
+         * if requested.
+         */
+        List<Transition> transitionsOver(final Transition image, final boolean includeImplicitIdle) {
+            final List<Transition> transitions = new ArrayList<>(this.transitionFibers.getOrDefault(image, Set.of()));
+            if (includeImplicitIdle
+                    && this.implicitIdleLabel != null
+                    && IncrementalPullback.this.isTargetIdleTransition(image)) {
+                this.stateFibers.getOrDefault(image.getSource(), Set.of())
+                        .forEach(state -> transitions.add(this.implicitIdleTransition(state)));
+            }
+            return transitions;
+        }
+
+        /**
+         * Builds the system and its morphism into the target from the slots.
+         */
+        TSMorphism snapshot() {
+            this.stateIds = this.states.getIds();
+            this.transitionIds = this.transitions.getIds();
+            this.system = new TransitionSystem(
+                    this.startState,
+                    this.states.toSet(),
+                    this.transitions.toSet(),
+                    this.implicitIdleLabel);
+            final int[] stateImages = this.states.getFirstColumn();
+            final int[] transitionImages = Arrays.copyOf(
+                    this.transitions.getFirstColumn(),
+                    this.system.getTransitions().size());
+            // Implicit idle transitions (if any) are mapped to the idle transitions of the state images.
+            for (int stateId = 0, id = this.transitions.size(); id < transitionImages.length; stateId++, id++) {
+                transitionImages[id] = IncrementalPullback.this.targetIdleTransitionId(stateImages[stateId]);
+            }
+            return TSMorphism.fromImages(
+                    this.system,
+                    IncrementalPullback.this.target,
+                    stateImages,
+                    transitionImages,
+                    ValidationMode.DEFERRED);
+        }
+    }
+
+    /**
+     * Elements in the order of their addition, each with a fixed slot and two int columns. Removed elements leave an
+     * empty slot until the slots are compacted.
+     */
+    private static final class Slots<T> {
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final Map<T, Integer> slots = new HashMap<>();
+        private Object[] elements = new Object[INITIAL_CAPACITY];
+        private int[] first = new int[INITIAL_CAPACITY];
+        private int[] second = new int[INITIAL_CAPACITY];
+        // Number of used slots, including empty ones
+        private int end;
+
+        void add(final T element, final int firstValue, final int secondValue) {
+            assert !this.slots.containsKey(element);
+            if (this.end == this.elements.length) {
+                this.elements = Arrays.copyOf(this.elements, this.end * 2);
+                this.first = Arrays.copyOf(this.first, this.end * 2);
+                this.second = Arrays.copyOf(this.second, this.end * 2);
+            }
+            this.elements[this.end] = element;
+            this.first[this.end] = firstValue;
+            this.second[this.end] = secondValue;
+            this.slots.put(element, this.end++);
+        }
+
+        /**
+         * Removes the given element and returns its slot, whose columns stay readable until the next compaction.
+         */
+        int remove(final T element) {
+            final int slot = this.slots.remove(element);
+            this.elements[slot] = null;
+            return slot;
+        }
+
+        boolean contains(final T element) {
+            return this.slots.containsKey(element);
+        }
+
+        /**
+         * Returns the slot of the given element or -1.
+         */
+        int getSlot(final T element) {
+            final Integer slot = this.slots.get(element);
+            return slot == null ? -1 : slot;
+        }
+
+        /**
+         * Returns the element in the given slot or null if the slot is empty.
+         */
+        @SuppressWarnings("unchecked")
+        T get(final int slot) {
+            return (T) this.elements[slot];
+        }
+
+        int getFirst(final int slot) {
+            return this.first[slot];
+        }
+
+        int getSecond(final int slot) {
+            return this.second[slot];
+        }
+
+        int get(final int slot, final boolean firstColumn) {
+            return firstColumn ? this.first[slot] : this.second[slot];
+        }
+
+        void set(final int slot, final boolean firstColumn, final int value) {
+            if (firstColumn) {
+                this.first[slot] = value;
+            } else {
+                this.second[slot] = value;
+            }
+        }
+
+        /**
+         * Returns the number of elements.
+         */
+        int size() {
+            return this.slots.size();
+        }
+
+        int getEnd() {
+            return this.end;
+        }
+
+        /**
+         * Returns the elements in the order of their slots.
+         */
+        Set<T> toSet() {
+            final Set<T> result = new LinkedHashSet<>(this.size() * 4 / 3 + 1);
+            for (int slot = 0; slot < this.end; slot++) {
+                if (this.elements[slot] != null) {
+                    result.add(this.get(slot));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the position of each element in {@link #toSet()} indexed by its slot.
+         */
+        int[] getIds() {
+            final int[] ids = new int[this.end];
+            int id = 0;
+            for (int slot = 0; slot < this.end; slot++) {
+                ids[slot] = this.elements[slot] != null ? id++ : -1;
+            }
+            return ids;
+        }
+
+        /**
+         * Returns the first column of the elements in the order of {@link #toSet()}.
+         */
+        int[] getFirstColumn() {
+            if (this.size() == this.end) {
+                return Arrays.copyOf(this.first, this.end);
+            }
+            final int[] column = new int[this.size()];
+            int id = 0;
+            for (int slot = 0; slot < this.end; slot++) {
+                if (this.elements[slot] != null) {
+                    column[id++] = this.first[slot];
+                }
+            }
+            return column;
+        }
+
+        boolean isSparse() {
+            return this.end > INITIAL_CAPACITY && this.end > 2 * this.size();
+        }
+
+        /**
+         * Moves the elements into consecutive slots and returns the new slot indexed by the old one.
+         */
+        int[] compact() {
+            final int[] newSlots = this.getIds();
+            for (int slot = 0; slot < this.end; slot++) {
+                if (newSlots[slot] >= 0) {
+                    this.elements[newSlots[slot]] = this.elements[slot];
+                    this.first[newSlots[slot]] = this.first[slot];
+                    this.second[newSlots[slot]] = this.second[slot];
+                }
+            }
+            Arrays.fill(this.elements, this.size(), this.end, null);
+            this.end = this.size();
+            this.slots.replaceAll((element, slot) -> newSlots[slot]);
+            return newSlots;
+        }
+    }
+}
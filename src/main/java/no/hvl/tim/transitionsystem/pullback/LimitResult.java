@@ -0,0 +1,231 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import com.google.common.primitives.ImmutableIntArray;
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * The limit of a {@link MultiCospan}, i.e., the pullback of all legs at once.
+ * The limit system consists of the tuples of states (transitions) of the legs which are mapped to the same
+ * state (transition) of the common target. Composite names and labels are tuples in the order of the legs,
+ * e.g., "(a, b, c)". For two legs the limit system equals the pullback system.
+ */
+public class LimitResult {
+
+    private final List<TSMorphism> projections;
+
+    public LimitResult(final List<TSMorphism> projections) {
+        assert !projections.isEmpty();
+        // All projections have the same source
+        assert projections.stream().allMatch(projection -> projection.getSource() == projections.get(0).getSource());
+
+        this.projections = List.copyOf(projections);
+    }
+
+    /**
+     * Calculates the limit by joining the fibers of all legs over each state and transition of the target.
+     * No intermediate pullbacks are created. Before enumerating the tuples over one target element, the fibers are
+     * checked for emptiness with the most selective legs (most empty fibers) first.
+     */
+    public static LimitResult calculate(final MultiCospan input) {
+        final List<TSMorphism> legs = input.getLegs();
+        final TransitionSystem target = legs.get(0).getTarget();
+        final var limitBuilder = new TransitionSystemBuilder();
+
+        // States
+        final Fibers[] stateFibers = new Fibers[legs.size()];
+        for (int leg = 0; leg < legs.size(); leg++) {
+            final TSMorphism morphism = legs.get(leg);
+            // Equal targets do not need to have the same order.
+            stateFibers[leg] = morphism.getTarget() == target
+                    ? morphism.getStateFibers()
+                    : new Fibers(PullbackResult.stateImagesIn(morphism, target), target.getStates().size());
+        }
+        final ImmutableIntArray.Builder[] stateImages = newImageBuilders(legs.size());
+        join(stateFibers, stateTuple -> {
+            final State[] components = new State[stateTuple.length];
+            for (int leg = 0; leg < stateTuple.length; leg++) {
+                components[leg] = legs.get(leg).getSource().getState(stateTuple[leg]);
+                stateImages[leg].add(stateTuple[leg]);
+            }
+            limitBuilder.addState(State.tuple(components));
+        });
+        limitBuilder.startState(startState(legs));
+
+        // Transitions. The states of a tuple of transitions exist, since all legs map them to the same states.
+        final Fibers[] transitionFibers = new Fibers[legs.size()];
+        for (int leg = 0; leg < legs.size(); leg++) {
+            final TSMorphism morphism = legs.get(leg);
+            transitionFibers[leg] = morphism.getTarget() == target
+                    ? morphism.getTransitionFibers()
+                    : new Fibers(
+                            PullbackResult.transitionImagesIn(morphism, target),
+                            target.getTransitions().size());
+        }
+        final Symbol implicitIdleLabel = implicitIdleLabel(legs);
+        final int[] storedTransitionCounts = legs.stream()
+                .mapToInt(leg -> leg.getSource().getStoredTransitions().size())
+                .toArray();
+        final ImmutableIntArray.Builder[] transitionImages = newImageBuilders(legs.size());
+        join(transitionFibers, transitionTuple -> {
+            if (implicitIdleLabel != null && isImplicitIdleTuple(transitionTuple, storedTransitionCounts)) {
+                // Implied by the limit system.
+                return;
+            }
+            final Transition[] components = new Transition[transitionTuple.length];
+            for (int leg = 0; leg < transitionTuple.length; leg++) {
+                components[leg] = legs.get(leg).getSource().getTransition(transitionTuple[leg]);
+            }
+            final State[] sources = new State[components.length];
+            final State[] targets = new State[components.length];
+            for (int leg = 0; leg < components.length; leg++) {
+                sources[leg] = components[leg].getSource();
+                targets[leg] = components[leg].getTarget();
+                transitionImages[leg].add(transitionTuple[leg]);
+            }
+            limitBuilder.addTransition(new Transition(
+                    State.tuple(sources),
+                    State.tuple(targets),
+                    Transition.tupleLabel(components)));
+        });
+
+        final TransitionSystem limitSystem;
+        if (implicitIdleLabel == null) {
+            limitSystem = limitBuilder.build();
+        } else {
+            limitSystem = limitBuilder.buildWithImplicitIdleTransitions(implicitIdleLabel);
+        }
+        final List<TSMorphism> projections = new ArrayList<>();
+        for (int leg = 0; leg < legs.size(); leg++) {
+            projections.add(PullbackResult.pullbackMorphism(
+                    limitSystem,
+                    legs.get(leg).getSource(),
+                    stateImages[leg].build().toArray(),
+                    transitionImages[leg].build().toArray()));
+        }
+        return new LimitResult(projections);
+    }
+
+    private static State startState(final List<TSMorphism> legs) {
+        final State[] startStates = new State[legs.size()];
+        for (int leg = 0; leg < legs.size(); leg++) {
+            final TSMorphism morphism = legs.get(leg);
+            startStates[leg] = morphism.getSource().getStartState();
+            if (!morphism.mapState(startStates[leg]).equals(legs.get(0).mapState(startStates[0]))) {
+                throw new TransitionSystemException("Start state mappings do not match in limit calculation!");
+            }
+        }
+        return State.tuple(startStates);
+    }
+
+    /**
+     * Returns the label symbol of the implicit idle transitions of the limit or null if there are
+     * none. The limit has implicit idle transitions if the systems of all legs have them.
+     */
+    private static Symbol implicitIdleLabel(final List<TSMorphism> legs) {
+        final Symbol[] idleLabels = new Symbol[legs.size()];
+        for (int leg = 0; leg < legs.size(); leg++) {
+            final TransitionSystem legSystem = legs.get(leg).getSource();
+            if (!legSystem.hasImplicitIdleTransitions()) {
+                return null;
+            }
+            idleLabels[leg] = legSystem.getImplicitIdleLabelSymbol();
+        }
+        return SymbolTable.getGlobal().internTuple(SymbolTable.TupleKind.LABEL, idleLabels);
+    }
+
+    /**
+     * Returns true if all transitions of the given tuple are implicit idle transitions, i.e., have an id after the
+     * stored transitions of their leg.
+     */
+    private static boolean isImplicitIdleTuple(final int[] transitionTuple, final int[] storedTransitionCounts) {
+        for (int leg = 0; leg < transitionTuple.length; leg++) {
+            if (transitionTuple[leg] < storedTransitionCounts[leg]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ImmutableIntArray.Builder[] newImageBuilders(final int legCount) {
+        final ImmutableIntArray.Builder[] builders = new ImmutableIntArray.Builder[legCount];
+        for (int leg = 0; leg < legCount; leg++) {
+            builders[leg] = ImmutableIntArray.builder();
+        }
+        return builders;
+    }
+
+    /**
+     * Passes all tuples of element ids (one of each leg) which have the same image to the given consumer.
+     * The tuples are enumerated image by image and lexicographically in the order of the legs within one image.
+     * The passed array is reused.
+     */
+    private static void join(final Fibers[] fibers, final Consumer<int[]> consumer) {
+        final int[] checkOrder = selectivityOrder(fibers);
+        final int[] positions = new int[fibers.length];
+        final int[] tuple = new int[fibers.length];
+        for (int image = 0; image < fibers[0].getImageCount(); image++) {
+            if (hasEmptyFiber(fibers, checkOrder, image)) {
+                continue;
+            }
+            for (int leg = 0; leg < fibers.length; leg++) {
+                positions[leg] = fibers[leg].getStart(image);
+            }
+            int leg;
+            do {
+                for (int i = 0; i < fibers.length; i++) {
+                    tuple[i] = fibers[i].get(positions[i]);
+                }
+                consumer.accept(tuple);
+                // Advance to the next tuple, the last leg changes fastest.
+                leg = fibers.length - 1;
+                while (leg >= 0 && ++positions[leg] == fibers[leg].getEnd(image)) {
+                    positions[leg] = fibers[leg].getStart(image);
+                    leg--;
+                }
+            } while (leg >= 0);
+        }
+    }
+
+    private static boolean hasEmptyFiber(final Fibers[] fibers, final int[] checkOrder, final int image) {
+        for (final int leg : checkOrder) {
+            if (fibers[leg].getFiberSize(image) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Orders the legs by the number of their non-empty fibers, such that legs which rule out most images come first.
+     */
+    private static int[] selectivityOrder(final Fibers[] fibers) {
+        return IntStream.range(0, fibers.length)
+                .boxed()
+                .sorted(Comparator.comparingInt(leg -> fibers[leg].getStatistics().getNonEmptyFiberCount()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Returns the system of the limit, i.e., the common source of all projections.
+     */
+    public TransitionSystem getLimitSystem() {
+        return this.projections.get(0).getSource();
+    }
+
+    /**
+     * Returns the projection of the limit system onto the system of the leg with the given index.
+     */
+    public TSMorphism getProjection(final int leg) {
+        return this.projections.get(leg);
+    }
+
+    public List<TSMorphism> getProjections() {
+        return this.projections;
+    }
+}
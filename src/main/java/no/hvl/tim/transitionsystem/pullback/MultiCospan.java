@@ -0,0 +1,41 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import no.hvl.tim.transitionsystem.TSMorphism;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Several morphisms (legs) into a common target, e.g., k components synchronised over one coordination interface.
+ */
+public class MultiCospan {
+    private final List<TSMorphism> legs;
+
+    public MultiCospan(final List<TSMorphism> legs) {
+        assert !legs.isEmpty();
+        // All legs have the same target
+        assert legs.stream().allMatch(leg -> leg.getTarget().equals(legs.get(0).getTarget()));
+
+        this.legs = List.copyOf(legs);
+    }
+
+    public MultiCospan(final TSMorphism... legs) {
+        this(Arrays.asList(legs));
+    }
+
+    public MultiCospan(final Cospan cospan) {
+        this(cospan.getI1(), cospan.getI2());
+    }
+
+    public List<TSMorphism> getLegs() {
+        return this.legs;
+    }
+
+    public TSMorphism getLeg(final int index) {
+        return this.legs.get(index);
+    }
+
+    public int size() {
+        return this.legs.size();
+    }
+}
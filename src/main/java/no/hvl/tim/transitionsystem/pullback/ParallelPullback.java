@@ -0,0 +1,183 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import no.hvl.tim.transitionsystem.Fibers;
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.TSMorphism;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+import no.hvl.tim.transitionsystem.ValidationMode;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Calculates the pullback by spreading the matching of the fibers over an executor.
+ * The states and transitions of the first leg are split into chunks which are matched independently against
+ * the fibers of the second leg. The partial results are merged in chunk order, such that the result is
+ * the same (including the order of states and transitions) as the one of {@link PullbackResult#calculate(Cospan)}.
+ */
+class ParallelPullback {
+
+    /**
+     * Chunks smaller than this are not worth the scheduling overhead.
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    /**
+     * Number of chunks per available processor to balance fibers of different sizes.
+     */
+    private static final int CHUNKS_PER_PROCESSOR = 4;
+
+    private final Cospan input;
+    private final Executor executor;
+
+    private ParallelPullback(final Cospan input, final Executor executor) {
+        this.input = input;
+        this.executor = executor;
+    }
+
+    static PullbackResult calculate(final Cospan input, final Executor executor) {
+        return new ParallelPullback(input, executor).calculate();
+    }
+
+    private PullbackResult calculate() {
+        // Index the fibers of the second leg concurrently. The index is cached by the morphism.
+        final TSMorphism i2 = this.input.getI2();
+        final CompletableFuture<Fibers> i2StateFibers = CompletableFuture.supplyAsync(
+                i2::getStateFibers,
+                this.executor);
+        final CompletableFuture<Fibers> i2TransitionFibers = CompletableFuture.supplyAsync(
+                i2::getTransitionFibers,
+                this.executor);
+
+        // States
+        final var pullbackBuilder = new TransitionSystemBuilder();
+        final var stateIndex = new StatePairIndex();
+        final Map<State, State> m1StateMap = new LinkedHashMap<>();
+        final Map<State, State> m2StateMap = new LinkedHashMap<>();
+        final State i1StartState = this.input.getI1().getSource().getStartState();
+        final State i2StartState = this.input.getI2().getSource().getStartState();
+        var foundStartState = false;
+        join(i2StateFibers);
+        final List<State[]> statePairs = this.matchInChunks(
+                new ArrayList<>(this.input.getI1().getSource().getStates()),
+                i1State -> i2.getStateFiber(this.input.getI1().mapState(i1State)),
+                (i1State, i2State) -> new State[]{
+                        State.tuple(i1State, i2State),
+                        i1State,
+                        i2State});
+        for (final State[] statePair : statePairs) {
+            final State pullbackState = statePair[0];
+            pullbackBuilder.addState(pullbackState);
+            m1StateMap.put(pullbackState, statePair[1]);
+            m2StateMap.put(pullbackState, statePair[2]);
+            stateIndex.put(statePair[1], statePair[2], pullbackState);
+            if (!foundStartState && i1StartState.equals(statePair[1]) && i2StartState.equals(statePair[2])) {
+                foundStartState = true;
+                pullbackBuilder.startState(pullbackState);
+            }
+        }
+        if (!foundStartState) {
+            throw new TransitionSystemException("Start state mappings do not match in pullback calculation!");
+        }
+
+        // Transitions (the state index is only read from now on)
+        final TransitionSystem i1System = this.input.getI1().getSource();
+        final boolean implicitIdleTransitions = PullbackResult.implicitIdleLabel(this.input) != null;
+        final int i2StoredCount = i2.getSource().getStoredTransitions().size();
+        final Fibers fibers = join(i2TransitionFibers);
+        final List<Transition[]> transitionPairs = this.matchInChunks(
+                new ArrayList<>(i1System.getTransitions()),
+                i1Transition -> {
+                    final Transition image = this.input.getI1().mapTransition(i1Transition);
+                    final List<Transition> fiber = i2.getTransitionFiber(image);
+                    if (!implicitIdleTransitions || !i1System.isImplicitIdleTransition(i1Transition)) {
+                        return fiber;
+                    }
+                    // Pairs of implicit idle transitions are implied by the pullback system.
+                    final int imageId = i2.getTarget().getTransitionId(image);
+                    return fiber.subList(
+                            0,
+                            PullbackResult.storedFiberEnd(fibers, imageId, i2StoredCount) - fibers.getStart(imageId));
+                },
+                (i1Transition, i2Transition) -> new Transition[]{
+                        new Transition(
+                                stateIndex.get(i1Transition.getSource(), i2Transition.getSource()),
+                                stateIndex.get(i1Transition.getTarget(), i2Transition.getTarget()),
+                                Transition.tupleLabel(i1Transition, i2Transition)),
+                        i1Transition,
+                        i2Transition});
+        transitionPairs.forEach(transitionPair -> pullbackBuilder.addTransition(transitionPair[0]));
+
+        // Build PB-System and morphisms
+        final TransitionSystem pbSystem = PullbackResult.buildPullbackSystem(pullbackBuilder, this.input);
+        // The morphisms are valid by construction.
+        final TSMorphismBuilder m1Builder = new TSMorphismBuilder()
+                .source(pbSystem)
+                .target(this.input.getI1().getSource())
+                .validation(ValidationMode.DEFERRED);
+        final TSMorphismBuilder m2Builder = new TSMorphismBuilder()
+                .source(pbSystem)
+                .target(this.input.getI2().getSource())
+                .validation(ValidationMode.DEFERRED);
+        m1StateMap.forEach(m1Builder::addStateMapping);
+        m2StateMap.forEach(m2Builder::addStateMapping);
+        transitionPairs.forEach(transitionPair -> {
+            m1Builder.addTransitionMapping(transitionPair[0], transitionPair[1]);
+            m2Builder.addTransitionMapping(transitionPair[0], transitionPair[2]);
+        });
+        return new PullbackResult(m1Builder.build(), m2Builder.build());
+    }
+
+    /**
+     * Matches the elements of the first leg against the fibers of the second leg chunk by chunk.
+     * The results of all chunks are concatenated in the order of the elements.
+     *
+     * @param i2Matches the elements of the second leg to pair with an element of the first leg
+     */
+    private <T, R> List<R> matchInChunks(
+            final List<T> i1Elements,
+            final Function<T, List<T>> i2Matches,
+            final BiFunction<T, T, R> combiner) {
+        final int chunkSize = Math.max(
+                MIN_CHUNK_SIZE,
+                i1Elements.size() / (Runtime.getRuntime().availableProcessors() * CHUNKS_PER_PROCESSOR));
+        final List<CompletableFuture<List<R>>> chunks = new ArrayList<>();
+        for (int chunkStart = 0; chunkStart < i1Elements.size(); chunkStart += chunkSize) {
+            final List<T> chunk = i1Elements.subList(chunkStart, Math.min(chunkStart + chunkSize, i1Elements.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                final List<R> partialResult = new ArrayList<>();
+                for (final T i1Element : chunk) {
+                    for (final T i2Element : i2Matches.apply(i1Element)) {
+                        partialResult.add(combiner.apply(i1Element, i2Element));
+                    }
+                }
+                return partialResult;
+            }, this.executor));
+        }
+        final List<R> result = new ArrayList<>();
+        chunks.forEach(chunk -> result.addAll(join(chunk)));
+        return result;
+    }
+
+    /**
+     * Waits for the given future and rethrows exceptions of the task unwrapped.
+     */
+    private static <T> T join(final CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
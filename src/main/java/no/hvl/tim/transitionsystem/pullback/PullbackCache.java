@@ -0,0 +1,225 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import no.hvl.tim.transitionsystem.TSMorphism;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Memoizes {@link PullbackResult#calculate(Cospan)} and {@link PullbackResult#calcCoordinationInterface}.
+ * Inputs are compared structurally, i.e., by the states, transitions and start states of their systems and by
+ * their mappings, so equal inputs built independently share one result. Keys are hashed by the fingerprints of
+ * the systems.
+ * <p>
+ * The cache is bounded by the total weight of its entries. Since a key keeps its input alive, the weight of an
+ * entry is the number of states and transitions of all systems of the input and the result (and the number of
+ * interactions). The least recently used entries are evicted first.
+ * <p>
+ * A cached result refers to the systems of the input it was calculated for, which are equal but not necessarily
+ * identical to the systems of a later input. The cache is thread-safe and concurrent misses for the same input
+ * wait for one calculation.
+ */
+public class PullbackCache {
+
+    private final Cache<CospanKey, PullbackResult> pullbacks;
+    private final Cache<InterfaceKey, Cospan> coordinationInterfaces;
+
+    /**
+     * Creates a cache which holds results with a total weight of at most the given weight for each kind of result.
+     */
+    public PullbackCache(final long maximumWeight) {
+        // One segment, since segments split the maximum weight and evict independently. Calculations do not hold
+        // the lock of the segment.
+        this.pullbacks = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maximumWeight)
+                .weigher((CospanKey key, PullbackResult result) -> weight(
+                        key.cospan.getI1().getSource(),
+                        key.cospan.getI2().getSource(),
+                        key.cospan.getI1().getTarget(),
+                        result.getM1().getSource()))
+                .recordStats()
+                .build();
+        this.coordinationInterfaces = CacheBuilder.newBuilder()
+                .concurrencyLevel(1)
+                .maximumWeight(maximumWeight)
+                .weigher((InterfaceKey key, Cospan result) -> key.interactions.size() + weight(
+                        key.ts1,
+                        key.ts2,
+                        result.getI1().getTarget()))
+                .recordStats()
+                .build();
+    }
+
+    public PullbackResult calculate(final Cospan input) {
+        return get(this.pullbacks, new CospanKey(input), () -> PullbackResult.calculate(input));
+    }
+
+    public Cospan calcCoordinationInterface(
+            final TransitionSystem ts1,
+            final TransitionSystem ts2,
+            final Map<Transition, Transition> interactions) {
+        return this.calcCoordinationInterface(ts1, ts2, Multimaps.forMap(interactions));
+    }
+
+    public Cospan calcCoordinationInterface(
+            final TransitionSystem ts1,
+            final TransitionSystem ts2,
+            final Multimap<Transition, Transition> interactions) {
+        return get(
+                this.coordinationInterfaces,
+                new InterfaceKey(ts1, ts2, interactions),
+                () -> PullbackResult.calcCoordinationInterface(ts1, ts2, interactions));
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of pullbacks and coordination interfaces together.
+     */
+    public CacheStats getStatistics() {
+        return this.pullbacks.stats().plus(this.coordinationInterfaces.stats());
+    }
+
+    public CacheStats getPullbackStatistics() {
+        return this.pullbacks.stats();
+    }
+
+    public CacheStats getCoordinationInterfaceStatistics() {
+        return this.coordinationInterfaces.stats();
+    }
+
+    /**
+     * Returns the number of cached pullbacks and coordination interfaces.
+     */
+    public long size() {
+        return this.pullbacks.size() + this.coordinationInterfaces.size();
+    }
+
+    public void invalidateAll() {
+        this.pullbacks.invalidateAll();
+        this.coordinationInterfaces.invalidateAll();
+    }
+
+    /**
+     * Returns the cached value or calculates it. Exceptions of the calculation are rethrown unwrapped.
+     */
+    private static <K, V> V get(final Cache<K, V> cache, final K key, final Callable<V> calculation) {
+        try {
+            return cache.get(key, calculation);
+        } catch (final ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static int weight(final TransitionSystem... systems) {
+        long weight = 0;
+        for (final TransitionSystem system : systems) {
+            weight += system.getStates().size() + system.getTransitions().size();
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static boolean sameSystem(final TransitionSystem first, final TransitionSystem second) {
+        return first == second
+                || first.equals(second)
+                && first.getStartState().equals(second.getStartState())
+                && first.getImplicitIdleLabelSymbol() == second.getImplicitIdleLabelSymbol();
+    }
+
+    private static boolean sameMorphism(final TSMorphism first, final TSMorphism second) {
+        return first == second
+                || sameSystem(first.getSource(), second.getSource())
+                && sameSystem(first.getTarget(), second.getTarget())
+                && first.getStateMapping().equals(second.getStateMapping())
+                && first.getTransitionMapping().equals(second.getTransitionMapping());
+    }
+
+    /**
+     * Structural identity of a cospan.
+     */
+    private static final class CospanKey {
+        private final Cospan cospan;
+        private final int hash;
+
+        CospanKey(final Cospan cospan) {
+            this.cospan = cospan;
+            this.hash = Objects.hash(
+                    cospan.getI1().getSource().getFingerprint(),
+                    cospan.getI2().getSource().getFingerprint(),
+                    cospan.getI1().getTarget().getFingerprint());
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CospanKey)) {
+                return false;
+            }
+            final CospanKey that = (CospanKey) o;
+            return this.hash == that.hash
+                    && sameMorphism(this.cospan.getI1(), that.cospan.getI1())
+                    && sameMorphism(this.cospan.getI2(), that.cospan.getI2());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    /**
+     * Structural identity of the input of a coordination interface calculation.
+     * The order of the interactions is part of the key, since it determines the names of the interface.
+     */
+    private static final class InterfaceKey {
+        private final TransitionSystem ts1;
+        private final TransitionSystem ts2;
+        private final List<Map.Entry<Transition, Transition>> interactions;
+        private final int hash;
+
+        InterfaceKey(
+                final TransitionSystem ts1,
+                final TransitionSystem ts2,
+                final Multimap<Transition, Transition> interactions) {
+            this.ts1 = ts1;
+            this.ts2 = ts2;
+            this.interactions = ImmutableList.copyOf(interactions.entries());
+            this.hash = Objects.hash(ts1.getFingerprint(), ts2.getFingerprint(), this.interactions);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof InterfaceKey)) {
+                return false;
+            }
+            final InterfaceKey that = (InterfaceKey) o;
+            return this.hash == that.hash
+                    && sameSystem(this.ts1, that.ts1)
+                    && sameSystem(this.ts2, that.ts2)
+                    && this.interactions.equals(that.interactions);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
@@ -1,20 +1,25 @@
 package no.hvl.tim.transitionsystem.pullback;
 
+import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.primitives.ImmutableIntArray;
 import no.hvl.tim.transitionsystem.*;
-import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
 import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public class PullbackResult {
     /**
      * Pattern for the composite names of the states in a pullback.
+     * Composite names are tuples in the {@link SymbolTable} which are rendered according to this pattern.
      */
     public static final String STATE_NAME_PATTERN = "(%s, %s)";
 
     /**
      * Pattern for the execution of parallel transitions in the pullback system.
+     * Composite labels are tuples in the {@link SymbolTable} which are rendered according to this pattern.
      */
     public static final String TRANSITION_NAME_FORMAT = "<%s, %s>";
 
@@ -29,263 +34,260 @@ public class PullbackResult {
         this.m2 = m2;
     }
 
+    /**
+     * Calculates the coordination interface of the given systems, in which the given transitions interact.
+     * States connected by non-interacting transitions are collapsed into one state of the interface.
+     * Throws a {@link TransitionSystemException} listing all states which are neither connected to the start
+     * states nor to an interaction.
+     */
     public static Cospan calcCoordinationInterface(
             final TransitionSystem ts1,
             final TransitionSystem ts2,
             final Map<Transition, Transition> interactions) {
-        if (!interactions.entrySet().stream().allMatch(transPair -> ts1.getTransitions().contains(transPair.getKey())
-                && ts2.getTransitions().contains(transPair.getValue()))) {
-            // TODO better exception.
-            throw new TransitionSystemException("Interactions must be contained in transition systems!");
-        }
-        final var coordinationInterfaceBuilder = new TransitionSystemBuilder();
-        // Start state
-        final var startState = new State(String.format(
-                STATE_NAME_PATTERN,
-                ts1.getStartState().getName(),
-                ts2.getStartState().getName()));
-        coordinationInterfaceBuilder.startState(startState);
-
-        final Map<State, State> ts1StateMapping = new LinkedHashMap<>();
-        final Map<State, State> ts2StateMapping = new LinkedHashMap<>();
-        final Map<Transition, Transition> ts1TransitionMapping = new LinkedHashMap<>();
-        final Map<Transition, Transition> ts2TransitionMapping = new LinkedHashMap<>();
+        return calcCoordinationInterface(ts1, ts2, Multimaps.forMap(interactions));
+    }
 
-        ts1StateMapping.put(ts1.getStartState(), startState);
-        ts2StateMapping.put(ts2.getStartState(), startState);
+    /**
+     * Calculates the coordination interface of the given systems for an interaction relation, in which
+     * a transition can interact with several transitions of the other system.
+     * All transitions connected by interactions are mapped to one transition of the coordination interface,
+     * labeled by the labels of both sides, e.g., "&lt;a, {b, c}&gt;" if a interacts with b and c.
+     * Throws a {@link TransitionSystemException} if connected transitions do not all interact with each other,
+     * since the pullback would synchronise them anyway.
+     */
+    public static Cospan calcCoordinationInterface(
+            final TransitionSystem ts1,
+            final TransitionSystem ts2,
+            final Multimap<Transition, Transition> interactions) {
+        return CoordinationInterface.calculate(ts1, ts2, interactions);
+    }
 
-        // Synched transitions
-        interactions.forEach((Transition ts1Transition, Transition ts2Transition) ->
-                // we expect one transition to be synched with at most one other transition
-                createdSynchedTransition(
-                        ts1TransitionMapping,
-                        ts2TransitionMapping,
-                        ts1StateMapping,
-                        ts2StateMapping,
-                        ts1Transition,
-                        ts2Transition,
-                        coordinationInterfaceBuilder));
+    public static PullbackResult calculate(final Cospan input) {
+        final var pullbackBuilder = new TransitionSystemBuilder();
 
-        // Make the mapping total. We expect that all states are reachable.
-        // ts1
-        final Set<Transition> unmappedts1Transitions = new LinkedHashSet<>(ts1.getTransitions());
-        unmappedts1Transitions.removeAll(interactions.keySet());
-        finalizeTSMapping(unmappedts1Transitions, ts1StateMapping);
+        // Determine states. The k-th pullback state is the pair of the state ids at index k.
+        final var stateIndex = new StatePairIndex();
+        final int[][] stateImages = calcPullbackStates(input, pullbackBuilder, stateIndex);
 
-        // ts2
-        final Set<Transition> unmappedts2Transitions = new LinkedHashSet<>(ts2.getTransitions());
-        unmappedts2Transitions.removeAll(interactions.values());
-        finalizeTSMapping(unmappedts2Transitions, ts2StateMapping);
+        // Determine transitions. The k-th pullback transition is the pair of the transition ids at index k.
+        final int[][] transitionImages = calcPullbackTransitions(input, stateIndex, pullbackBuilder);
 
-        final TransitionSystem coordinationInterface = coordinationInterfaceBuilder.buildWithIdleTransitions();
+        final TransitionSystem pbSystem = buildPullbackSystem(pullbackBuilder, input);
+        return new PullbackResult(
+                pullbackMorphism(pbSystem, input.getI1().getSource(), stateImages[0], transitionImages[0]),
+                pullbackMorphism(pbSystem, input.getI2().getSource(), stateImages[1], transitionImages[1]));
+    }
 
-        // Build morphisms
-        final TSMorphismBuilder ts1MappingBuilder = new TSMorphismBuilder()
-                .source(ts1)
-                .target(coordinationInterface);
-        ts1StateMapping.forEach(ts1MappingBuilder::addStateMapping);
-        ts1TransitionMapping.forEach(ts1MappingBuilder::addTransitionMapping);
+    /**
+     * Calculates only the part of the pullback which is reachable from its start state.
+     * States and transitions are created on the fly while exploring forward from the pair of start states,
+     * so unreachable product states are never built. The resulting morphisms are restrictions of the morphisms
+     * of the complete pullback.
+     */
+    public static PullbackResult calculateReachable(final Cospan input) {
+        return ReachablePullback.calculate(input);
+    }
 
-        final TSMorphismBuilder ts2MappingBuilder = new TSMorphismBuilder()
-                .source(ts2)
-                .target(coordinationInterface);
-        ts2StateMapping.forEach(ts2MappingBuilder::addStateMapping);
-        ts2TransitionMapping.forEach(ts2MappingBuilder::addTransitionMapping);
+    /**
+     * Calculates the pullback in parallel using the common {@link ForkJoinPool}.
+     * The result is the same as the one of {@link #calculate(Cospan)}.
+     */
+    public static PullbackResult calculateParallel(final Cospan input) {
+        return calculateParallel(input, ForkJoinPool.commonPool());
+    }
 
-        return new Cospan(ts1MappingBuilder.buildWithIdleTransitions(), ts2MappingBuilder.buildWithIdleTransitions());
+    /**
+     * Calculates the pullback in parallel by matching the fibers of the cospan on the given executor.
+     * The result is the same as the one of {@link #calculate(Cospan)}.
+     */
+    public static PullbackResult calculateParallel(final Cospan input, final Executor executor) {
+        return ParallelPullback.calculate(input, executor);
     }
 
-    private static void finalizeTSMapping(
-            final Set<Transition> unmappedts1Transitions,
-            final Map<State, State> ts1StateMapping) {
-        while (!unmappedts1Transitions.isEmpty()) {
-            final Set<Transition> mappedTransitions = new LinkedHashSet<>();
-            for (final Transition transition : unmappedts1Transitions) {
-                final var sourceMapped = ts1StateMapping.get(transition.getSource());
-                final var targetMapped = ts1StateMapping.get(transition.getTarget());
-                if (sourceMapped != null && targetMapped != null && !sourceMapped.equals(targetMapped)) {
-                    // TODO: think about what to do in this case.
-                    throw new TransitionSystemException("Both states mapped and not similar!");
-                }
-                if (sourceMapped != null || targetMapped == null) {
-                    // Map target to the same as source. Collapse the mapping
-                    ts1StateMapping.put(transition.getTarget(), sourceMapped);
-                    mappedTransitions.add(transition);
-                }
-                if (sourceMapped == null || targetMapped != null) {
-                    // Map source to the same as target. Collapse the mapping
-                    ts1StateMapping.put(transition.getSource(), targetMapped);
-                    mappedTransitions.add(transition);
-                }
+    private static int[][] calcPullbackTransitions(
+            final Cospan input,
+            final StatePairIndex stateIndex,
+            final TransitionSystemBuilder pullbackBuilder) {
+        final TransitionSystem i1System = input.getI1().getSource();
+        final TransitionSystem i2System = input.getI2().getSource();
+        final ImmutableIntArray.Builder m1TransitionImages = ImmutableIntArray.builder();
+        final ImmutableIntArray.Builder m2TransitionImages = ImmutableIntArray.builder();
+        // Use the transitions of the second leg grouped by their image in the cospan. Then we only pair transitions
+        // which map to the same transition instead of looping over the whole product of transitions.
+        final Fibers i2Fibers = input.getI2().getTransitionFibers();
+        final int[] i1Images = transitionImagesIn(input.getI1(), input.getI2().getTarget());
+        final boolean implicitIdleTransitions = implicitIdleLabel(input) != null;
+        final int i1StoredCount = i1System.getStoredTransitions().size();
+        final int i2StoredCount = i2System.getStoredTransitions().size();
+        for (int i1TransitionId = 0; i1TransitionId < i1Images.length; i1TransitionId++) {
+            final int image = i1Images[i1TransitionId];
+            int end = i2Fibers.getEnd(image);
+            if (implicitIdleTransitions && i1TransitionId >= i1StoredCount) {
+                // Pairs of implicit idle transitions are implied by the pullback system.
+                end = storedFiberEnd(i2Fibers, image, i2StoredCount);
+            }
+            if (i2Fibers.getStart(image) == end) {
+                continue;
+            }
+            final Transition i1transition = i1System.getTransition(i1TransitionId);
+            for (int position = i2Fibers.getStart(image); position < end; position++) {
+                final int i2TransitionId = i2Fibers.get(position);
+                final Transition i2transition = i2System.getTransition(i2TransitionId);
+                // The transition-pair is included since both map to the same transition in the cospan.
+                final State source = stateIndex.get(i1transition.getSource(), i2transition.getSource());
+                final State target = stateIndex.get(i1transition.getTarget(), i2transition.getTarget());
+                pullbackBuilder.addTransition(new Transition(
+                        source,
+                        target,
+                        Transition.tupleLabel(i1transition, i2transition)));
+                m1TransitionImages.add(i1TransitionId);
+                m2TransitionImages.add(i2TransitionId);
             }
-            assert !mappedTransitions.isEmpty(); // Otherwise we will never finish
-            unmappedts1Transitions.removeAll(mappedTransitions);
         }
+        return new int[][]{m1TransitionImages.build().toArray(), m2TransitionImages.build().toArray()};
     }
 
-    private static void createdSynchedTransition(
-            final Map<Transition, Transition> ts1TransitionMapping,
-            final Map<Transition, Transition> ts2TransitionMapping,
-            final Map<State, State> ts1StateMapping,
-            final Map<State, State> ts2StateMapping,
-            final Transition ts1Transition,
-            final Transition ts2Transition,
-            final TransitionSystemBuilder coordinationInterfaceBuilder) {
-        // Handle Source state
-        createStateIfNeeded(
-                ts1StateMapping,
-                ts2StateMapping,
-                ts1Transition.getSource(),
-                ts2Transition.getSource(),
-                coordinationInterfaceBuilder);
-        // Handle target state
-        createStateIfNeeded(
-                ts1StateMapping,
-                ts2StateMapping,
-                ts1Transition.getTarget(),
-                ts2Transition.getTarget(),
-                coordinationInterfaceBuilder);
-        // Handle transition
-        final var combinedTransition = new Transition(
-                // Since the states are mapped to the same state for ts1 and ts2 we just take ts1 here.
-                ts1StateMapping.get(ts1Transition.getSource()),
-                ts1StateMapping.get(ts1Transition.getTarget()),
-                String.format(TRANSITION_NAME_FORMAT, ts1Transition.getLabel(), ts2Transition.getLabel()));
-        coordinationInterfaceBuilder.addTransition(combinedTransition);
-
-        ts1TransitionMapping.put(ts1Transition, combinedTransition);
-        ts2TransitionMapping.put(ts2Transition, combinedTransition);
-    }
-
-    private static void createStateIfNeeded(
-            final Map<State, State> ts1StateMapping,
-            final Map<State, State> ts2StateMapping,
-            final State ts1State,
-            final State ts2State,
-            final TransitionSystemBuilder coordinationInterfaceBuilder) {
-        final var ts1EquivalentState = ts1StateMapping.get(ts1State);
-        final var ts2EquivalentState = ts2StateMapping.get(ts2State);
-        if (ts1EquivalentState == null && ts2EquivalentState == null) {
-            final var compositeState = new State(String.format(
-                    STATE_NAME_PATTERN,
-                    ts1State.getName(),
-                    ts2State.getName()));
-            ts1StateMapping.put(ts1State, compositeState);
-            ts2StateMapping.put(ts2State, compositeState);
-            coordinationInterfaceBuilder.addState(compositeState);
-        }
-        if (ts1EquivalentState != null && ts2EquivalentState != null && !ts1EquivalentState.equals(ts2EquivalentState)) {
-            throw new TransitionSystemException("Incompatible mapping detected!");
-        }
-        if (ts1EquivalentState != null && ts2EquivalentState == null) {
-            ts2StateMapping.put(ts2State, ts1EquivalentState);
+    /**
+     * Creates a morphism from the pullback system into the system of one leg of the cospan.
+     * The given transition images only cover the stored transitions of the pullback system.
+     * The images of its implicit idle transitions are the idle transitions of the images of their states.
+     * The morphism is valid by construction and therefore not validated.
+     */
+    static TSMorphism pullbackMorphism(
+            final TransitionSystem pbSystem,
+            final TransitionSystem legSystem,
+            final int[] stateImages,
+            final int[] storedTransitionImages) {
+        if (!pbSystem.hasImplicitIdleTransitions()) {
+            return TSMorphism.fromImages(
+                    pbSystem,
+                    legSystem,
+                    stateImages,
+                    storedTransitionImages,
+                    ValidationMode.DEFERRED);
         }
-        if (ts1EquivalentState == null && ts2EquivalentState != null) {
-            ts1StateMapping.put(ts1State, ts2EquivalentState);
+        final int[] transitionImages = Arrays.copyOf(
+                storedTransitionImages,
+                storedTransitionImages.length + stateImages.length);
+        for (int stateId = 0; stateId < stateImages.length; stateId++) {
+            final Transition idleTransition = legSystem.getIdleTransition(legSystem.getState(stateImages[stateId]));
+            transitionImages[storedTransitionImages.length + stateId] = legSystem.getTransitionId(idleTransition);
         }
+        return TSMorphism.fromImages(pbSystem, legSystem, stateImages, transitionImages, ValidationMode.DEFERRED);
     }
 
-    public static PullbackResult calculate(final Cospan input) {
-        final var pullbackBuilder = new TransitionSystemBuilder();
-        final TSMorphismBuilder m1Builder = new TSMorphismBuilder().target(input.getI1().getSource());
-        final TSMorphismBuilder m2Builder = new TSMorphismBuilder().target(input.getI2().getSource());
-
-        // Determine states + state mappings
-        final Pair<Map<State, State>, Map<State, State>> stateMappings = calcPullbackStates(input, pullbackBuilder);
-
-        // Determine transitions + finalize mappings
-        calcPullbackTransitions(input, stateMappings, pullbackBuilder, m1Builder, m2Builder);
+    /**
+     * Returns the state image ids of the given morphism as ids of states in the given (equal) target system.
+     */
+    static int[] stateImagesIn(final TSMorphism morphism, final TransitionSystem target) {
+        final int[] images = morphism.getStateImageIds();
+        if (morphism.getTarget() != target) {
+            // Equal systems do not need to have the same order.
+            for (int i = 0; i < images.length; i++) {
+                images[i] = target.getStateId(morphism.getTarget().getState(images[i]));
+            }
+        }
+        return images;
+    }
 
-        return new PullbackResult(m1Builder.build(), m2Builder.build());
+    /**
+     * Returns the transition image ids of the given morphism as ids of transitions in the given (equal) target
+     * system.
+     */
+    static int[] transitionImagesIn(final TSMorphism morphism, final TransitionSystem target) {
+        final int[] images = morphism.getTransitionImageIds();
+        if (morphism.getTarget() != target) {
+            // Equal systems do not need to have the same order.
+            for (int i = 0; i < images.length; i++) {
+                images[i] = target.getTransitionId(morphism.getTarget().getTransition(images[i]));
+            }
+        }
+        return images;
     }
 
-    @SuppressWarnings("OptionalGetWithoutIsPresent") // must be present
-    private static void calcPullbackTransitions(
-            final Cospan input,
-            final Pair<Map<State, State>, Map<State, State>> stateMappings,
-            final TransitionSystemBuilder pullbackBuilder,
-            final TSMorphismBuilder m1Builder,
-            final TSMorphismBuilder m2Builder) {
-        final Map<Transition, Transition> m1TransitionMap = new LinkedHashMap<>();
-        final Map<Transition, Transition> m2TransitionMap = new LinkedHashMap<>();
-        for (final Transition i1transition : input.getI1().getSource().getTransitions()) {
-            for (final Transition i2transition : input.getI2().getSource().getTransitions()) {
-                // We loop over the product of transitions, which has to be equalized now.
+    /**
+     * Returns the label symbol of the implicit idle transitions of the pullback or null if
+     * there are none.
+     * The pullback has implicit idle transitions if the systems of both legs of the cospan have them.
+     * They correspond to the pairs of implicit idle transitions.
+     */
+    static Symbol implicitIdleLabel(final Cospan input) {
+        final TransitionSystem i1System = input.getI1().getSource();
+        final TransitionSystem i2System = input.getI2().getSource();
+        if (!i1System.hasImplicitIdleTransitions() || !i2System.hasImplicitIdleTransitions()) {
+            return null;
+        }
+        return SymbolTable.getGlobal().internTuple(
+                SymbolTable.TupleKind.LABEL,
+                i1System.getImplicitIdleLabelSymbol(),
+                i2System.getImplicitIdleLabelSymbol());
+    }
 
-                // Include a transition-pair if they map to the same transition in the cospan.
-                if (input.getI1().mapTransition(i1transition).equals(input.getI2().mapTransition(i2transition))) {
-                    // could be made more efficient by iterating once and calculating 2 maps.
-                    final State source = pullbackBuilder.getStates().stream()
-                            .filter(state -> state.getName().equals(
-                                    String.format(
-                                            STATE_NAME_PATTERN,
-                                            i1transition.getSource().getName(),
-                                            i2transition.getSource().getName())))
-                            .findFirst().get();
-                    final State target = pullbackBuilder.getStates().stream()
-                            .filter(state -> state.getName().equals(
-                                    String.format(
-                                            STATE_NAME_PATTERN,
-                                            i1transition.getTarget().getName(),
-                                            i2transition.getTarget().getName())))
-                            .findFirst().get();
-                    final var pullbackTransition = new Transition(
-                            source,
-                            target,
-                            String.format(TRANSITION_NAME_FORMAT, i1transition.getLabel(), i2transition.getLabel()));
-                    pullbackBuilder.addTransition(pullbackTransition);
-                    m1TransitionMap.put(pullbackTransition, i1transition);
-                    m2TransitionMap.put(pullbackTransition, i2transition);
-                }
+    /**
+     * Returns the position after the stored transitions in the fiber of the given image, i.e., the start of its
+     * implicit idle transitions. Fibers keep the order of the transition ids, in which the implicit idle
+     * transitions come after the given number of stored transitions.
+     */
+    static int storedFiberEnd(final Fibers fibers, final int image, final int storedTransitionCount) {
+        int low = fibers.getStart(image);
+        int high = fibers.getEnd(image);
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (fibers.get(middle) < storedTransitionCount) {
+                low = middle + 1;
+            } else {
+                high = middle;
             }
         }
-        // Build PB-System
-        final TransitionSystem pbSystem = pullbackBuilder.build();
-        m1Builder.source(pbSystem);
-        m2Builder.source(pbSystem);
-        // Add state mappings for morphisms
-        stateMappings.getKey().forEach(m1Builder::addStateMapping);
-        stateMappings.getValue().forEach(m2Builder::addStateMapping);
-        // Add transition mappings (checks if state mappings are compatible)
-        m1TransitionMap.forEach(m1Builder::addTransitionMapping);
-        m2TransitionMap.forEach(m2Builder::addTransitionMapping);
+        return low;
+    }
+
+    static TransitionSystem buildPullbackSystem(final TransitionSystemBuilder pullbackBuilder, final Cospan input) {
+        final Symbol implicitIdleLabel = implicitIdleLabel(input);
+        if (implicitIdleLabel == null) {
+            return pullbackBuilder.build();
+        }
+        return pullbackBuilder.buildWithImplicitIdleTransitions(implicitIdleLabel);
     }
 
-    private static Pair<Map<State, State>, Map<State, State>> calcPullbackStates(
+    private static int[][] calcPullbackStates(
             final Cospan input,
-            final TransitionSystemBuilder pullbackBuilder) {
+            final TransitionSystemBuilder pullbackBuilder,
+            final StatePairIndex stateIndex) {
+        final TransitionSystem i1System = input.getI1().getSource();
+        final TransitionSystem i2System = input.getI2().getSource();
         var foundStartState = false;
-
-        final Map<State, State> m1_state_map = new HashMap<>();
-        final Map<State, State> m2_state_map = new HashMap<>();
-        for (final State i1state : input.getI1().getSource().getStates()) {
-            for (final State i2state : input.getI2().getSource().getStates()) {
-                // We loop over the product of states, which has to be equalized now.
-
-                // Include a state if they map to the same state in in the cospan.
-                if (input.getI1().mapState(i1state).equals(input.getI2().mapState(i2state))) {
-                    // The condition guarantees commutativity of the pullback square for states.
-                    final var pullbackState = new State(
-                            String.format(
-                                    STATE_NAME_PATTERN,
-                                    i1state.getName(),
-                                    i2state.getName()));
-                    pullbackBuilder.addState(pullbackState);
-                    m1_state_map.put(pullbackState, i1state);
-                    m2_state_map.put(pullbackState, i2state);
-                    // Setting the start state could be made smarter
-                    if (!foundStartState && input.getI1().getSource().getStartState().equals(i1state)
-                            && input.getI2().getSource().getStartState().equals(i2state)) {
-                        foundStartState = true;
-                        pullbackBuilder.startState(pullbackState);
-                    }
+        final int i1StartState = i1System.getStateId(i1System.getStartState());
+        final int i2StartState = i2System.getStateId(i2System.getStartState());
+
+        final ImmutableIntArray.Builder m1StateImages = ImmutableIntArray.builder();
+        final ImmutableIntArray.Builder m2StateImages = ImmutableIntArray.builder();
+        // The states of the second leg grouped by their image in the cospan (the fibers of the target states).
+        final Fibers i2Fibers = input.getI2().getStateFibers();
+        final int[] i1Images = stateImagesIn(input.getI1(), input.getI2().getTarget());
+        for (int i1StateId = 0; i1StateId < i1Images.length; i1StateId++) {
+            final int image = i1Images[i1StateId];
+            final State i1state = i1System.getState(i1StateId);
+            for (int position = i2Fibers.getStart(image); position < i2Fibers.getEnd(image); position++) {
+                final int i2StateId = i2Fibers.get(position);
+                final State i2state = i2System.getState(i2StateId);
+                // Both states map to the same state in the cospan.
+                // This guarantees commutativity of the pullback square for states.
+                final var pullbackState = State.tuple(i1state, i2state);
+                pullbackBuilder.addState(pullbackState);
+                m1StateImages.add(i1StateId);
+                m2StateImages.add(i2StateId);
+                stateIndex.put(i1state, i2state, pullbackState);
+                if (!foundStartState && i1StateId == i1StartState && i2StateId == i2StartState) {
+                    foundStartState = true;
+                    pullbackBuilder.startState(pullbackState);
                 }
             }
         }
         if (!foundStartState) {
             throw new TransitionSystemException("Start state mappings do not match in pullback calculation!");
         }
-        return Pair.of(m1_state_map, m2_state_map);
+        return new int[][]{m1StateImages.build().toArray(), m2StateImages.build().toArray()};
     }
 
     public TSMorphism getM1() {
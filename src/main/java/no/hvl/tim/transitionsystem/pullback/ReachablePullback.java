@@ -0,0 +1,133 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.TSMorphism;
+import no.hvl.tim.transitionsystem.Transition;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+import no.hvl.tim.transitionsystem.ValidationMode;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.util.*;
+
+/**
+ * Calculates only the part of the pullback which is reachable from the start state.
+ * The pullback is explored forward from the pair of start states using a worklist,
+ * such that unreachable product states and transitions are never created.
+ */
+class ReachablePullback {
+
+    private final Cospan input;
+    private final boolean implicitIdleTransitions;
+
+    private final TransitionSystemBuilder pullbackBuilder = new TransitionSystemBuilder();
+    private final StatePairIndex stateIndex = new StatePairIndex();
+    private final Deque<State[]> worklist = new ArrayDeque<>();
+
+    private final Map<State, State> m1StateMap = new LinkedHashMap<>();
+    private final Map<State, State> m2StateMap = new LinkedHashMap<>();
+    private final Map<Transition, Transition> m1TransitionMap = new LinkedHashMap<>();
+    private final Map<Transition, Transition> m2TransitionMap = new LinkedHashMap<>();
+
+    private ReachablePullback(final Cospan input) {
+        this.input = input;
+        this.implicitIdleTransitions = PullbackResult.implicitIdleLabel(input) != null;
+    }
+
+    static PullbackResult calculate(final Cospan input) {
+        return new ReachablePullback(input).explore();
+    }
+
+    private PullbackResult explore() {
+        final TSMorphism i1 = this.input.getI1();
+        final TSMorphism i2 = this.input.getI2();
+        final State i1StartState = i1.getSource().getStartState();
+        final State i2StartState = i2.getSource().getStartState();
+        if (!i1.mapState(i1StartState).equals(i2.mapState(i2StartState))) {
+            throw new TransitionSystemException("Start state mappings do not match in pullback calculation!");
+        }
+        this.pullbackBuilder.startState(this.createState(i1StartState, i2StartState));
+
+        while (!this.worklist.isEmpty()) {
+            final State[] statePair = this.worklist.poll();
+            this.exploreTransitions(statePair[0], statePair[1]);
+        }
+
+        final TransitionSystem pbSystem = PullbackResult.buildPullbackSystem(this.pullbackBuilder, this.input);
+        // The morphisms are valid by construction.
+        final TSMorphismBuilder m1Builder = new TSMorphismBuilder()
+                .source(pbSystem)
+                .target(i1.getSource())
+                .validation(ValidationMode.DEFERRED);
+        final TSMorphismBuilder m2Builder = new TSMorphismBuilder()
+                .source(pbSystem)
+                .target(i2.getSource())
+                .validation(ValidationMode.DEFERRED);
+        this.m1StateMap.forEach(m1Builder::addStateMapping);
+        this.m2StateMap.forEach(m2Builder::addStateMapping);
+        this.m1TransitionMap.forEach(m1Builder::addTransitionMapping);
+        this.m2TransitionMap.forEach(m2Builder::addTransitionMapping);
+        return new PullbackResult(m1Builder.build(), m2Builder.build());
+    }
+
+    /**
+     * Creates all pullback transitions leaving the pullback state of the given pair.
+     * Target states which have not been seen yet are created and added to the worklist.
+     */
+    private void exploreTransitions(final State i1State, final State i2State) {
+        final State source = this.stateIndex.get(i1State, i2State);
+        final List<Transition> i1Transitions = this.input.getI1().getSource().getOutgoingTransitions(i1State);
+        final List<Transition> i2Transitions = this.input.getI2().getSource().getOutgoingTransitions(i2State);
+        if (i1Transitions.isEmpty() || i2Transitions.isEmpty()) {
+            return;
+        }
+        // Group the outgoing transitions of the second state by their image in the cospan.
+        final Map<Transition, List<Transition>> i2TransitionsByImage = new HashMap<>();
+        for (final Transition i2Transition : i2Transitions) {
+            i2TransitionsByImage.computeIfAbsent(
+                    this.input.getI2().mapTransition(i2Transition),
+                    image -> new ArrayList<>()).add(i2Transition);
+        }
+        // The implicit idle transitions come last in the outgoing transitions and thus in their group.
+        final int i1StoredCount = this.implicitIdleTransitions ? i1Transitions.size() - 1 : i1Transitions.size();
+        final Transition i2IdleTransition = this.implicitIdleTransitions
+                ? i2Transitions.get(i2Transitions.size() - 1)
+                : null;
+        for (int i1Index = 0; i1Index < i1Transitions.size(); i1Index++) {
+            final Transition i1Transition = i1Transitions.get(i1Index);
+            List<Transition> matchingI2Transitions = i2TransitionsByImage.getOrDefault(
+                    this.input.getI1().mapTransition(i1Transition),
+                    Collections.emptyList());
+            if (i1Index >= i1StoredCount
+                    && !matchingI2Transitions.isEmpty()
+                    && matchingI2Transitions.get(matchingI2Transitions.size() - 1) == i2IdleTransition) {
+                // Pairs of implicit idle transitions are implied by the pullback system.
+                matchingI2Transitions = matchingI2Transitions.subList(0, matchingI2Transitions.size() - 1);
+            }
+            for (final Transition i2Transition : matchingI2Transitions) {
+                State target = this.stateIndex.find(i1Transition.getTarget(), i2Transition.getTarget());
+                if (target == null) {
+                    target = this.createState(i1Transition.getTarget(), i2Transition.getTarget());
+                }
+                final var pullbackTransition = new Transition(
+                        source,
+                        target,
+                        Transition.tupleLabel(i1Transition, i2Transition));
+                this.pullbackBuilder.addTransition(pullbackTransition);
+                this.m1TransitionMap.put(pullbackTransition, i1Transition);
+                this.m2TransitionMap.put(pullbackTransition, i2Transition);
+            }
+        }
+    }
+
+    private State createState(final State i1State, final State i2State) {
+        final var pullbackState = State.tuple(i1State, i2State);
+        this.pullbackBuilder.addState(pullbackState);
+        this.m1StateMap.put(pullbackState, i1State);
+        this.m2StateMap.put(pullbackState, i2State);
+        this.stateIndex.put(i1State, i2State, pullbackState);
+        this.worklist.add(new State[]{i1State, i2State});
+        return pullbackState;
+    }
+}
@@ -0,0 +1,49 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import no.hvl.tim.transitionsystem.State;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index from a pair of states (one of each cospan leg) to the corresponding state in the pullback.
+ * Lookups are two hash lookups and do not allocate.
+ */
+class StatePairIndex {
+
+    private final Map<State, Map<State, State>> index = new HashMap<>();
+
+    void put(final State i1State, final State i2State, final State pullbackState) {
+        this.index.computeIfAbsent(i1State, state -> new HashMap<>()).put(i2State, pullbackState);
+    }
+
+    void remove(final State i1State, final State i2State) {
+        final Map<State, State> i2States = this.index.get(i1State);
+        if (i2States != null) {
+            i2States.remove(i2State);
+            if (i2States.isEmpty()) {
+                this.index.remove(i1State);
+            }
+        }
+    }
+
+    State get(final State i1State, final State i2State) {
+        final State pullbackState = this.find(i1State, i2State);
+        if (pullbackState == null) {
+            throw new TransitionSystemException(String.format(
+                    "There is no pullback state for the states %s and %s!",
+                    i1State,
+                    i2State));
+        }
+        return pullbackState;
+    }
+
+    /**
+     * Returns the pullback state for the given pair or null if there is none (yet).
+     */
+    State find(final State i1State, final State i2State) {
+        final Map<State, State> i2States = this.index.get(i1State);
+        return i2States == null ? null : i2States.get(i2State);
+    }
+}
@@ -0,0 +1,282 @@
+package no.hvl.tim.transitionsystem.pushout;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The pushout of a {@link Span}, i.e., the two systems glued along their shared subsystem.
+ * States (transitions) of both systems which are images of the same state (transition) of the shared subsystem
+ * are merged. The merged classes are calculated with union-find over the states and transitions of both systems.
+ * <p>
+ * Naming: a state keeps its name if all merged states have the same name, otherwise it is named after the
+ * distinct names of the merged states, e.g., "(b, c)". Names which would be rendered like the name of another state
+ * are disambiguated by appending primes, e.g., "b'". Labels are merged using groups, e.g., "{a, b}", and
+ * transitions merged with an idle transition become idle transitions.
+ * Since transitions are identified by their source, target and label, different merged transitions with the same
+ * source, target and label end up as one transition.
+ */
+public class PushoutResult {
+
+    private final TSMorphism m1;
+    private final TSMorphism m2;
+
+    public PushoutResult(final TSMorphism m1, final TSMorphism m2) {
+        // Both morphisms end in the pushout system
+        assert m1.getTarget() == m2.getTarget();
+
+        this.m1 = m1;
+        this.m2 = m2;
+    }
+
+    public static PushoutResult calculate(final Span input) {
+        return new Pushout(input).calculate();
+    }
+
+    /**
+     * Returns the injection of the target of the first morphism of the span into the pushout system.
+     */
+    public TSMorphism getM1() {
+        return this.m1;
+    }
+
+    /**
+     * Returns the injection of the target of the second morphism of the span into the pushout system.
+     */
+    public TSMorphism getM2() {
+        return this.m2;
+    }
+
+    /**
+     * The calculation of one pushout. Elements (states or transitions) of both systems are numbered consecutively:
+     * the elements of the first system have their ids, the ones of the second system their ids shifted by the
+     * number of elements of the first system.
+     */
+    private static class Pushout {
+        private final Span input;
+        private final TransitionSystem ts1;
+        private final TransitionSystem ts2;
+        private final int ts1StateCount;
+        private final int ts1TransitionCount;
+        private final Symbol implicitIdleLabel;
+
+        Pushout(final Span input) {
+            this.input = input;
+            this.ts1 = input.getI1().getTarget();
+            this.ts2 = input.getI2().getTarget();
+            this.ts1StateCount = this.ts1.getStates().size();
+            this.ts1TransitionCount = this.ts1.getTransitions().size();
+            this.implicitIdleLabel = this.ts1.hasImplicitIdleTransitions()
+                    && this.ts2.hasImplicitIdleTransitions()
+                    && this.ts1.getImplicitIdleLabelSymbol() == this.ts2.getImplicitIdleLabelSymbol()
+                    ? this.ts1.getImplicitIdleLabelSymbol()
+                    : null;
+        }
+
+        PushoutResult calculate() {
+            final UnionFind stateClasses = new UnionFind(this.ts1StateCount + this.ts2.getStates().size());
+            final UnionFind transitionClasses = new UnionFind(
+                    this.ts1TransitionCount + this.ts2.getTransitions().size());
+            this.glue(stateClasses, transitionClasses);
+
+            // One state for each class in the order of the first state of the class
+            final var pushoutBuilder = new TransitionSystemBuilder();
+            final int[] stateClassOf = numberClasses(stateClasses);
+            final Fibers statesByClass = new Fibers(stateClassOf, classCount(stateClassOf));
+            final State[] classStates = new State[statesByClass.getImageCount()];
+            final Set<State> usedStates = new HashSet<>();
+            for (int stateClass = 0; stateClass < classStates.length; stateClass++) {
+                classStates[stateClass] = disambiguate(this.mergedState(statesByClass, stateClass), usedStates);
+                pushoutBuilder.addState(classStates[stateClass]);
+            }
+            pushoutBuilder.startState(classStates[stateClassOf[this.ts1.getStateId(this.ts1.getStartState())]]);
+
+            // One transition for each class in the order of the first transition of the class.
+            // Null for classes which are implicit idle transitions of the pushout system.
+            final int[] transitionClassOf = numberClasses(transitionClasses);
+            final Fibers transitionsByClass = new Fibers(transitionClassOf, classCount(transitionClassOf));
+            final Transition[] classTransitions = new Transition[transitionsByClass.getImageCount()];
+            for (int transitionClass = 0; transitionClass < classTransitions.length; transitionClass++) {
+                classTransitions[transitionClass] = this.mergedTransition(
+                        transitionsByClass,
+                        transitionClass,
+                        stateClassOf,
+                        classStates);
+                if (classTransitions[transitionClass] != null) {
+                    pushoutBuilder.addTransition(classTransitions[transitionClass]);
+                }
+            }
+
+            final TransitionSystem pushoutSystem;
+            if (this.implicitIdleLabel == null) {
+                pushoutSystem = pushoutBuilder.build();
+            } else {
+                pushoutSystem = pushoutBuilder.buildWithImplicitIdleTransitions(this.implicitIdleLabel);
+            }
+
+            // Injections
+            final int[] transitionImages = new int[transitionClassOf.length];
+            for (int transition = 0; transition < transitionImages.length; transition++) {
+                Transition image = classTransitions[transitionClassOf[transition]];
+                if (image == null) {
+                    final int sourceId = this.stateId(transition, this.transition(transition).getSource());
+                    image = pushoutSystem.getIdleTransition(classStates[stateClassOf[sourceId]]);
+                }
+                transitionImages[transition] = pushoutSystem.getTransitionId(image);
+            }
+            // State ids of the pushout system are the class numbers.
+            return new PushoutResult(
+                    TSMorphism.fromImages(
+                            this.ts1,
+                            pushoutSystem,
+                            Arrays.copyOfRange(stateClassOf, 0, this.ts1StateCount),
+                            Arrays.copyOfRange(transitionImages, 0, this.ts1TransitionCount),
+                            ValidationMode.DEFERRED),
+                    TSMorphism.fromImages(
+                            this.ts2,
+                            pushoutSystem,
+                            Arrays.copyOfRange(stateClassOf, this.ts1StateCount, stateClassOf.length),
+                            Arrays.copyOfRange(transitionImages, this.ts1TransitionCount, transitionImages.length),
+                            ValidationMode.DEFERRED));
+        }
+
+        /**
+         * Merges the images of each state and each transition of the shared subsystem.
+         */
+        private void glue(final UnionFind stateClasses, final UnionFind transitionClasses) {
+            final TSMorphism i1 = this.input.getI1();
+            final TSMorphism i2 = this.input.getI2();
+            for (final State state : i1.getSource().getStates()) {
+                stateClasses.union(
+                        i1.mapStateId(i1.getSource().getStateId(state)),
+                        this.ts1StateCount + i2.mapStateId(i2.getSource().getStateId(state)));
+            }
+            for (final Transition transition : i1.getSource().getTransitions()) {
+                transitionClasses.union(
+                        i1.mapTransitionId(i1.getSource().getTransitionId(transition)),
+                        this.ts1TransitionCount + i2.mapTransitionId(i2.getSource().getTransitionId(transition)));
+            }
+        }
+
+        private State mergedState(final Fibers statesByClass, final int stateClass) {
+            final Set<State> distinctStates = new LinkedHashSet<>();
+            for (int position = statesByClass.getStart(stateClass);
+                 position < statesByClass.getEnd(stateClass);
+                 position++) {
+                distinctStates.add(this.state(statesByClass.get(position)));
+            }
+            if (distinctStates.size() == 1) {
+                return distinctStates.iterator().next();
+            }
+            return State.tuple(distinctStates.toArray(new State[0]));
+        }
+
+        /**
+         * Returns the transition for the given class or null if it is an implicit idle transition of the pushout.
+         */
+        private Transition mergedTransition(
+                final Fibers transitionsByClass,
+                final int transitionClass,
+                final int[] stateClassOf,
+                final State[] classStates) {
+            final Set<Symbol> distinctLabels = new LinkedHashSet<>();
+            var idle = false;
+            for (int position = transitionsByClass.getStart(transitionClass);
+                 position < transitionsByClass.getEnd(transitionClass);
+                 position++) {
+                final int transitionId = transitionsByClass.get(position);
+                distinctLabels.add(this.transition(transitionId).getLabelSymbol());
+                idle |= this.isIdleTransition(transitionId);
+            }
+            final int representativeId = transitionsByClass.get(transitionsByClass.getStart(transitionClass));
+            final Transition representative = this.transition(representativeId);
+            final State source = classStates[stateClassOf[this.stateId(representativeId, representative.getSource())]];
+            final State target = classStates[stateClassOf[this.stateId(representativeId, representative.getTarget())]];
+            if (idle) {
+                return this.implicitIdleLabel == null
+                        ? new Transition(source, target, TransitionSystem.IDLE_LABEL_SYMBOL)
+                        : null;
+            }
+            if (distinctLabels.size() == 1) {
+                return new Transition(source, target, representative.getLabelSymbol());
+            }
+            return new Transition(
+                    source,
+                    target,
+                    SymbolTable.getGlobal().internTuple(
+                            SymbolTable.TupleKind.GROUP,
+                            distinctLabels.toArray(new Symbol[0])));
+        }
+
+        private boolean isIdleTransition(final int transitionId) {
+            final TransitionSystem system = transitionId < this.ts1TransitionCount ? this.ts1 : this.ts2;
+            final Transition transition = this.transition(transitionId);
+            return system.isImplicitIdleTransition(transition)
+                    || transition.getSource().equals(transition.getTarget())
+                    && transition.getLabelSymbol() == TransitionSystem.IDLE_LABEL_SYMBOL;
+        }
+
+        private State state(final int stateId) {
+            return stateId < this.ts1StateCount
+                    ? this.ts1.getState(stateId)
+                    : this.ts2.getState(stateId - this.ts1StateCount);
+        }
+
+        private Transition transition(final int transitionId) {
+            return transitionId < this.ts1TransitionCount
+                    ? this.ts1.getTransition(transitionId)
+                    : this.ts2.getTransition(transitionId - this.ts1TransitionCount);
+        }
+
+        /**
+         * Returns the id of the given state of the system of the transition with the given id.
+         */
+        private int stateId(final int transitionId, final State state) {
+            return transitionId < this.ts1TransitionCount
+                    ? this.ts1.getStateId(state)
+                    : this.ts1StateCount + this.ts2.getStateId(state);
+        }
+    }
+
+    /**
+     * Numbers the classes in the order of their first element and returns the class number of each element.
+     */
+    private static int[] numberClasses(final UnionFind classes) {
+        final int[] classNumbers = new int[classes.size()];
+        Arrays.fill(classNumbers, -1);
+        final int[] classOf = new int[classes.size()];
+        var classCount = 0;
+        for (int element = 0; element < classes.size(); element++) {
+            final int representative = classes.find(element);
+            if (classNumbers[representative] < 0) {
+                classNumbers[representative] = classCount++;
+            }
+            classOf[element] = classNumbers[representative];
+        }
+        return classOf;
+    }
+
+    private static int classCount(final int[] classOf) {
+        return Arrays.stream(classOf).max().orElse(-1) + 1;
+    }
+
+    /**
+     * Appends primes to the name of the given state until it is not used yet.
+     */
+    private static State disambiguate(final State state, final Set<State> usedStates) {
+        if (usedStates.add(state)) {
+            return state;
+        }
+        String name = state.getName();
+        State disambiguated;
+        do {
+            name += "'";
+            disambiguated = new State(name);
+        } while (!usedStates.add(disambiguated));
+        return disambiguated;
+    }
+}
@@ -0,0 +1,27 @@
+package no.hvl.tim.transitionsystem.pushout;
+
+import no.hvl.tim.transitionsystem.TSMorphism;
+
+/**
+ * Two morphisms with a common source, i.e., a shared subsystem and how it is embedded into two systems.
+ */
+public class Span {
+    private final TSMorphism i1;
+    private final TSMorphism i2;
+
+    public Span(final TSMorphism i1, final TSMorphism i2) {
+        // Both morphisms start in the same system
+        assert i1.getSource().equals(i2.getSource());
+
+        this.i1 = i1;
+        this.i2 = i2;
+    }
+
+    public TSMorphism getI1() {
+        return this.i1;
+    }
+
+    public TSMorphism getI2() {
+        return this.i2;
+    }
+}
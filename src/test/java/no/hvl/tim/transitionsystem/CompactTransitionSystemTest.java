@@ -0,0 +1,65 @@
+package no.hvl.tim.transitionsystem;
+
+import no.hvl.tim.transitionsystem.builder.CompactTransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class CompactTransitionSystemTest {
+
+    @Test
+    void convertsToAndFromTransitionSystem() {
+        final State red = new State("red");
+        final State green = new State("green");
+        final State amber = new State("amber");
+        final TransitionSystem trafficLight = new TransitionSystemBuilder()
+                .startState(red)
+                .addTransition(new Transition(red, green, "turn green"))
+                .addTransition(new Transition(green, amber, "turn amber"))
+                .addTransition(new Transition(amber, red, "turn red"))
+                .buildWithIdleTransitions();
+
+        final CompactTransitionSystem compact = CompactTransitionSystem.of(trafficLight);
+        assertThat(compact.getStateCount(), is(3));
+        assertThat(compact.getTransitionCount(), is(6));
+        // "turn green", "turn amber", "turn red" and "*"
+        assertThat(compact.getLabelCount(), is(4));
+        assertThat(compact.getStateName(compact.getStartState()), is("red"));
+
+        final TransitionSystem converted = compact.toTransitionSystem();
+        assertThat(converted, is(trafficLight));
+        assertThat(converted.getStartState(), is(red));
+        // Order of states and transitions is kept
+        assertThat(converted.toString(), is(trafficLight.toString()));
+    }
+
+    @Test
+    void outgoingTransitionsInCSRForm() {
+        final CompactTransitionSystemBuilder builder = new CompactTransitionSystemBuilder();
+        builder.startState("s0")
+               .addTransition("s1", "b", "s2")
+               .addTransition("s0", "a", "s1")
+               .addTransition("s1", "c", "s0")
+               .addTransition("s0", "a", "s2");
+        final CompactTransitionSystem compact = builder.build();
+
+        final int s0 = 0;
+        final int s1 = 1;
+        final int s2 = 2;
+        assertThat(compact.getStateName(s1), is("s1"));
+        assertThat(compact.getOutDegree(s0), is(2));
+        assertThat(compact.getOutDegree(s1), is(2));
+        assertThat(compact.getOutDegree(s2), is(0));
+        // Outgoing transitions keep the order in which the transitions were added.
+        assertThat(compact.getOutgoingTransition(s0, 0), is(1));
+        assertThat(compact.getOutgoingTransition(s0, 1), is(3));
+        assertThat(compact.getOutgoingTransition(s1, 0), is(0));
+        assertThat(compact.getOutgoingTransition(s1, 1), is(2));
+        // The label "a" is only stored once
+        assertThat(compact.getTransitionLabel(1), is(compact.getTransitionLabel(3)));
+        assertThat(compact.getLabel(compact.getTransitionLabel(3)), is("a"));
+        assertThat(compact.getTransitionTarget(3), is(s2));
+    }
+}
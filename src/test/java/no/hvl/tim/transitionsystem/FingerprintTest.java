@@ -0,0 +1,61 @@
+package no.hvl.tim.transitionsystem;
+
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class FingerprintTest {
+
+    @Test
+    void equalSystemsHaveEqualFingerprints() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final Transition a = new Transition(s1, s2, "a");
+        final Transition b = new Transition(s2, s1, "b");
+        // Different insertion order
+        final TransitionSystem system = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .addTransition(b)
+                .buildWithIdleTransitions();
+        final TransitionSystem sameSystem = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(b)
+                .addTransition(a)
+                .buildWithImplicitIdleTransitions();
+        final TransitionSystem otherSystem = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .buildWithIdleTransitions();
+
+        assertThat(system.getFingerprint(), is(sameSystem.getFingerprint()));
+        assertThat(system, is(sameSystem));
+        assertThat(system.hashCode(), is(sameSystem.hashCode()));
+        assertThat(system.getFingerprint(), not(otherSystem.getFingerprint()));
+        assertThat(system, not(otherSystem));
+    }
+
+    @Test
+    void fingerprintsCanBeUpdatedIncrementally() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final Transition a = new Transition(s1, s2, "a");
+        final TransitionSystem withoutA = new TransitionSystemBuilder()
+                .startState(s1)
+                .addState(s2)
+                .build();
+        final TransitionSystem withA = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .build();
+
+        assertThat(withoutA.getFingerprint().add(Fingerprint.of(a)), is(withA.getFingerprint()));
+        assertThat(withA.getFingerprint().subtract(Fingerprint.of(a)), is(withoutA.getFingerprint()));
+        assertThat(
+                Fingerprint.EMPTY.add(Fingerprint.of(s1)).add(Fingerprint.of(s2)),
+                is(withoutA.getFingerprint()));
+    }
+}
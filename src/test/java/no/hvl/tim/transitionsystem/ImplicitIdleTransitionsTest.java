@@ -0,0 +1,105 @@
+package no.hvl.tim.transitionsystem;
+
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImplicitIdleTransitionsTest implements TransitionSystemTestHelper {
+
+    @Test
+    void implicitIdleTransitionsBehaveLikeStoredOnes() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final Transition a = new Transition(s1, s2, "a");
+        final TransitionSystem implicit = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .buildWithImplicitIdleTransitions();
+        final TransitionSystem explicit = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .buildWithIdleTransitions();
+
+        assertTrue(implicit.hasImplicitIdleTransitions());
+        final Transition s2Idle = new Transition(s2, s2, TransitionSystem.IDLE_LABEL);
+        assertTrue(implicit.isImplicitIdleTransition(s2Idle));
+        assertTrue(implicit.getTransitions().contains(s2Idle));
+        assertThat(implicit.getTransitions().size(), is(3));
+        assertThat(implicit.getIdleTransition(s2), is(s2Idle));
+        assertThat(implicit.getOutgoingTransitions(s1).size(), is(2));
+        assertThat(implicit, is(explicit));
+        assertThat(implicit.toString(), is(explicit.toString()));
+
+        // Idle transitions are created once and come after the stored transitions.
+        assertThat(implicit.getStoredTransitions().size(), is(1));
+        final Transition idle = implicit.getIdleTransition(s2);
+        assertThat(implicit.getOutgoingTransitions(s2).get(0), sameInstance(idle));
+        assertThat(implicit.getIncomingTransitions(s2).get(1), sameInstance(idle));
+        assertThat(implicit.getTransition(implicit.getTransitionId(s2Idle)), sameInstance(idle));
+        assertThat(implicit.getTransitionId(s2Idle), is(2));
+        assertThat(implicit.getTransitions().stream().filter(s2Idle::equals).findFirst().get(), sameInstance(idle));
+
+        final TSMorphism identity = new TSMorphismBuilder()
+                .source(implicit)
+                .target(explicit)
+                .addTransitionMapping(a, a)
+                .buildWithIdleTransitions();
+        assertThat(identity.mapTransition(s2Idle), is(s2Idle));
+        assertThat(identity.getTransitionMapping().size(), is(3));
+    }
+
+    @Test
+    void pullbackOfImplicitIdleTransitions() {
+        // Build left side transition system
+        final State a = new State("A");
+        final State bl = new State("B");
+        final State cl = new State("C");
+        final Transition abl = new Transition(a, bl, "ab");
+        final Transition blcl = new Transition(bl, cl, "bc");
+        final TransitionSystem left_ts = new TransitionSystemBuilder()
+                .startState(a)
+                .addTransition(abl)
+                .addTransition(blcl)
+                .buildWithImplicitIdleTransitions();
+
+        // Build right side transition system
+        final State br = new State("B");
+        final State cr = new State("C");
+        final State d = new State("D");
+        final Transition brcr = new Transition(br, cr, "bc");
+        final Transition crd = new Transition(cr, d, "cd");
+        final TransitionSystem right_ts = new TransitionSystemBuilder()
+                .startState(br)
+                .addTransition(brcr)
+                .addTransition(crd)
+                .buildWithImplicitIdleTransitions();
+
+        final Map<Transition, Transition> coordinationsPairs = new LinkedHashMap<>();
+        coordinationsPairs.put(blcl, brcr);
+        final Cospan coordinatedTSs = PullbackResult.calcCoordinationInterface(left_ts, right_ts, coordinationsPairs);
+        assertTrue(coordinatedTSs.getI1().getTarget().hasImplicitIdleTransitions());
+
+        final PullbackResult result = PullbackResult.calculate(coordinatedTSs);
+        this.checkABCPullback(result);
+        final TransitionSystem pullbackSystem = result.getM1().getSource();
+        assertTrue(pullbackSystem.hasImplicitIdleTransitions());
+        assertThat(pullbackSystem.getImplicitIdleLabel(), is("<*, *>"));
+        // Idle transitions of the pullback are mapped to idle transitions of both systems.
+        final Transition pullbackIdle = this.getTransitionForLabel(pullbackSystem, "<*, *>");
+        assertTrue(left_ts.isImplicitIdleTransition(result.getM1().mapTransition(pullbackIdle)));
+        assertTrue(right_ts.isImplicitIdleTransition(result.getM2().mapTransition(pullbackIdle)));
+
+        this.checkABCPullback(PullbackResult.calculateParallel(coordinatedTSs));
+        assertThat(PullbackResult.calculateReachable(coordinatedTSs).getM1().getSource(), is(pullbackSystem));
+    }
+}
@@ -0,0 +1,141 @@
+package no.hvl.tim.transitionsystem;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SymbolTableTest {
+
+    @Test
+    void equalNamesShareOneSymbol() {
+        final SymbolTable symbols = new SymbolTable();
+        final Symbol red = symbols.intern("red");
+        assertThat(symbols.intern(new String("red")), is(red));
+        final Symbol green = symbols.intern("green");
+        assertThat(green, not(red));
+        assertThat(red.render(), is("red"));
+        assertThat(symbols.size(), is(2));
+
+        assertThat(new State("red"), is(new State("red")));
+        assertThat(new State("red").getSymbol(), is(SymbolTable.getGlobal().intern("red")));
+    }
+
+    @Test
+    void tuplesAreRenderedOnDemand() {
+        final SymbolTable symbols = new SymbolTable();
+        final Symbol a = symbols.intern("a");
+        final Symbol b = symbols.intern("b");
+        final Symbol pair = symbols.internTuple(SymbolTable.TupleKind.STATE, a, b);
+        final Symbol nested = symbols.internTuple(SymbolTable.TupleKind.LABEL, pair, a);
+
+        assertThat(symbols.internTuple(SymbolTable.TupleKind.STATE, a, b), is(pair));
+        assertThat(symbols.internTuple(SymbolTable.TupleKind.LABEL, a, b), not(pair));
+        assertThat(pair.render(), is("(a, b)"));
+        assertThat(nested.render(), is("<(a, b), a>"));
+        assertTrue(nested.isTuple());
+        assertThat(nested.getTupleKind(), is(SymbolTable.TupleKind.LABEL));
+        assertThat(nested.getTupleComponents()[0], is(pair));
+        // Names in the form of a tuple are that tuple.
+        assertThat(symbols.intern("(a, b)"), is(pair));
+        assertThat(symbols.intern("<(a, b), a>"), is(nested));
+        assertThrows(TransitionSystemException.class, a::getTupleComponents);
+    }
+
+    @Test
+    void compositeStatesAndLabels() {
+        final State red = new State("red");
+        final State cross = new State("cross");
+        final State composite = State.tuple(red, cross);
+        assertThat(composite.getName(), is("(red, cross)"));
+        assertThat(composite, is(State.tuple(new State("red"), new State("cross"))));
+        assertThat(composite, not(State.tuple(cross, red)));
+
+        final Transition turnGreen = new Transition(red, red, "turn green");
+        final Transition idle = new Transition(cross, cross, TransitionSystem.IDLE_LABEL);
+        final var compositeTransition = new Transition(composite, composite, Transition.tupleLabel(turnGreen, idle));
+        assertThat(compositeTransition.getLabel(), is("<turn green, *>"));
+        assertThat(compositeTransition.toString(), is("(red, cross) --<turn green, *>--> (red, cross)"));
+    }
+
+    @Test
+    void renderedNamesAreInternedAsTheirSymbol() {
+        final SymbolTable symbols = new SymbolTable();
+        final Symbol a = symbols.intern("a");
+        final Symbol pair = symbols.internTuple(SymbolTable.TupleKind.STATE, a, symbols.intern("f(x)"));
+        final Symbol label = symbols.internTuple(
+                SymbolTable.TupleKind.LABEL,
+                symbols.internTuple(SymbolTable.TupleKind.GROUP, symbols.intern("a->b"), a),
+                pair);
+
+        for (final Symbol symbol : new Symbol[]{pair, label}) {
+            assertThat(symbols.intern(symbol.render()), is(symbol));
+        }
+        for (final String name : new String[]{"()", "(a", "a, b", "(a<b, c", "(a) (b"}) {
+            assertThat(symbols.intern(name).render(), is(name));
+        }
+        assertThat(symbols.intern("(a, b").isTuple(), is(false));
+        assertThat(pair.render(), is("(a, \"f(x)\")"));
+
+        // Pullback states equal the states which are named like them.
+        assertThat(State.tuple(new State("red"), new State("cross")), is(new State("(red, cross)")));
+    }
+
+    @Test
+    void equallyRenderedSymbolsAreEqual() {
+        final State abc = State.tuple(new State("a, b"), new State("c"));
+        final State aBc = State.tuple(new State("a"), new State("b, c"));
+        final State named = new State("(a, b, c)");
+        assertThat(abc.getName(), is("(\"a, b\", c)"));
+        assertThat(aBc.getName(), is("(a, \"b, c\")"));
+        assertThat(named.getName(), is("(a, b, c)"));
+        assertThat(abc, not(aBc));
+        assertThat(abc, not(named));
+        assertThat(new State(abc.getName()), is(abc));
+        assertThat(new State(aBc.getName()), is(aBc));
+
+        // Quotes and backslashes in quoted components are escaped, empty names are quoted.
+        final State escaped = State.tuple(new State("say \"hi\""), new State("a\\b"), new State(""), new State("d"));
+        assertThat(escaped.getName(), is("(\"say \\\"hi\\\"\", \"a\\\\b\", \"\", d)"));
+        assertThat(new State(escaped.getName()), is(escaped));
+        // A quoted tuple is an atomic name.
+        final State quotedTuple = State.tuple(new State("(a, b)"), new State("c"));
+        assertThat(quotedTuple.getName(), is("((a, b), c)"));
+        assertThat(new State("(\"(a, b)\", c)").getName(), is("(\"(a, b)\", c)"));
+
+        final SymbolTable symbols = new SymbolTable();
+        // Names which are not rendered like tuples are atomic.
+        for (final String name : new String[]{"(a, (b)", "(a, , b)", "(a,b)", "(a, \"b\")", "(\"a, b)", "(a, b) "}) {
+            assertThat(symbols.intern(name).isTuple(), is(false));
+            assertThat(symbols.intern(name).render(), is(name));
+        }
+    }
+
+    @Test
+    void unreferencedSymbolsAreCollected() throws InterruptedException {
+        final SymbolTable symbols = new SymbolTable();
+        final Symbol kept = symbols.intern("kept");
+        final Symbol keptPair = symbols.internTuple(SymbolTable.TupleKind.STATE, kept, symbols.intern("(a, b)"));
+        int lastId = 0;
+        for (int i = 0; i < 1000; i++) {
+            symbols.internTuple(SymbolTable.TupleKind.LABEL, kept, symbols.intern("garbage " + i));
+            lastId = symbols.intern("(garbage, " + i + ")").getId();
+        }
+
+        // Tuples are collected before their components, so this may take several collections.
+        for (int attempt = 0; attempt < 50 && symbols.size() > 5; attempt++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(symbols.size(), is(5));
+        assertThat(symbols.intern("kept"), sameInstance(kept));
+        assertThat(symbols.intern("(kept, (a, b))"), sameInstance(keptPair));
+        // Ids of collected symbols are reused.
+        assertTrue(symbols.intern("new").getId() < lastId);
+    }
+}
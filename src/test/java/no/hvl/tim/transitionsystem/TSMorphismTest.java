@@ -91,4 +91,174 @@ class TSMorphismTest {
         transitionMapping2.put(s, t32);
         assertThrows(RuntimeException.class, () -> new TSMorphism(source, target, stateMapping, transitionMapping2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void validationModes() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final Transition s = new Transition(s1, s2, "t");
+        final TransitionSystem source = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(s)
+                .build();
+        final State t1 = new State("t1");
+        final State t2 = new State("t2");
+        final State t3 = new State("t3");
+        final Transition t13 = new Transition(t1, t3, "t13");
+        final TransitionSystem target = new TransitionSystemBuilder()
+                .startState(t1)
+                .addState(t2)
+                .addTransition(t13)
+                .build();
+        final Map<State, State> stateMapping = new HashMap<>();
+        stateMapping.put(s1, t1);
+        stateMapping.put(s2, t2);
+        // Wrong target after mapping
+        final Map<Transition, Transition> transitionMapping = new HashMap<>();
+        transitionMapping.put(s, t13);
+
+        for (final ValidationMode mode : Lists.newArrayList(
+                ValidationMode.FULL,
+                ValidationMode.SAMPLED,
+                ValidationMode.PARALLEL)) {
+            assertThrows(
+                    TransitionSystemException.class,
+                    () -> new TSMorphism(source, target, stateMapping, transitionMapping, mode));
+        }
+        final TSMorphism deferred = new TSMorphism(
+                source,
+                target,
+                stateMapping,
+                transitionMapping,
+                ValidationMode.DEFERRED);
+        assertThrows(TransitionSystemException.class, deferred::validate);
+    }
+
+    @Test
+    void sampledValidationChecksAtMost64Mappings() {
+        for (final int count : new int[]{0, 1, 63, 64, 65, 127, 128, 129, 10_000, Integer.MAX_VALUE}) {
+            final int stride = TSMorphism.sampleStride(count, 64);
+            final long checked = ((long) count + stride - 1) / stride;
+            assertThat(checked <= 64, is(true));
+            assertThat(count <= 64 ? stride == 1 : checked > 32, is(true));
+        }
+        assertThat(TSMorphism.sampleStride(127, 64), is(2));
+        assertThat(TSMorphism.sampleStride(127, Integer.MAX_VALUE), is(1));
+    }
+
+    @Test
+    void arrayBackedMorphismMatchesMapBasedMorphism() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final State t1 = new State("t1");
+        final State t2 = new State("t2");
+        final Transition a = new Transition(s1, s2, "a");
+        final Transition b = new Transition(s2, s2, "b");
+        final Transition c = new Transition(t1, t2, "c");
+        final TransitionSystem source = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .addTransition(b)
+                .buildWithIdleTransitions();
+        final TransitionSystem target = new TransitionSystemBuilder()
+                .startState(t1)
+                .addTransition(c)
+                .buildWithIdleTransitions();
+        final TSMorphism mapBased = new TSMorphismBuilder()
+                .source(source)
+                .target(target)
+                .addTransitionMapping(a, c)
+                .addStateMapping(s2, t2)
+                .buildWithIdleTransitions();
+
+        final TSMorphism arrayBased = TSMorphism.fromImages(
+                source,
+                target,
+                mapBased.getStateImageIds(),
+                mapBased.getTransitionImageIds());
+
+        assertThat(arrayBased.getStateMapping(), is(mapBased.getStateMapping()));
+        assertThat(arrayBased.getTransitionMapping(), is(mapBased.getTransitionMapping()));
+        assertThat(arrayBased.mapTransition(b), is(target.getIdleTransition(t2)));
+        assertThat(
+                arrayBased.mapStateId(source.getStateId(s2)),
+                is(target.getStateId(t2)));
+        assertThat(
+                arrayBased.mapTransitionId(source.getTransitionId(a)),
+                is(target.getTransitionId(c)));
+        assertThrows(
+                TransitionSystemException.class,
+                () -> TSMorphism.fromImages(source, target, new int[0], mapBased.getTransitionImageIds()));
+    }
+
+    @Test
+    void fibersOfStatesAndTransitions() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final State s3 = new State("s3");
+        final State t1 = new State("t1");
+        final State t2 = new State("t2");
+        final State t3 = new State("t3");
+        final Transition a = new Transition(s1, s2, "a");
+        final Transition b = new Transition(s2, s3, "b");
+        final Transition c = new Transition(t1, t2, "c");
+        final TransitionSystem source = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .addTransition(b)
+                .buildWithIdleTransitions();
+        final TransitionSystem target = new TransitionSystemBuilder()
+                .startState(t1)
+                .addTransition(c)
+                .addState(t3)
+                .buildWithIdleTransitions();
+        final TSMorphism morphism = new TSMorphismBuilder()
+                .source(source)
+                .target(target)
+                .addTransitionMapping(a, c)
+                .addStateMapping(s3, t2)
+                .buildWithIdleTransitions();
+
+        assertThat(morphism.getStateFiber(t1), is(Lists.newArrayList(s1)));
+        assertThat(morphism.getStateFiber(t2), is(Lists.newArrayList(s2, s3)));
+        assertThat(morphism.getStateFiber(t3), is(Lists.newArrayList()));
+        assertThat(morphism.getTransitionFiber(c), is(Lists.newArrayList(a)));
+        assertThat(
+                morphism.getTransitionFiber(target.getIdleTransition(t2)),
+                is(Lists.newArrayList(b, source.getIdleTransition(s2), source.getIdleTransition(s3))));
+
+        final FiberStatistics stateStatistics = morphism.getStateFibers().getStatistics();
+        assertThat(stateStatistics.getFiberCount(), is(3));
+        assertThat(stateStatistics.getNonEmptyFiberCount(), is(2));
+        assertThat(stateStatistics.getMaxFiberSize(), is(2));
+        assertThat(stateStatistics.getAverageFiberSize(), is(1.5));
+        assertThat(stateStatistics.isSurjective(), is(false));
+        assertThat(morphism.isSurjective(), is(false));
+        assertThrows(TransitionSystemException.class, () -> morphism.getStateFiber(new State("unknown")));
+    }
+
+    @Test
+    void invalidImageIdsAreRejected() {
+        final State s1 = new State("s1");
+        final State t1 = new State("t1");
+        final TransitionSystem source = new TransitionSystemBuilder().startState(s1).buildWithIdleTransitions();
+        final TransitionSystem target = new TransitionSystemBuilder().startState(t1).buildWithIdleTransitions();
+
+        assertThrows(
+                TransitionSystemException.class,
+                () -> TSMorphism.fromImages(source, target, new int[]{1}, new int[]{0}, ValidationMode.DEFERRED));
+        assertThrows(
+                TransitionSystemException.class,
+                () -> TSMorphism.fromImages(source, target, new int[]{0}, new int[]{-1}, ValidationMode.DEFERRED));
+
+        // Images which are missing in the target have no id, so they have no fiber.
+        final Map<State, State> stateMapping = new HashMap<>();
+        stateMapping.put(s1, new State("unknown"));
+        final Map<Transition, Transition> transitionMapping = new HashMap<>();
+        transitionMapping.put(source.getIdleTransition(s1), target.getIdleTransition(t1));
+        final var morphism = new TSMorphism(source, target, stateMapping, transitionMapping, ValidationMode.DEFERRED);
+        assertThat(morphism.mapStateId(0), is(-1));
+        assertThrows(TransitionSystemException.class, morphism::getStateFibers);
+        assertThat(morphism.getTransitionFibers().getFiberSize(0), is(1));
+    }
+}
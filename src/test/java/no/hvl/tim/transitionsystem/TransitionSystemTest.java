@@ -0,0 +1,89 @@
+package no.hvl.tim.transitionsystem;
+
+import com.google.common.collect.Lists;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransitionSystemTest {
+
+    @Test
+    void outgoingIncomingAndIdleTransitions() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final State s3 = new State("s3");
+        final Transition a = new Transition(s1, s2, "a");
+        final Transition b = new Transition(s1, s3, "b");
+        final Transition c = new Transition(s2, s3, "c");
+        final TransitionSystem system = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(a)
+                .addTransition(b)
+                .addTransition(c)
+                .buildWithIdleTransitions();
+
+        final Transition s1Idle = new Transition(s1, s1, TransitionSystem.IDLE_LABEL);
+        final Transition s3Idle = new Transition(s3, s3, TransitionSystem.IDLE_LABEL);
+        assertThat(system.getOutgoingTransitions(s1), is(Lists.newArrayList(a, b, s1Idle)));
+        assertThat(system.getIncomingTransitions(s3), is(Lists.newArrayList(b, c, s3Idle)));
+        assertThat(system.getIdleTransition(s1), is(s1Idle));
+        assertThat(system.getIdleTransition(s3), is(s3Idle));
+    }
+
+    @Test
+    void missingIdleTransition() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final TransitionSystem system = new TransitionSystemBuilder()
+                .startState(s1)
+                .addTransition(new Transition(s1, s2, "a"))
+                .build();
+
+        assertThat(system.getOutgoingTransitions(s2), is(Collections.emptyList()));
+        assertThrows(TransitionSystemException.class, () -> system.getIdleTransition(s1));
+    }
+
+    @Test
+    void toStringIsLimited() {
+        final var builder = new TransitionSystemBuilder().startState(new State("s0"));
+        for (int state = 1; state <= TransitionSystem.TO_STRING_LIMIT + 10; state++) {
+            builder.addTransition(new Transition(new State("s" + (state - 1)), new State("s" + state), "a"));
+        }
+        final String string = builder.build().toString();
+
+        assertThat(string.endsWith("s999 --a--> s1000\n... 10 more"), is(true));
+        assertThat(string.contains("s1001"), is(false));
+    }
+
+    @Test
+    void builtSystemIsNotChangedByTheBuilder() {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2");
+        final State s3 = new State("s3");
+        final Transition a = new Transition(s1, s2, "a");
+        final var builder = new TransitionSystemBuilder().startState(s1).addTransition(a);
+        final TransitionSystem system = builder.build();
+        final int fingerprint = system.hashCode();
+
+        builder.addTransition(new Transition(s2, s3, "b"));
+        final TransitionSystem extended = builder.build();
+        final TransitionSystem withIdleTransitions = builder.buildWithIdleTransitions();
+        // Drops the stored idle transitions in the builder
+        builder.buildWithImplicitIdleTransitions();
+
+        assertThat(system.getStates().size(), is(2));
+        assertThat(system.getTransitions().size(), is(1));
+        assertThat(system.getStateId(s3), is(-1));
+        assertThat(system.hashCode(), is(fingerprint));
+        assertThat(system.equals(new TransitionSystemBuilder().startState(s1).addTransition(a).build()), is(true));
+        assertThat(extended.getTransitions().size(), is(2));
+        assertThat(extended.getStateId(s3), is(2));
+        assertThat(withIdleTransitions.getTransitions().size(), is(5));
+        assertThat(withIdleTransitions.getIdleTransition(s3), is(new Transition(s3, s3, TransitionSystem.IDLE_LABEL)));
+    }
+}
@@ -0,0 +1,43 @@
+package no.hvl.tim.transitionsystem.builder;
+
+import no.hvl.tim.transitionsystem.*;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class TSMorphismBuilderTest implements TransitionSystemTestHelper {
+
+    @Test
+    void equalStatesCanBeMappedMoreThanOnce() {
+        final State p = new State("p");
+        final State q = new State("q");
+        final Transition pq = new Transition(p, q, "a");
+        final Transition qp = new Transition(q, p, "b");
+        final TransitionSystem source = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(pq)
+                .addTransition(qp)
+                .buildWithIdleTransitions();
+        // Each transition of the target has its own but equal instances of x and y.
+        final Transition xy = new Transition(new State("x"), new State("y"), "a");
+        final Transition yx = new Transition(new State("y"), new State("x"), "b");
+        final TransitionSystem target = new TransitionSystemBuilder()
+                .startState(xy.getSource())
+                .addTransition(xy)
+                .addTransition(yx)
+                .buildWithIdleTransitions();
+
+        // Both transition mappings map q to an instance of y.
+        final TSMorphism morphism = new TSMorphismBuilder()
+                .source(source)
+                .target(target)
+                .addTransitionMapping(pq, xy)
+                .addTransitionMapping(qp, yx)
+                .buildWithIdleTransitions();
+
+        this.expectStateMapping(morphism, "q", "y");
+        this.expectStateMapping(morphism, "p", "x");
+        morphism.validate();
+    }
+}
@@ -1,9 +1,12 @@
 package no.hvl.tim.transitionsystem.coordinationInterface;
 
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import no.hvl.tim.transitionsystem.State;
 import no.hvl.tim.transitionsystem.Transition;
 import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
 import no.hvl.tim.transitionsystem.TransitionSystemTestHelper;
 import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
 import no.hvl.tim.transitionsystem.pullback.Cospan;
@@ -16,6 +19,7 @@ import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 class CoordinationInterfaceTest implements TransitionSystemTestHelper {
@@ -148,4 +152,153 @@ class CoordinationInterfaceTest implements TransitionSystemTestHelper {
         final PullbackResult result = PullbackResult.calculate(coordinatedTSs);
         this.checkABCPullback(result);
     }
+
+    @Test
+    void calcCoordinationInterfaceMergesInteractionStates() {
+        // Build left side transition system
+        final State l0 = new State("L0");
+        final State l1 = new State("L1");
+        final State l2 = new State("L2");
+        final State l3 = new State("L3");
+        final Transition i1 = new Transition(l0, l1, "i1");
+        final Transition n = new Transition(l1, l2, "n");
+        final Transition i2 = new Transition(l2, l3, "i2");
+        this.left.startState(l0)
+                .addTransition(i1)
+                .addTransition(n)
+                .addTransition(i2);
+        final TransitionSystem left_ts = this.left.buildWithIdleTransitions();
+
+        // Build right side transition system
+        final State r0 = new State("R0");
+        final State r1 = new State("R1");
+        final State r2 = new State("R2");
+        final State r3 = new State("R3");
+        final Transition j1 = new Transition(r0, r1, "j1");
+        final Transition m = new Transition(r1, r2, "m");
+        final Transition j2 = new Transition(r2, r3, "j2");
+        this.right.startState(r0)
+                .addTransition(j1)
+                .addTransition(m)
+                .addTransition(j2);
+        final TransitionSystem right_ts = this.right.buildWithIdleTransitions();
+
+        final Map<Transition, Transition> coordinationsPairs = new LinkedHashMap<>();
+        coordinationsPairs.put(i1, j1);
+        coordinationsPairs.put(i2, j2);
+
+        // (L1, R1) and (L2, R2) are merged by the non-interacting transitions n and m.
+        final Cospan coordinatedTSs = PullbackResult.calcCoordinationInterface(left_ts, right_ts, coordinationsPairs);
+        final TransitionSystem coordinationSystem = coordinatedTSs.getI1().getTarget();
+        assertThat(
+                this.getStateNamesForTS(coordinationSystem),
+                is(Sets.newHashSet("(L0, R0)", "(L1, R1)", "(L3, R3)")));
+        this.expectTransitionWithLabelFromTo(coordinationSystem, "(L0, R0)", "(L1, R1)", "<i1, j1>");
+        this.expectTransitionWithLabelFromTo(coordinationSystem, "(L1, R1)", "(L3, R3)", "<i2, j2>");
+        this.expectStateMapping(coordinatedTSs.getI1(), "L2", "(L1, R1)");
+        this.expectStateMapping(coordinatedTSs.getI2(), "R2", "(L1, R1)");
+    }
+
+    @Test
+    void calcCoordinationInterfaceReportsAllUnmappedStates() {
+        final State l0 = new State("L0");
+        final State l1 = new State("L1");
+        final State z1 = new State("Z1");
+        final State z2 = new State("Z2");
+        final Transition i = new Transition(l0, l1, "i");
+        this.left.startState(l0)
+                .addTransition(i)
+                .addTransition(new Transition(z1, z2, "z"));
+        final TransitionSystem left_ts = this.left.buildWithIdleTransitions();
+
+        final State r0 = new State("R0");
+        final State r1 = new State("R1");
+        final Transition j = new Transition(r0, r1, "j");
+        this.right.startState(r0).addTransition(j);
+        final TransitionSystem right_ts = this.right.buildWithIdleTransitions();
+
+        final Map<Transition, Transition> coordinationsPairs = new LinkedHashMap<>();
+        coordinationsPairs.put(i, j);
+
+        final TransitionSystemException exception = assertThrows(
+                TransitionSystemException.class,
+                () -> PullbackResult.calcCoordinationInterface(left_ts, right_ts, coordinationsPairs));
+        assertThat(exception.getMessage().contains("[Z1, Z2]"), is(true));
+    }
+
+    @Test
+    void calcCoordinationInterfaceForManyToManyInteractions() {
+        final State l0 = new State("L0");
+        final State l1 = new State("L1");
+        final Transition a = new Transition(l0, l1, "a");
+        this.left.startState(l0).addTransition(a);
+        final TransitionSystem left_ts = this.left.buildWithIdleTransitions();
+
+        final State r0 = new State("R0");
+        final State r1 = new State("R1");
+        final Transition b = new Transition(r0, r1, "b");
+        final Transition c = new Transition(r0, r1, "c");
+        this.right.startState(r0)
+                .addTransition(b)
+                .addTransition(c);
+        final TransitionSystem right_ts = this.right.buildWithIdleTransitions();
+
+        final Multimap<Transition, Transition> interactions = LinkedHashMultimap.create();
+        interactions.put(a, b);
+        interactions.put(a, c);
+
+        final Cospan coordinatedTSs = PullbackResult.calcCoordinationInterface(left_ts, right_ts, interactions);
+        final TransitionSystem coordinationSystem = coordinatedTSs.getI1().getTarget();
+        assertThat(
+                this.getStateNamesForTS(coordinationSystem),
+                is(Sets.newHashSet("(L0, R0)", "(L1, R1)")));
+        // 1 Transition for the group (and 2 idle transitions)
+        assertThat(coordinationSystem.getTransitions().size(), is(3));
+        this.expectTransitionWithLabelFromTo(coordinationSystem, "(L0, R0)", "(L1, R1)", "<a, {b, c}>");
+        assertThat(coordinatedTSs.getI2().mapTransition(b), is(coordinatedTSs.getI2().mapTransition(c)));
+
+        // The pullback contains both synchronisations
+        final TransitionSystem pullbackSystem = PullbackResult.calculate(coordinatedTSs).getM1().getSource();
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(L0, R0)", "(L1, R1)", "<a, b>");
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(L0, R0)", "(L1, R1)", "<a, c>");
+    }
+
+    @Test
+    void calcCoordinationInterfaceRejectsIncompleteInteractionGroups() {
+        final State l0 = new State("L0");
+        final State l1 = new State("L1");
+        final Transition a = new Transition(l0, l1, "a");
+        final Transition d = new Transition(l0, l1, "d");
+        this.left.startState(l0)
+                .addTransition(a)
+                .addTransition(d);
+        final TransitionSystem left_ts = this.left.buildWithIdleTransitions();
+
+        final State r0 = new State("R0");
+        final State r1 = new State("R1");
+        final Transition b = new Transition(r0, r1, "b");
+        final Transition c = new Transition(r0, r1, "c");
+        this.right.startState(r0)
+                .addTransition(b)
+                .addTransition(c);
+        final TransitionSystem right_ts = this.right.buildWithIdleTransitions();
+
+        // d and b are connected through c, but do not interact.
+        final Multimap<Transition, Transition> interactions = LinkedHashMultimap.create();
+        interactions.put(a, b);
+        interactions.put(a, c);
+        interactions.put(d, c);
+
+        final TransitionSystemException exception = assertThrows(
+                TransitionSystemException.class,
+                () -> PullbackResult.calcCoordinationInterface(left_ts, right_ts, interactions));
+        assertThat(exception.getMessage().contains("[" + d + " with " + b + "]"), is(true));
+
+        // Completing the group is accepted and synchronises exactly the requested pairs.
+        interactions.put(d, b);
+        final Cospan coordinatedTSs = PullbackResult.calcCoordinationInterface(left_ts, right_ts, interactions);
+        final TransitionSystem pullbackSystem = PullbackResult.calculate(coordinatedTSs).getM1().getSource();
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(L0, R0)", "(L1, R1)", "<d, b>");
+        assertThat(pullbackSystem.getTransitions().size(), is(4 + 2));
+    }
 }
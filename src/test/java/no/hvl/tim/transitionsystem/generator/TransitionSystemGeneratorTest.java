@@ -0,0 +1,80 @@
+package no.hvl.tim.transitionsystem.generator;
+
+import com.google.common.collect.Sets;
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class TransitionSystemGeneratorTest implements TransitionSystemTestHelper {
+
+    @Test
+    void shapes() {
+        final var generator = new TransitionSystemGenerator(42);
+
+        final TransitionSystem chain = generator.chain("c", 3);
+        assertThat(this.getStateNamesForTS(chain), is(Sets.newHashSet("c0", "c1", "c2")));
+        // Two transitions and three idle transitions
+        assertThat(chain.getTransitions().size(), is(5));
+
+        final TransitionSystem ring = generator.implicitIdleTransitions(true).ring("r", 4);
+        assertThat(ring.hasImplicitIdleTransitions(), is(true));
+        this.expectTransitionWithLabelFromTo(ring, "r3", "r0", "r3");
+
+        final TransitionSystem grid = generator.grid("g", 3, 2);
+        assertThat(grid.getStates().size(), is(6));
+        assertThat(grid.getOutgoingTransitions(new State("g1_0")).size(), is(3));
+        this.expectTransitionWithLabelFromTo(grid, "g2_0", "g2_1", "down");
+    }
+
+    @Test
+    void randomGraphsAreSeeded() {
+        final TransitionSystem graph = new TransitionSystemGenerator(7)
+                .randomGraph("s", 1000, DegreeDistribution.powerLaw(2.0, 50), 5);
+        final TransitionSystem sameSeed = new TransitionSystemGenerator(7)
+                .randomGraph("s", 1000, DegreeDistribution.powerLaw(2.0, 50), 5);
+
+        assertThat(graph, is(sameSeed));
+        assertThat(graph.getStates().size(), is(1000));
+        for (final State state : graph.getStates()) {
+            // Idle transition and 1 to 50 generated ones
+            assertThat(graph.getOutgoingTransitions(state).size() <= 51, is(true));
+        }
+    }
+
+    @Test
+    void scaledExamples() {
+        final var generator = new TransitionSystemGenerator(1);
+
+        // The original ABCD example
+        final PullbackResult abcd = PullbackResult.calculate(generator.abcd(3, 2));
+        assertThat(
+                this.getStateNamesForTS(abcd.getM1().getSource()),
+                is(Sets.newHashSet("(s0, s1)", "(s1, s1)", "(s2, s2)", "(s2, s3)")));
+
+        final Cospan trafficLight = generator.trafficLight(100, 10);
+        // The light is in one of 10 segments between two synchronisations.
+        assertThat(trafficLight.getI1().getTarget().getStates().size(), is(10));
+        final TransitionSystem pullbackSystem = PullbackResult.calculate(trafficLight).getM1().getSource();
+        assertThat(pullbackSystem.getStates().size(), is(100));
+    }
+
+    @Test
+    void fiberedCospan() {
+        final Cospan cospan = new TransitionSystemGenerator(3)
+                .implicitIdleTransitions(true)
+                .fiberedCospan(5, 3, 0.5);
+        cospan.getI1().validate();
+        cospan.getI2().validate();
+        final FiberStatistics statistics = cospan.getI1().getStateFibers().getStatistics();
+        assertThat(statistics.getMaxFiberSize(), is(3));
+        assertThat(statistics.getNonEmptyFiberCount(), is(5));
+
+        final PullbackResult result = PullbackResult.calculate(cospan);
+        assertThat(result.getM1().getSource().getStates().size(), is(5 * 3 * 3));
+        result.getM1().validate();
+    }
+}
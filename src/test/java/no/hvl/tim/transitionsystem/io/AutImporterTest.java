@@ -0,0 +1,68 @@
+package no.hvl.tim.transitionsystem.io;
+
+import com.google.common.collect.Sets;
+import no.hvl.tim.transitionsystem.CompactTransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+import no.hvl.tim.transitionsystem.TransitionSystemTestHelper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AutImporterTest implements TransitionSystemTestHelper {
+
+    private static final String AUT = "des (1, 3, 3)\n"
+            + "(0, \"a, b\", 1)\n"
+            + "(1, c , 2)\n"
+            + "(2, \"d\", 0)\n";
+
+    @Test
+    void readTransitionSystem() throws IOException {
+        final TransitionSystem system = AutImporter.read(channel(AUT));
+
+        assertThat(this.getStateNamesForTS(system), is(Sets.newHashSet("0", "1", "2")));
+        assertThat(system.getStartState().getName(), is("1"));
+        // The idle transitions are implicit.
+        assertThat(system.getImplicitIdleLabel(), is(TransitionSystem.IDLE_LABEL));
+        assertThat(system.getTransitions().size(), is(6));
+        this.expectTransitionWithLabelFromTo(system, "0", "1", "a, b");
+        this.expectTransitionWithLabelFromTo(system, "1", "2", "c");
+        this.expectTransitionWithLabelFromTo(system, "2", "0", "d");
+    }
+
+    @Test
+    void readCompactTransitionSystem() throws IOException {
+        final CompactTransitionSystem compact = AutImporter.readCompact(channel(AUT));
+
+        assertThat(compact.toTransitionSystem(), is(AutImporter.read(channel(AUT), false)));
+    }
+
+    @Test
+    void reportsErrorsWithLine() {
+        final TransitionSystemException exception = assertThrows(
+                TransitionSystemException.class,
+                () -> AutImporter.read(channel("des (0, 2, 2)\n(0, a, 1)\n(1, b, 2)\n")));
+        assertThat(exception.getMessage(), is("The state 2 is not below the number of states 2 in line 3!"));
+        assertThrows(TransitionSystemException.class, () -> AutImporter.read(channel("des (0, 2, 2)\n(0, a, 1)\n")));
+    }
+
+    @Test
+    void statesAreCreatedWhenReferred() throws IOException {
+        final TransitionSystem system = AutImporter.read(channel("des (0, 1, 2000000000)\n(0, a, 1999999999)\n"), false);
+
+        assertThat(this.getStateNamesForTS(system), is(Sets.newHashSet("0", "1999999999")));
+        this.expectTransitionWithLabelFromTo(system, "0", "1999999999", "a");
+    }
+
+    private static ReadableByteChannel channel(final String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
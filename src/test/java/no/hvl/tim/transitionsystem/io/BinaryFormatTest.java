@@ -0,0 +1,171 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.pullback.Cospan;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryFormatTest implements TransitionSystemTestHelper {
+
+    @Test
+    void pullbackResultRoundTrip() throws IOException {
+        final PullbackResult result = PullbackResult.calculate(this.buildABCDCospan());
+        final var out = new ByteArrayOutputStream();
+        BinaryWriter.write(result, out);
+
+        final BinaryReader reader = BinaryReader.read(new ByteArrayInputStream(out.toByteArray()));
+        assertThat(reader.getContent(), is(BinaryFormat.Content.PULLBACK_RESULT));
+        // The pullback system and both systems of the cospan
+        assertThat(reader.getSystemCount(), is(3));
+        final PullbackResult read = reader.readPullbackResult();
+        this.checkABCPullback(read);
+        this.expectSameMorphism(read.getM1(), result.getM1());
+        this.expectSameMorphism(read.getM2(), result.getM2());
+        // The pullback system is shared by both morphisms
+        assertSame(read.getM1().getSource(), read.getM2().getSource());
+        read.getM1().validate();
+
+        assertThrows(TransitionSystemException.class, reader::readCospan);
+    }
+
+    @Test
+    void mappedCospanRoundTrip() throws IOException {
+        final Cospan cospan = this.buildABCDCospan();
+        final Path file = Files.createTempFile("cospan", ".tsbf");
+        try {
+            BinaryWriter.write(cospan, file);
+            final Cospan read = BinaryReader.map(file).readCospan();
+            this.expectSameMorphism(read.getI1(), cospan.getI1());
+            this.expectSameMorphism(read.getI2(), cospan.getI2());
+            assertSame(read.getI1().getTarget(), read.getI2().getTarget());
+            // The interface has implicit idle transitions
+            assertThat(read.getI1().getTarget().getImplicitIdleLabel(), is(cospan.getI1().getTarget().getImplicitIdleLabel()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void systemRoundTrip() throws IOException {
+        final State s1 = new State("s1");
+        final State s2 = new State("s2 ü");
+        final TransitionSystem system = new TransitionSystemBuilder()
+                .startState(s2)
+                .addTransition(new Transition(s2, s1, "a"))
+                .addTransition(new Transition(s1, s2, "b"))
+                .buildWithIdleTransitions();
+        final var out = new ByteArrayOutputStream();
+        BinaryWriter.write(system, out);
+
+        final TransitionSystem read = BinaryReader.read(new ByteArrayInputStream(out.toByteArray()))
+                .readTransitionSystem();
+        assertThat(read, is(system));
+        assertThat(read.getStartState(), is(s2));
+        // Ids are kept
+        for (int id = 0; id < system.getTransitions().size(); id++) {
+            assertThat(read.getTransition(id), is(system.getTransition(id)));
+        }
+
+        final byte[] bytes = out.toByteArray();
+        bytes[0] = 0;
+        assertThrows(
+                TransitionSystemException.class,
+                () -> BinaryReader.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void sectionsSplitAcrossBuffers() throws IOException {
+        final PullbackResult result = PullbackResult.calculate(this.buildABCDCospan());
+        final Path file = Files.createTempFile("pullback", ".tsbf");
+        try {
+            BinaryWriter.write(result, file);
+            for (final BinaryReader reader : List.of(
+                    BinaryReader.read(new ByteArrayInputStream(Files.readAllBytes(file)), 5),
+                    BinaryReader.map(file, 7))) {
+                final PullbackResult read = reader.readPullbackResult();
+                this.checkABCPullback(read);
+                this.expectSameMorphism(read.getM1(), result.getM1());
+                this.expectSameMorphism(read.getM2(), result.getM2());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void truncatedOrCorruptFilesAreRejected() throws IOException {
+        final var out = new ByteArrayOutputStream();
+        BinaryWriter.write(PullbackResult.calculate(this.buildABCDCospan()), out);
+        final byte[] bytes = out.toByteArray();
+
+        for (int length = 0; length < bytes.length; length++) {
+            final byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(TransitionSystemException.class, () -> this.readAll(truncated));
+        }
+        // Each changed byte is either harmless or reported.
+        for (int position = 0; position < bytes.length; position++) {
+            final byte[] corrupt = bytes.clone();
+            corrupt[position] = (byte) 0xFF;
+            try {
+                this.readAll(corrupt);
+            } catch (final TransitionSystemException e) {
+                // Expected for most positions
+            }
+        }
+    }
+
+    /**
+     * Reads the given file and decodes all its systems and morphisms.
+     */
+    private void readAll(final byte[] bytes) throws IOException {
+        final BinaryReader reader = BinaryReader.read(new ByteArrayInputStream(bytes));
+        for (int index = 0; index < reader.getSystemCount(); index++) {
+            reader.getSystem(index);
+        }
+        for (int index = 0; index < reader.getMorphismCount(); index++) {
+            reader.getMorphism(index);
+        }
+    }
+
+    private void expectSameMorphism(final TSMorphism actual, final TSMorphism expected) {
+        assertThat(actual.getSource(), is(expected.getSource()));
+        assertThat(actual.getTarget(), is(expected.getTarget()));
+        assertThat(actual.getStateMapping(), is(expected.getStateMapping()));
+        assertThat(actual.getTransitionMapping(), is(expected.getTransitionMapping()));
+    }
+
+    private Cospan buildABCDCospan() {
+        final State a = new State("A");
+        final State bl = new State("B");
+        final State cl = new State("C");
+        final Transition blcl = new Transition(bl, cl, "bc");
+        final TransitionSystem left = new TransitionSystemBuilder()
+                .startState(a)
+                .addTransition(new Transition(a, bl, "ab"))
+                .addTransition(blcl)
+                .buildWithImplicitIdleTransitions();
+        final State d = new State("D");
+        final TransitionSystem right = new TransitionSystemBuilder()
+                .startState(bl)
+                .addTransition(blcl)
+                .addTransition(new Transition(cl, d, "cd"))
+                .buildWithImplicitIdleTransitions();
+        return PullbackResult.calcCoordinationInterface(left, right, Map.of(blcl, blcl));
+    }
+}
@@ -0,0 +1,79 @@
+package no.hvl.tim.transitionsystem.io;
+
+import com.google.common.collect.Sets;
+import no.hvl.tim.transitionsystem.TransitionSystem;
+import no.hvl.tim.transitionsystem.TransitionSystemException;
+import no.hvl.tim.transitionsystem.TransitionSystemTestHelper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DotImporterTest implements TransitionSystemTestHelper {
+
+    @Test
+    void readTransitionSystem() throws IOException {
+        final TransitionSystem system = DotImporter.read(channel("// Traffic light\n"
+                + "digraph light {\n"
+                + "    rankdir=LR; node [shape=circle]\n"
+                + "    __start [shape=point]\n"
+                + "    red -> \"red-amber\" [label=\"go\", color=red] \"red-amber\" -> green [label=go]\n"
+                + "    green -> amber -> red [label=stop];\n"
+                + "    /* Lonely state */ off\n"
+                + "    __start -> green\n"
+                + "}\n"));
+
+        assertThat(
+                this.getStateNamesForTS(system),
+                is(Sets.newHashSet("red", "red-amber", "green", "amber", "off")));
+        assertThat(system.getStartState().getName(), is("green"));
+        // 4 transitions and the implicit idle transitions of the 5 states
+        assertThat(system.getTransitions().size(), is(9));
+        this.expectTransitionWithLabelFromTo(system, "red", "red-amber", "go");
+        this.expectTransitionWithLabelFromTo(system, "red-amber", "green", "go");
+        this.expectTransitionWithLabelFromTo(system, "green", "amber", "stop");
+        this.expectTransitionWithLabelFromTo(system, "amber", "red", "stop");
+    }
+
+    @Test
+    void firstStateIsStartStateByDefault() throws IOException {
+        final TransitionSystem system = DotImporter.read(channel("digraph { s1 -> s2 [label=a]; s2 -> s1 }"));
+
+        assertThat(system.getStartState().getName(), is("s1"));
+        this.expectTransitionWithLabelFromTo(system, "s2", "s1", "");
+    }
+
+    @Test
+    void defaultEdgeLabelsAreApplied() throws IOException {
+        final TransitionSystem system = DotImporter.read(channel("digraph {\n"
+                + "    a -> b\n"
+                + "    edge [label=x]\n"
+                + "    b -> c; c -> a [label=y]\n"
+                + "    edge [color=red]\n"
+                + "    a -> c\n"
+                + "}\n"));
+
+        this.expectTransitionWithLabelFromTo(system, "a", "b", "");
+        this.expectTransitionWithLabelFromTo(system, "b", "c", "x");
+        this.expectTransitionWithLabelFromTo(system, "c", "a", "y");
+        this.expectTransitionWithLabelFromTo(system, "a", "c", "x");
+    }
+
+    @Test
+    void rejectsUndirectedGraphs() {
+        assertThrows(TransitionSystemException.class, () -> DotImporter.read(channel("graph { a -- b }")));
+        assertThrows(TransitionSystemException.class, () -> DotImporter.read(channel("digraph { a -- b }")));
+        assertThrows(TransitionSystemException.class, () -> DotImporter.read(channel("digraph { a -> }")));
+    }
+
+    private static ReadableByteChannel channel(final String content) {
+        return Channels.newChannel(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
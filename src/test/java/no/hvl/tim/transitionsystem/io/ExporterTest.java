@@ -0,0 +1,194 @@
+package no.hvl.tim.transitionsystem.io;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.pullback.PullbackResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExporterTest implements TransitionSystemTestHelper {
+
+    private TransitionSystem system;
+
+    @BeforeEach
+    void setUp() {
+        final State red = new State("red");
+        final State green = new State("\"green\", really");
+        this.system = new TransitionSystemBuilder()
+                .startState(green)
+                .addTransition(new Transition(red, green, "go"))
+                .addTransition(new Transition(green, red, "stop, now"))
+                .buildWithImplicitIdleTransitions();
+    }
+
+    @Test
+    void dotRoundTrip() throws IOException {
+        final var out = new ByteArrayOutputStream();
+        final WritableByteChannel channel = Channels.newChannel(out);
+        DotExporter.write(this.system, channel);
+
+        final TransitionSystem read = DotImporter.read(
+                Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+        // Idle transitions are implicit again after the round trip.
+        assertThat(read, is(this.system));
+        assertThat(read.hasImplicitIdleTransitions(), is(true));
+        assertThat(read.getStartState(), is(this.system.getStartState()));
+    }
+
+    @Test
+    void dotRejectsStateNamedLikeTheStartMarker() {
+        final State start = new State(DotImporter.START_NODE);
+        final TransitionSystem marked = new TransitionSystemBuilder()
+                .startState(new State("s0"))
+                .addTransition(new Transition(new State("s0"), start, "a"))
+                .build();
+
+        final var out = new StringWriter();
+        assertThrows(TransitionSystemException.class, () -> DotExporter.write(marked, out));
+        assertThat(out.toString(), is(""));
+    }
+
+    @Test
+    void autRoundTrip() throws IOException {
+        final var out = new StringWriter();
+        AutExporter.write(this.system, out);
+
+        assertThat(out.toString(), is("des (0, 4, 2)\n"
+                + "(1, \"go\", 0)\n"
+                + "(0, \"stop, now\", 1)\n"
+                + "(0, \"*\", 0)\n"
+                + "(1, \"*\", 1)\n"));
+        final TransitionSystem read = AutImporter.read(Channels.newChannel(new ByteArrayInputStream(
+                out.toString().getBytes())));
+        assertThat(read.getTransitions().size(), is(4));
+        this.expectTransitionWithLabelFromTo(read, "0", "1", "stop, now");
+    }
+
+    @Test
+    void escapedNamesAndLabelsRoundTrip() throws IOException {
+        final State backslash = new State("a\\b");
+        final State quoted = new State("\\\"c\\\"");
+        final TransitionSystem escaped = new TransitionSystemBuilder()
+                .startState(backslash)
+                .addTransition(new Transition(backslash, quoted, "x\\\"y\\"))
+                .addTransition(new Transition(quoted, backslash, "line\nbreak"))
+                .buildWithIdleTransitions();
+
+        final var dotOut = new StringWriter();
+        DotExporter.write(escaped, dotOut);
+        final TransitionSystem dotRead = DotImporter.read(Channels.newChannel(new ByteArrayInputStream(
+                dotOut.toString().getBytes(StandardCharsets.UTF_8))));
+        assertThat(dotRead, is(escaped));
+
+        final var autOut = new StringWriter();
+        AutExporter.write(escaped, autOut);
+        assertThat(autOut.toString().lines().skip(1).findFirst().orElseThrow(), is("(0, \"x\\\\\\\"y\\\\\", 1)"));
+        final TransitionSystem autRead = AutImporter.read(Channels.newChannel(new ByteArrayInputStream(
+                autOut.toString().getBytes(StandardCharsets.UTF_8))));
+        this.expectTransitionWithLabelFromTo(autRead, "0", "1", "x\\\"y\\");
+        this.expectTransitionWithLabelFromTo(autRead, "1", "0", "line\nbreak");
+    }
+
+    @Test
+    void pullbackRoundTrip() throws IOException {
+        // Tuple names and labels of the pullback are read back as tuples.
+        final State a = new State("A");
+        final State b = new State("B");
+        final State c = new State("C");
+        final Transition bc = new Transition(b, c, "bc");
+        final TransitionSystem left = new TransitionSystemBuilder()
+                .startState(a)
+                .addTransition(new Transition(a, b, "ab"))
+                .addTransition(bc)
+                .buildWithIdleTransitions();
+        final TransitionSystem right = new TransitionSystemBuilder()
+                .startState(b)
+                .addTransition(bc)
+                .addTransition(new Transition(c, new State("D"), "cd"))
+                .buildWithIdleTransitions();
+        final TransitionSystem pullbackSystem = PullbackResult.calculate(
+                PullbackResult.calcCoordinationInterface(left, right, Map.of(bc, bc))).getM1().getSource();
+
+        final var dotOut = new StringWriter();
+        DotExporter.write(pullbackSystem, dotOut);
+        final TransitionSystem dotRead = DotImporter.read(
+                Channels.newChannel(new ByteArrayInputStream(dotOut.toString().getBytes(StandardCharsets.UTF_8))),
+                false);
+        assertThat(dotRead, is(pullbackSystem));
+        assertThat(dotRead.getStartState(), is(pullbackSystem.getStartState()));
+
+        final var autOut = new StringWriter();
+        AutExporter.write(pullbackSystem, autOut);
+        final TransitionSystem autRead = AutImporter.read(
+                Channels.newChannel(new ByteArrayInputStream(autOut.toString().getBytes(StandardCharsets.UTF_8))),
+                false);
+        for (int id = 0; id < pullbackSystem.getTransitions().size(); id++) {
+            assertThat(
+                    autRead.getTransition(id).getLabelSymbol(),
+                    is(pullbackSystem.getTransition(id).getLabelSymbol()));
+        }
+    }
+
+    @Test
+    void tuplesOfNamesWithCommasRoundTrip() throws IOException {
+        final State abc = State.tuple(new State("a, b"), new State("c"));
+        final State aBc = State.tuple(new State("a"), new State("b, c"));
+        final TransitionSystem tuples = new TransitionSystemBuilder()
+                .startState(abc)
+                .addTransition(new Transition(abc, aBc, "x"))
+                .addTransition(new Transition(aBc, new State("(a, b, c)"), "y"))
+                .buildWithIdleTransitions();
+
+        final var out = new StringWriter();
+        DotExporter.write(tuples, out);
+        final TransitionSystem read = DotImporter.read(Channels.newChannel(new ByteArrayInputStream(
+                out.toString().getBytes(StandardCharsets.UTF_8))));
+        assertThat(read, is(tuples));
+        assertThat(read.getStates().size(), is(3));
+    }
+
+    @Test
+    void csvOfSystemAndMorphism() throws IOException {
+        final var systemOut = new StringWriter();
+        CsvExporter.write(this.system, systemOut);
+        assertThat(systemOut.toString(), is("source,label,target\r\n"
+                + "red,go,\"\"\"green\"\", really\"\r\n"
+                + "\"\"\"green\"\", really\",\"stop, now\",red\r\n"
+                + "\"\"\"green\"\", really\",*,\"\"\"green\"\", really\"\r\n"
+                + "red,*,red\r\n"));
+
+        final State light = new State("light");
+        final TransitionSystem target = new TransitionSystemBuilder()
+                .startState(light)
+                .buildWithIdleTransitions();
+        final TSMorphism morphism = new TSMorphismBuilder()
+                .source(this.system)
+                .target(target)
+                .addStateMapping(this.system.getStartState(), light)
+                .addStateMapping(new State("red"), light)
+                .addTransitionMappingToIdle(this.getTransitionForLabel(this.system, "go"), light)
+                .addTransitionMappingToIdle(this.getTransitionForLabel(this.system, "stop, now"), light)
+                .buildWithIdleTransitions();
+        final var morphismOut = new StringWriter();
+        CsvExporter.write(morphism, morphismOut);
+        final String[] lines = morphismOut.toString().split("\r\n");
+        assertThat(lines.length, is(7));
+        assertThat(lines[0], is("element,source,label,target,image source,image label,image target"));
+        assertThat(lines[2], is("state,red,,,light,,"));
+        assertThat(lines[3], is("transition,red,go,\"\"\"green\"\", really\",light,*,light"));
+    }
+}
@@ -0,0 +1,252 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import com.google.common.collect.Sets;
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.generator.TransitionSystemGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalPullbackTest implements TransitionSystemTestHelper {
+
+    private TransitionSystem interfaceSystem;
+    private Transition go;
+    private State t0;
+    private State t1;
+
+    @BeforeEach
+    void setUp() {
+        this.t0 = new State("t0");
+        this.t1 = new State("t1");
+        this.go = new Transition(this.t0, this.t1, "go");
+        this.interfaceSystem = new TransitionSystemBuilder()
+                .startState(this.t0)
+                .addTransition(this.go)
+                .buildWithIdleTransitions();
+    }
+
+    @Test
+    void deltasMatchFullCalculation() {
+        final IncrementalPullback pullback = new IncrementalPullback(new Cospan(
+                this.buildComponent("1"),
+                this.buildComponent("2")));
+        this.expectFullCalculation(pullback);
+
+        // A new state r1 over t1 with a local loop
+        final State q1 = new State("q1");
+        final State r1 = new State("r1");
+        pullback.addState(IncrementalPullback.Leg.I1, r1, this.t1);
+        pullback.addTransition(
+                IncrementalPullback.Leg.I1,
+                new Transition(q1, r1, "move1"),
+                this.interfaceSystem.getIdleTransition(this.t1));
+        this.expectFullCalculation(pullback);
+        assertThat(
+                this.getStateNamesForTS(pullback.snapshot().getM1().getSource()),
+                is(Sets.newHashSet("(p1, p2)", "(q1, q2)", "(r1, q2)")));
+        this.expectTransitionWithLabelFromTo(
+                pullback.snapshot().getM1().getSource(),
+                "(q1, q2)",
+                "(r1, q2)",
+                "<move1, *>");
+
+        // A second way from p2 to q2
+        final Transition jump = new Transition(new State("p2"), new State("q2"), "jump2");
+        pullback.addTransition(IncrementalPullback.Leg.I2, jump, this.go);
+        this.expectFullCalculation(pullback);
+        this.expectTransitionWithLabelFromTo(
+                pullback.snapshot().getM1().getSource(),
+                "(p1, p2)",
+                "(q1, q2)",
+                "<go, jump2>");
+
+        pullback.removeState(IncrementalPullback.Leg.I1, r1);
+        pullback.removeTransition(IncrementalPullback.Leg.I2, jump);
+        this.expectFullCalculation(pullback);
+        assertThat(pullback.snapshot().getM1().getSource().getTransitions().size(), is(6));
+    }
+
+    @Test
+    void invalidDeltas() {
+        final IncrementalPullback pullback = new IncrementalPullback(new Cospan(
+                this.buildComponent("1"),
+                this.buildComponent("2")));
+
+        assertThrows(
+                TransitionSystemException.class,
+                () -> pullback.removeState(IncrementalPullback.Leg.I1, new State("p1")));
+        assertThrows(
+                TransitionSystemException.class,
+                () -> pullback.addState(IncrementalPullback.Leg.I2, new State("q2"), this.t1));
+        // The states are not mapped to the states of the image
+        assertThrows(
+                TransitionSystemException.class,
+                () -> pullback.remapTransition(
+                        IncrementalPullback.Leg.I1,
+                        this.getTransitionForLabel(pullback.getCospan().getI1().getSource(), "go"),
+                        this.interfaceSystem.getIdleTransition(this.t0)));
+        assertThrows(
+                TransitionSystemException.class,
+                () -> pullback.addTransition(
+                        IncrementalPullback.Leg.I2,
+                        new Transition(new State("q2"), new State("q2"), "back"),
+                        this.go));
+        this.expectFullCalculation(pullback);
+    }
+
+    @Test
+    void deltasWithImplicitIdleTransitions() {
+        final State a = new State("A");
+        final State bl = new State("B");
+        final Transition abl = new Transition(a, bl, "ab");
+        final TransitionSystem left = new TransitionSystemBuilder()
+                .startState(a)
+                .addTransition(abl)
+                .buildWithImplicitIdleTransitions();
+        final State br = new State("B");
+        final State d = new State("D");
+        final TransitionSystem right = new TransitionSystemBuilder()
+                .startState(br)
+                .addTransition(new Transition(br, d, "bd"))
+                .buildWithImplicitIdleTransitions();
+        final IncrementalPullback pullback = new IncrementalPullback(
+                PullbackResult.calcCoordinationInterface(left, right, Map.of()));
+        this.expectFullCalculation(pullback);
+
+        // Synchronise a new transition of the left system with the transition of the right system
+        final State cl = new State("C");
+        final TransitionSystem interfaceSystem = pullback.getCospan().getI1().getTarget();
+        final Transition bdImage = pullback.getCospan().getI2().mapTransition(new Transition(br, d, "bd"));
+        pullback.addState(IncrementalPullback.Leg.I1, cl, bdImage.getTarget());
+        pullback.addTransition(IncrementalPullback.Leg.I1, new Transition(bl, cl, "bc"), bdImage);
+        this.expectFullCalculation(pullback);
+        assertTrue(pullback.snapshot().getM1().getSource().hasImplicitIdleTransitions());
+        this.expectTransitionWithLabelFromTo(pullback.snapshot().getM1().getSource(), "(B, B)", "(C, D)", "<bc, bd>");
+        assertTrue(interfaceSystem.hasImplicitIdleTransitions());
+
+        pullback.removeState(IncrementalPullback.Leg.I2, d);
+        this.expectFullCalculation(pullback);
+    }
+
+    @Test
+    void manyRemovalsAndReadditions() {
+        final Cospan cospan = new TransitionSystemGenerator(7).fiberedCospan(30, 3, 0.5);
+        final IncrementalPullback pullback = new IncrementalPullback(cospan);
+        final TSMorphism i2 = cospan.getI2();
+        final List<State> removed = new ArrayList<>();
+        for (final State state : i2.getSource().getStates()) {
+            if (!state.equals(i2.getSource().getStartState()) && removed.size() < 70) {
+                pullback.removeState(IncrementalPullback.Leg.I2, state);
+                removed.add(state);
+            }
+        }
+        // Most slots are empty now.
+        this.expectFullCalculation(pullback);
+
+        for (final State state : removed.subList(0, 20)) {
+            pullback.addState(IncrementalPullback.Leg.I2, state, i2.mapState(state));
+        }
+        for (final Transition transition : i2.getSource().getTransitions()) {
+            if (!removed.subList(20, removed.size()).contains(transition.getSource())
+                    && !removed.subList(20, removed.size()).contains(transition.getTarget())
+                    && !pullback.getCospan().getI2().getSource().getTransitions().contains(transition)) {
+                pullback.addTransition(IncrementalPullback.Leg.I2, transition, i2.mapTransition(transition));
+            }
+        }
+        this.expectFullCalculation(pullback);
+    }
+
+    @Test
+    void changesFollowThePullback() {
+        final Cospan cospan = new TransitionSystemGenerator(3).implicitIdleTransitions(true).fiberedCospan(20, 3, 0.5);
+        final IncrementalPullback pullback = new IncrementalPullback(cospan);
+        assertTrue(pullback.pollChanges().isEmpty());
+        final TransitionSystem initial = pullback.snapshot().getM1().getSource();
+        final Set<State> states = new HashSet<>(initial.getStates());
+        final Set<Transition> transitions = this.storedTransitions(initial);
+
+        final TSMorphism i1 = cospan.getI1();
+        final List<State> removed = new ArrayList<>();
+        for (final State state : i1.getSource().getStates()) {
+            if (!state.equals(i1.getSource().getStartState()) && removed.size() < 10) {
+                pullback.removeState(IncrementalPullback.Leg.I1, state);
+                removed.add(state);
+            }
+        }
+        // Added back before the poll, so their pullback states cancel out.
+        for (final State state : removed.subList(0, 3)) {
+            pullback.addState(IncrementalPullback.Leg.I1, state, i1.mapState(state));
+        }
+        final IncrementalPullback.Changes changes = pullback.pollChanges();
+        assertThat(changes.getRemovedStates().isEmpty(), is(false));
+        assertTrue(Collections.disjoint(changes.getAddedStates(), changes.getRemovedStates()));
+        assertTrue(Collections.disjoint(changes.getAddedTransitions(), changes.getRemovedTransitions()));
+        assertTrue(changes.getAddedTransitions().stream().noneMatch(initial::isImplicitIdleTransition));
+        states.removeAll(changes.getRemovedStates());
+        states.addAll(changes.getAddedStates());
+        transitions.removeAll(changes.getRemovedTransitions());
+        transitions.addAll(changes.getAddedTransitions());
+
+        final TransitionSystem current = pullback.snapshot().getM1().getSource();
+        assertThat(states, is(current.getStates()));
+        assertThat(transitions, is(this.storedTransitions(current)));
+        assertTrue(pullback.pollChanges().isEmpty());
+    }
+
+    private Set<Transition> storedTransitions(final TransitionSystem system) {
+        return system.getTransitions().stream()
+                     .filter(transition -> !system.isImplicitIdleTransition(transition))
+                     .collect(Collectors.toSet());
+    }
+
+    /**
+     * Checks that the maintained pullback is the pullback of the current cospan.
+     */
+    private void expectFullCalculation(final IncrementalPullback pullback) {
+        final Cospan cospan = pullback.getCospan();
+        cospan.getI1().validate();
+        cospan.getI2().validate();
+        final PullbackResult expected = PullbackResult.calculate(cospan);
+        final PullbackResult actual = pullback.snapshot();
+        assertThat(actual.getM1().getSource(), is(expected.getM1().getSource()));
+        assertThat(actual.getM1().getStateMapping(), is(expected.getM1().getStateMapping()));
+        assertThat(actual.getM1().getTransitionMapping(), is(expected.getM1().getTransitionMapping()));
+        assertThat(actual.getM2().getStateMapping(), is(expected.getM2().getStateMapping()));
+        assertThat(actual.getM2().getTransitionMapping(), is(expected.getM2().getTransitionMapping()));
+        actual.getM1().validate();
+        actual.getM2().validate();
+    }
+
+    /**
+     * Builds a component p --go--> q with a local loop q --work--> q, mapped onto the interface.
+     */
+    private TSMorphism buildComponent(final String index) {
+        final State p = new State("p" + index);
+        final State q = new State("q" + index);
+        final Transition componentGo = new Transition(p, q, "go");
+        final TransitionSystem component = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(componentGo)
+                .addTransition(new Transition(q, q, "work" + index))
+                .buildWithIdleTransitions();
+        return new TSMorphismBuilder()
+                .source(component)
+                .target(this.interfaceSystem)
+                .addTransitionMapping(componentGo, this.go)
+                .buildWithIdleTransitions();
+    }
+}
@@ -0,0 +1,81 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import com.google.common.collect.Sets;
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+class LimitResultTest implements TransitionSystemTestHelper {
+
+    private TransitionSystem interfaceSystem;
+
+    @BeforeEach
+    void setUp() {
+        final State t0 = new State("t0");
+        final State t1 = new State("t1");
+        this.interfaceSystem = new TransitionSystemBuilder()
+                .startState(t0)
+                .addTransition(new Transition(t0, t1, "go"))
+                .buildWithIdleTransitions();
+    }
+
+    @Test
+    void limitOfThreeComponents() {
+        final MultiCospan input = new MultiCospan(
+                this.buildComponent("1"),
+                this.buildComponent("2"),
+                this.buildComponent("3"));
+
+        final LimitResult result = LimitResult.calculate(input);
+        final TransitionSystem limitSystem = result.getLimitSystem();
+
+        assertThat(this.getStateNamesForTS(limitSystem), is(Sets.newHashSet("(p1, p2, p3)", "(q1, q2, q3)")));
+        assertThat(limitSystem.getStartState().getName(), is("(p1, p2, p3)"));
+        // go, idle in p and 2^3 combinations of work and idle in q
+        assertThat(limitSystem.getTransitions().size(), is(10));
+        this.expectTransitionWithLabelFromTo(limitSystem, "(p1, p2, p3)", "(q1, q2, q3)", "<go, go, go>");
+        this.expectTransitionWithLabelFromTo(limitSystem, "(q1, q2, q3)", "(q1, q2, q3)", "<work1, *, work3>");
+        this.expectStateMapping(result.getProjection(1), "(q1, q2, q3)", "q2");
+        for (int leg = 0; leg < input.size(); leg++) {
+            assertThat(result.getProjection(leg).getSource(), is(limitSystem));
+            assertThat(result.getProjection(leg).getTarget(), is(input.getLeg(leg).getSource()));
+            result.getProjection(leg).validate();
+        }
+    }
+
+    @Test
+    void limitOfTwoLegsIsThePullback() {
+        final Cospan cospan = new Cospan(this.buildComponent("1"), this.buildComponent("2"));
+
+        final LimitResult limit = LimitResult.calculate(new MultiCospan(cospan));
+        final PullbackResult pullback = PullbackResult.calculate(cospan);
+
+        assertThat(limit.getLimitSystem(), is(pullback.getM1().getSource()));
+        assertThat(limit.getProjection(0).getStateMapping(), is(pullback.getM1().getStateMapping()));
+        assertThat(limit.getProjection(1).getTransitionMapping(), is(pullback.getM2().getTransitionMapping()));
+    }
+
+    /**
+     * Builds a component p --go--> q with a local loop q --work--> q, mapped onto the interface.
+     */
+    private TSMorphism buildComponent(final String index) {
+        final State p = new State("p" + index);
+        final State q = new State("q" + index);
+        final Transition go = new Transition(p, q, "go");
+        final TransitionSystem component = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(go)
+                .addTransition(new Transition(q, q, "work" + index))
+                .buildWithIdleTransitions();
+        return new TSMorphismBuilder()
+                .source(component)
+                .target(this.interfaceSystem)
+                .addTransitionMapping(go, this.getTransitionForLabel(this.interfaceSystem, "go"))
+                .buildWithIdleTransitions();
+    }
+}
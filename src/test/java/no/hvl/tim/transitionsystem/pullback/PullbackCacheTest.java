@@ -0,0 +1,139 @@
+package no.hvl.tim.transitionsystem.pullback;
+
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PullbackCacheTest implements TransitionSystemTestHelper {
+
+    @Test
+    void equalInputsShareOneResult() {
+        final PullbackCache cache = new PullbackCache(1000);
+
+        final Cospan first = cache.calcCoordinationInterface(
+                this.buildSystem("a", "b"),
+                this.buildSystem("b", "c"),
+                this.interactions("b"));
+        // Built independently
+        final Cospan second = cache.calcCoordinationInterface(
+                this.buildSystem("a", "b"),
+                this.buildSystem("b", "c"),
+                this.interactions("b"));
+        assertSame(first, second);
+        assertThat(cache.getCoordinationInterfaceStatistics().hitCount(), is(1L));
+        assertThat(cache.getCoordinationInterfaceStatistics().missCount(), is(1L));
+
+        final PullbackResult result = cache.calculate(first);
+        assertSame(result, cache.calculate(first));
+        // An equal cospan of equal but not identical systems
+        final Cospan equalCospan = PullbackResult.calcCoordinationInterface(
+                this.buildSystem("a", "b"),
+                this.buildSystem("b", "c"),
+                this.interactions("b"));
+        assertSame(result, cache.calculate(equalCospan));
+        this.checkABCPullback(result);
+        assertThat(cache.getPullbackStatistics().hitCount(), is(2L));
+        assertThat(cache.getStatistics().requestCount(), is(5L));
+
+        // Different interactions
+        final Cospan other = cache.calcCoordinationInterface(
+                this.buildSystem("a", "b"),
+                this.buildSystem("b", "c"),
+                Map.of());
+        assertNotEquals(first.getI1().getTarget(), other.getI1().getTarget());
+        assertThat(cache.size(), is(3L));
+    }
+
+    @Test
+    void evictsWhenWeightIsExceeded() {
+        final Cospan abcd = PullbackResult.calcCoordinationInterface(
+                this.buildSystem("a", "b"),
+                this.buildSystem("b", "c"),
+                this.interactions("b"));
+        final Cospan swapped = new Cospan(abcd.getI2(), abcd.getI1());
+        // Room for one of the entries, which have the same number of states and transitions
+        final PullbackCache cache = new PullbackCache(this.entryWeight(abcd) + 1);
+
+        cache.calculate(abcd);
+        cache.calculate(swapped);
+        assertThat(cache.getPullbackStatistics().evictionCount(), is(1L));
+        cache.calculate(swapped);
+        assertThat(cache.getPullbackStatistics().hitCount(), is(1L));
+        assertThat(cache.size(), is(1L));
+    }
+
+    @Test
+    void weightIncludesTheInput() {
+        final Cospan abcd = PullbackResult.calcCoordinationInterface(
+                this.buildSystem("a", "b"),
+                this.buildSystem("b", "c"),
+                this.interactions("b"));
+        // Room for the pullback system, but not for the systems of the cospan kept by the key
+        final TransitionSystem pullbackSystem = PullbackResult.calculate(abcd).getM1().getSource();
+        final PullbackCache cache = new PullbackCache(
+                pullbackSystem.getStates().size() + pullbackSystem.getTransitions().size() + 1);
+
+        cache.calculate(abcd);
+        assertThat(cache.size(), is(0L));
+        assertThat(cache.getPullbackStatistics().evictionCount(), is(1L));
+    }
+
+    @Test
+    void exceptionsAreNotWrapped() {
+        final PullbackCache cache = new PullbackCache(1000);
+        // The interaction is not part of the systems.
+        final Map<Transition, Transition> interactions = this.interactions("x");
+
+        assertThrows(
+                TransitionSystemException.class,
+                () -> cache.calcCoordinationInterface(
+                        this.buildSystem("a", "b"),
+                        this.buildSystem("b", "c"),
+                        interactions));
+        assertThat(cache.size(), is(0L));
+    }
+
+    /**
+     * Returns the number of states and transitions of the systems of the given cospan and its pullback.
+     */
+    private long entryWeight(final Cospan cospan) {
+        final TransitionSystem pullbackSystem = PullbackResult.calculate(cospan).getM1().getSource();
+        return Stream.of(
+                        cospan.getI1().getSource(),
+                        cospan.getI2().getSource(),
+                        cospan.getI1().getTarget(),
+                        pullbackSystem)
+                .mapToLong(system -> system.getStates().size() + system.getTransitions().size())
+                .sum();
+    }
+
+    /**
+     * Builds the system X --x--> Y --y--> Z with states named after the given labels, as in the ABCD example.
+     */
+    private TransitionSystem buildSystem(final String first, final String second) {
+        final State x = new State(first.toUpperCase());
+        final State y = new State(second.toUpperCase());
+        final State z = new State(String.valueOf((char) (second.charAt(0) + 1)).toUpperCase());
+        return new TransitionSystemBuilder()
+                .startState(x)
+                .addTransition(new Transition(x, y, first + second))
+                .addTransition(new Transition(y, z, second + (char) (second.charAt(0) + 1)))
+                .buildWithIdleTransitions();
+    }
+
+    private Map<Transition, Transition> interactions(final String state) {
+        final State b = new State(state.toUpperCase());
+        final State c = new State(String.valueOf((char) (state.charAt(0) + 1)).toUpperCase());
+        final String label = state + (char) (state.charAt(0) + 1);
+        return Map.of(new Transition(b, c, label), new Transition(b, c, label));
+    }
+}
@@ -4,11 +4,17 @@ import com.google.common.collect.Sets;
 import no.hvl.tim.transitionsystem.*;
 import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
 import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import no.hvl.tim.transitionsystem.generator.TransitionSystemGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 
 class PullbackResultTest implements TransitionSystemTestHelper {
 
@@ -166,4 +172,112 @@ class PullbackResultTest implements TransitionSystemTestHelper {
                 "(3, 3) --<*, *>--> (3, 3),\n" +
                 "(3, 4) --<*, *>--> (3, 4)"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void parallelPullbackMatchesSequentialPullback() {
+        final Cospan cospan = this.buildHandshakeCospan();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final PullbackResult sequential = PullbackResult.calculate(cospan);
+            final PullbackResult parallel = PullbackResult.calculateParallel(cospan, executor);
+
+            assertThat(parallel.getM1().getSource(), is(parallel.getM2().getSource()));
+            // Same states and transitions in the same order
+            assertThat(parallel.getM1().getSource().toString(), is(sequential.getM1().getSource().toString()));
+            assertThat(parallel.getM1().getStateMapping(), is(sequential.getM1().getStateMapping()));
+            assertThat(parallel.getM2().getTransitionMapping(), is(sequential.getM2().getTransitionMapping()));
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(
+                PullbackResult.calculateParallel(cospan).getM1().getSource(),
+                is(PullbackResult.calculate(cospan).getM1().getSource()));
+    }
+
+    @Test
+    void parallelPullbackMergesSeveralChunks() {
+        // 600 states per leg are split into at least three chunks of at most 256 states.
+        final Cospan cospan = new TransitionSystemGenerator(42).fiberedCospan(200, 3, 0.5);
+        assertThat(cospan.getI1().getSource().getStates().size() > 2 * 256, is(true));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final PullbackResult sequential = PullbackResult.calculate(cospan);
+            final PullbackResult parallel = PullbackResult.calculateParallel(cospan, executor);
+
+            final TransitionSystem parallelSystem = parallel.getM1().getSource();
+            final TransitionSystem sequentialSystem = sequential.getM1().getSource();
+            assertThat(
+                    new ArrayList<>(parallelSystem.getStates()),
+                    is(new ArrayList<>(sequentialSystem.getStates())));
+            assertThat(
+                    new ArrayList<>(parallelSystem.getTransitions()),
+                    is(new ArrayList<>(sequentialSystem.getTransitions())));
+            assertArrayEquals(sequential.getM1().getStateImageIds(), parallel.getM1().getStateImageIds());
+            assertArrayEquals(sequential.getM1().getTransitionImageIds(), parallel.getM1().getTransitionImageIds());
+            assertArrayEquals(sequential.getM2().getStateImageIds(), parallel.getM2().getStateImageIds());
+            assertArrayEquals(sequential.getM2().getTransitionImageIds(), parallel.getM2().getTransitionImageIds());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void composedPullbackSquareCommutes() {
+        final Cospan cospan = this.buildHandshakeCospan();
+        final PullbackResult pullback = PullbackResult.calculate(cospan);
+
+        final TSMorphism diagonal = pullback.getM1().compose(cospan.getI1());
+        assertThat(diagonal.getSource(), is(pullback.getM1().getSource()));
+        assertThat(diagonal.getTarget(), is(cospan.getI1().getTarget()));
+        assertThat(diagonal.getStateMapping(), is(pullback.getM2().compose(cospan.getI2()).getStateMapping()));
+        assertThat(
+                diagonal.getTransitionMapping(),
+                is(pullback.getM2().compose(cospan.getI2()).getTransitionMapping()));
+        for (final Transition transition : diagonal.getSource().getTransitions()) {
+            assertThat(
+                    diagonal.mapTransition(transition),
+                    is(cospan.getI1().mapTransition(pullback.getM1().mapTransition(transition))));
+        }
+    }
+
+    private Cospan buildHandshakeCospan() {
+        final State s1_1 = new State("1");
+        final State s1_2 = new State("2");
+        final Transition a_trans = new Transition(s1_1, s1_2, "a");
+        final Transition b_trans = new Transition(s1_2, new State("3"), "b");
+        final TransitionSystem left_ts = this.left.startState(s1_1)
+                .addTransition(a_trans)
+                .addTransition(b_trans)
+                .buildWithIdleTransitions();
+
+        final State s2_2 = new State("2");
+        final State s2_3 = new State("3");
+        final Transition sysb_b_trans = new Transition(s2_2, s2_3, "b");
+        final Transition sysb_c_trans = new Transition(s2_3, new State("4"), "c");
+        final TransitionSystem right_ts = this.right.startState(s2_2)
+                .addTransition(sysb_b_trans)
+                .addTransition(sysb_c_trans)
+                .buildWithIdleTransitions();
+
+        final State m2 = new State("2");
+        final State m3 = new State("3");
+        final Transition middle_b_trans = new Transition(m2, m3, "b");
+        final TransitionSystem middle_ts = this.middle.startState(m2)
+                .addTransition(middle_b_trans)
+                .buildWithIdleTransitions();
+
+        final TSMorphism left_morphism = new TSMorphismBuilder()
+                .source(left_ts)
+                .target(middle_ts)
+                .addTransitionMappingToIdle(a_trans, m2)
+                .addTransitionMapping(b_trans, middle_b_trans)
+                .buildWithIdleTransitions();
+        final TSMorphism right_morphism = new TSMorphismBuilder()
+                .source(right_ts)
+                .target(middle_ts)
+                .addTransitionMappingToIdle(sysb_c_trans, m3)
+                .addTransitionMapping(sysb_b_trans, middle_b_trans)
+                .buildWithIdleTransitions();
+        return new Cospan(left_morphism, right_morphism);
+    }
+}
@@ -89,6 +89,66 @@ class UnreachableStatesInPullbackTest implements TransitionSystemTestHelper {
         this.expectTransitionWithLabelFromTo(pullbackSystem, "(z1', z1')", "(z1', z1')", "<*, *>");
     }
 
+    @Test
+    void reachablePullbackSkipsUnreachableStates() {
+        // Build left side transition system
+        final State z1_l = new State("z1");
+        final State z1_prime_l = new State("z1'");
+        final Transition a_l = new Transition(z1_l, z1_prime_l, "a");
+        final Transition b_l = new Transition(z1_l, z1_prime_l, "b");
+        this.left.startState(z1_l)
+                .addTransition(a_l)
+                .addTransition(b_l);
+        final TransitionSystem left_ts = this.left.buildWithIdleTransitions();
+
+        // Build right side transition system
+        final State z1_r = new State("z1");
+        final State z1_prime_r = new State("z1'");
+        final Transition a_r = new Transition(z1_r, z1_prime_r, "a");
+        this.right.startState(z1_r)
+                .addTransition(a_r);
+        final TransitionSystem right_ts = this.right.buildWithIdleTransitions();
+
+        // Build middle
+        final State z1_m = new State("(z1, z1')");
+        final Transition a_m = new Transition(z1_m, z1_m, "a");
+        this.middle.startState(z1_m)
+                .addTransition(a_m);
+        final TransitionSystem middle_ts = this.middle.buildWithIdleTransitions();
+
+        // Build morphisms
+        final TSMorphism left_morphism = new TSMorphismBuilder()
+                .source(left_ts)
+                .target(middle_ts)
+                .addTransitionMapping(a_l, a_m)
+                .buildWithIdleTransitions();
+        final TSMorphism right_morphism = new TSMorphismBuilder()
+                .source(right_ts)
+                .target(middle_ts)
+                .addTransitionMapping(a_r, a_m)
+                .buildWithIdleTransitions();
+
+        final PullbackResult result = PullbackResult.calculateReachable(new Cospan(left_morphism, right_morphism));
+        // source is the same system
+        assertThat(result.getM1().getSource(), is(result.getM2().getSource()));
+        // (z1, z1') is not reachable from the start state
+        final TransitionSystem pullbackSystem = result.getM1().getSource();
+        assertThat(pullbackSystem.getStartState().getName(), is("(z1, z1)"));
+        assertThat(
+                this.getStateNamesForTS(pullbackSystem),
+                is(Sets.newHashSet("(z1, z1)", "(z1', z1')", "(z1', z1)")));
+        assertThat(pullbackSystem.getTransitions().size(), is(5));
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(z1, z1)", "(z1', z1')", "<a, a>");
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(z1, z1)", "(z1', z1)", "<b, *>");
+        // 3 Idle Transitions
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(z1, z1)", "(z1, z1)", "<*, *>");
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(z1', z1)", "(z1', z1)", "<*, *>");
+        this.expectTransitionWithLabelFromTo(pullbackSystem, "(z1', z1')", "(z1', z1')", "<*, *>");
+        // Morphisms are restrictions of the full pullback
+        this.expectStateMapping(result.getM1(), "(z1', z1)", "z1'");
+        this.expectStateMapping(result.getM2(), "(z1', z1)", "z1");
+    }
+
     @Test
     void pullbackUnreachableAdrian() { // Different less confusing naming scheme but the same as the other test above.
         // Build left side transition system
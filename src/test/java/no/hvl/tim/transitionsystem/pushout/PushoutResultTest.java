@@ -0,0 +1,219 @@
+package no.hvl.tim.transitionsystem.pushout;
+
+import com.google.common.collect.Sets;
+import no.hvl.tim.transitionsystem.*;
+import no.hvl.tim.transitionsystem.builder.TSMorphismBuilder;
+import no.hvl.tim.transitionsystem.builder.TransitionSystemBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PushoutResultTest implements TransitionSystemTestHelper {
+
+    @Test
+    void glueAlongSharedTransition() {
+        // Shared subsystem
+        final State p = new State("p");
+        final State q = new State("q");
+        final Transition a = new Transition(p, q, "a");
+        final TransitionSystem shared = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .buildWithIdleTransitions();
+
+        // First system, contains the shared subsystem as is
+        final State r = new State("r");
+        final TransitionSystem first = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .addTransition(new Transition(q, r, "b"))
+                .buildWithIdleTransitions();
+
+        // Second system, contains the shared subsystem with q renamed to u
+        final State u = new State("u");
+        final Transition a2 = new Transition(p, u, "a");
+        final TransitionSystem second = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a2)
+                .addTransition(new Transition(u, r, "c"))
+                .buildWithIdleTransitions();
+
+        final TSMorphism intoFirst = new TSMorphismBuilder()
+                .source(shared)
+                .target(first)
+                .addTransitionMapping(a, a)
+                .buildWithIdleTransitions();
+        final TSMorphism intoSecond = new TSMorphismBuilder()
+                .source(shared)
+                .target(second)
+                .addTransitionMapping(a, a2)
+                .buildWithIdleTransitions();
+        final Span span = new Span(intoFirst, intoSecond);
+
+        final PushoutResult result = PushoutResult.calculate(span);
+        final TransitionSystem pushoutSystem = result.getM1().getTarget();
+
+        // p is merged with the same name, q and u with different names, r of both systems is not merged.
+        assertThat(this.getStateNamesForTS(pushoutSystem), is(Sets.newHashSet("p", "(q, u)", "r", "r'")));
+        assertThat(pushoutSystem.getStartState(), is(p));
+        // a, b, c and 4 idle transitions
+        assertThat(pushoutSystem.getTransitions().size(), is(7));
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "p", "(q, u)", "a");
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "(q, u)", "r", "b");
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "(q, u)", "r'", "c");
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "(q, u)", "(q, u)", TransitionSystem.IDLE_LABEL);
+
+        this.expectStateMapping(result.getM1(), "q", "(q, u)");
+        this.expectStateMapping(result.getM2(), "u", "(q, u)");
+        this.expectStateMapping(result.getM2(), "r", "r'");
+        result.getM1().validate();
+        result.getM2().validate();
+
+        // The square commutes
+        assertThat(
+                span.getI1().compose(result.getM1()).getTransitionMapping(),
+                is(span.getI2().compose(result.getM2()).getTransitionMapping()));
+    }
+
+    @Test
+    void mergedNamesAreDisambiguated() {
+        // The shared state s is named "a, b" in the first and "c" in the second system, so it is merged into a
+        // tuple rendered ("a, b", c). The second system also has an unmerged state with this name and one which
+        // would have the same name if components were not quoted.
+        final State s = new State("s");
+        final TransitionSystem shared = new TransitionSystemBuilder().startState(s).buildWithIdleTransitions();
+        final State ab = new State("a, b");
+        final TransitionSystem first = new TransitionSystemBuilder().startState(ab).buildWithIdleTransitions();
+        final State c = new State("c");
+        final State merged = new State("(\"a, b\", c)");
+        final State unquoted = new State("(a, b, c)");
+        final TransitionSystem second = new TransitionSystemBuilder()
+                .startState(c)
+                .addTransition(new Transition(c, merged, "x"))
+                .addTransition(new Transition(c, unquoted, "y"))
+                .buildWithIdleTransitions();
+        final Span span = new Span(
+                new TSMorphismBuilder().source(shared).target(first).buildWithIdleTransitions(),
+                new TSMorphismBuilder().source(shared).target(second).buildWithIdleTransitions());
+
+        final PushoutResult result = PushoutResult.calculate(span);
+        final TransitionSystem pushoutSystem = result.getM1().getTarget();
+
+        assertThat(
+                this.getStateNamesForTS(pushoutSystem),
+                is(Sets.newHashSet("(\"a, b\", c)", "(\"a, b\", c)'", "(a, b, c)")));
+        assertThat(pushoutSystem.getStartState(), is(State.tuple(ab, c)));
+        this.expectStateMapping(result.getM1(), "a, b", "(\"a, b\", c)");
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "(\"a, b\", c)", "(\"a, b\", c)'", "x");
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "(\"a, b\", c)", "(a, b, c)", "y");
+        result.getM2().validate();
+    }
+
+    @Test
+    void transitionsMergedWithIdleTransitionsBecomeIdle() {
+        final State p = new State("p");
+        final State q = new State("q");
+        final Transition a = new Transition(p, q, "a");
+        final TransitionSystem shared = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .buildWithIdleTransitions();
+        final TransitionSystem first = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .buildWithIdleTransitions();
+        // The second system does nothing while the shared system executes a.
+        final State x = new State("x");
+        final TransitionSystem second = new TransitionSystemBuilder().startState(x).buildWithIdleTransitions();
+        final Span span = new Span(
+                new TSMorphismBuilder().source(shared).target(first).addTransitionMapping(a, a).buildWithIdleTransitions(),
+                new TSMorphismBuilder().source(shared).target(second).addStateMapping(q, x).buildWithIdleTransitions());
+
+        final PushoutResult result = PushoutResult.calculate(span);
+        final TransitionSystem pushoutSystem = result.getM1().getTarget();
+
+        // p, q and x are merged, a is merged with the idle transition of x.
+        assertThat(this.getStateNamesForTS(pushoutSystem), is(Sets.newHashSet("(p, q, x)")));
+        assertThat(pushoutSystem.getTransitions().size(), is(1));
+        final State merged = pushoutSystem.getStartState();
+        assertThat(result.getM1().mapTransition(a), is(pushoutSystem.getIdleTransition(merged)));
+        result.getM1().validate();
+        result.getM2().validate();
+    }
+
+    @Test
+    void labelsAreMergedIntoGroups() {
+        final State p = new State("p");
+        final State q = new State("q");
+        final Transition a = new Transition(p, q, "a");
+        final TransitionSystem shared = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .buildWithIdleTransitions();
+        final Transition b = new Transition(p, q, "b");
+        final TransitionSystem first = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(b)
+                .buildWithIdleTransitions();
+        final Transition c = new Transition(p, q, "c");
+        final TransitionSystem second = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(c)
+                .buildWithIdleTransitions();
+        final Span span = new Span(
+                new TSMorphismBuilder().source(shared).target(first).addTransitionMapping(a, b).buildWithIdleTransitions(),
+                new TSMorphismBuilder().source(shared).target(second).addTransitionMapping(a, c).buildWithIdleTransitions());
+
+        final PushoutResult result = PushoutResult.calculate(span);
+        final TransitionSystem pushoutSystem = result.getM1().getTarget();
+
+        assertThat(this.getStateNamesForTS(pushoutSystem), is(Sets.newHashSet("p", "q")));
+        // {b, c} and 2 idle transitions
+        assertThat(pushoutSystem.getTransitions().size(), is(3));
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "p", "q", "{b, c}");
+        assertThat(result.getM1().mapTransition(b), is(result.getM2().mapTransition(c)));
+    }
+
+    @Test
+    void implicitIdleTransitionsStayImplicit() {
+        final State p = new State("p");
+        final State q = new State("q");
+        final Transition a = new Transition(p, q, "a");
+        final TransitionSystem shared = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .buildWithImplicitIdleTransitions();
+        final State r = new State("r");
+        final Transition b = new Transition(q, r, "b");
+        final TransitionSystem first = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .addTransition(b)
+                .buildWithImplicitIdleTransitions();
+        final State s = new State("s");
+        final Transition c = new Transition(q, s, "c");
+        final TransitionSystem second = new TransitionSystemBuilder()
+                .startState(p)
+                .addTransition(a)
+                .addTransition(c)
+                .buildWithImplicitIdleTransitions();
+        final Span span = new Span(
+                new TSMorphismBuilder().source(shared).target(first).addTransitionMapping(a, a).buildWithIdleTransitions(),
+                new TSMorphismBuilder().source(shared).target(second).addTransitionMapping(a, a).buildWithIdleTransitions());
+
+        final PushoutResult result = PushoutResult.calculate(span);
+        final TransitionSystem pushoutSystem = result.getM1().getTarget();
+
+        assertTrue(pushoutSystem.hasImplicitIdleTransitions());
+        assertThat(this.getStateNamesForTS(pushoutSystem), is(Sets.newHashSet("p", "q", "r", "s")));
+        // a, b, c and 4 implicit idle transitions
+        assertThat(pushoutSystem.getTransitions().size(), is(7));
+        this.expectTransitionWithLabelFromTo(pushoutSystem, "q", "s", "c");
+        final Transition idle = first.getIdleTransition(r);
+        assertTrue(pushoutSystem.isImplicitIdleTransition(result.getM1().mapTransition(idle)));
+        result.getM1().validate();
+        result.getM2().validate();
+    }
+}